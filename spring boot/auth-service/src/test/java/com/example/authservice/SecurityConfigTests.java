@@ -15,7 +15,7 @@ import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
-import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.DefaultSecurityFilterChain;
 import org.springframework.test.context.ActiveProfiles;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -73,13 +73,13 @@ class SecurityConfigTests {
 
     @Test
     void registeredClientRepositoryCreated() {
-        RegisteredClientRepository repository = securityConfig.registeredClientRepository();
+        RegisteredClientRepository repository = securityConfig.registeredClientRepository("order-service-secret");
         assertNotNull(repository);
     }
 
     @Test
     void registeredClientHasCorrectConfig() {
-        RegisteredClientRepository repository = securityConfig.registeredClientRepository();
+        RegisteredClientRepository repository = securityConfig.registeredClientRepository("order-service-secret");
         assertNotNull(repository);
         // Repository is created and configured
     }
@@ -106,9 +106,9 @@ class SecurityConfigTests {
     @Test
     void authorizationServerSecurityFilterChainCreated() throws Exception {
         HttpSecurity httpSecurity = mock(HttpSecurity.class);
-        when(httpSecurity.getConfigurer(any())).thenReturn(null);
-        when(httpSecurity.exceptionHandling(any())).thenReturn(httpSecurity);
-        when(httpSecurity.build()).thenReturn(mock(SecurityFilterChain.class));
+        lenient().when(httpSecurity.getConfigurer(any())).thenReturn(null);
+        lenient().when(httpSecurity.exceptionHandling(any())).thenReturn(httpSecurity);
+        lenient().when(httpSecurity.build()).thenReturn(mock(DefaultSecurityFilterChain.class));
         
         // This would require mocking OAuth2AuthorizationServerConfiguration
         // For now we verify the bean exists
@@ -118,9 +118,9 @@ class SecurityConfigTests {
     @Test
     void defaultSecurityFilterChainCreated() throws Exception {
         HttpSecurity httpSecurity = mock(HttpSecurity.class);
-        when(httpSecurity.authorizeHttpRequests(any())).thenReturn(httpSecurity);
-        when(httpSecurity.formLogin(any())).thenReturn(httpSecurity);
-        when(httpSecurity.build()).thenReturn(mock(SecurityFilterChain.class));
+        lenient().when(httpSecurity.authorizeHttpRequests(any())).thenReturn(httpSecurity);
+        lenient().when(httpSecurity.formLogin(any())).thenReturn(httpSecurity);
+        lenient().when(httpSecurity.build()).thenReturn(mock(DefaultSecurityFilterChain.class));
         
         // Verify the configuration is set up
         assertNotNull(securityConfig);
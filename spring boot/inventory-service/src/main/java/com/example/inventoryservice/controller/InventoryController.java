@@ -1,24 +1,49 @@
 package com.example.inventoryservice.controller;
 
+import com.example.inventoryservice.dto.AllocationRequest;
+import com.example.inventoryservice.dto.AllocationResponse;
+import com.example.inventoryservice.dto.BatchAvailabilityRequest;
+import com.example.inventoryservice.dto.BatchAvailabilityResponse;
+import com.example.inventoryservice.dto.BatchReservationRequest;
+import com.example.inventoryservice.dto.BatchReservationResponse;
 import com.example.inventoryservice.dto.InventoryRequest;
 import com.example.inventoryservice.dto.InventoryResponse;
+import com.example.inventoryservice.dto.InventoryStateResponse;
+import com.example.inventoryservice.dto.LowStockResponse;
+import com.example.inventoryservice.dto.ReplayResponse;
+import com.example.inventoryservice.dto.WarehouseStockResponse;
+import com.example.inventoryservice.service.InventoryMovementService;
 import com.example.inventoryservice.service.InventoryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/inventory")
 public class InventoryController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_LOW_STOCK_PAGE_SIZE = 100;
+
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private InventoryMovementService movementService;
+
     @PostMapping
     public ResponseEntity<InventoryResponse> addInventory(@Valid @RequestBody InventoryRequest request) {
         InventoryResponse response = inventoryService.addInventory(request);
+        if (response == null) {
+            return ResponseEntity.notFound().build();
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
@@ -36,6 +61,11 @@ public class InventoryController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/product/{productId}/warehouses")
+    public ResponseEntity<List<WarehouseStockResponse>> getWarehouseStock(@PathVariable Long productId) {
+        return ResponseEntity.ok(inventoryService.getWarehouseStock(productId));
+    }
+
     @PutMapping("/product/{productId}/quantity")
     public ResponseEntity<InventoryResponse> updateQuantity(
             @PathVariable Long productId, @RequestParam Integer quantity) {
@@ -66,6 +96,54 @@ public class InventoryController {
         return ResponseEntity.notFound().build();
     }
 
+    @PostMapping("/product/{productId}/shards")
+    public ResponseEntity<InventoryResponse> shardInventory(
+            @PathVariable Long productId, @RequestParam Integer count) {
+        InventoryResponse response = inventoryService.shardInventory(productId, count);
+        if (response != null) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    // Omitting the threshold turns low-stock alerts off for the product.
+    @PutMapping("/product/{productId}/low-stock-threshold")
+    public ResponseEntity<InventoryResponse> setLowStockThreshold(
+            @PathVariable Long productId, @RequestParam(required = false) Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        InventoryResponse response = inventoryService.setLowStockThreshold(productId, threshold);
+        if (response != null) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/low-stock")
+    public ResponseEntity<List<LowStockResponse>> getLowStock(
+            @RequestParam(defaultValue = "0") Long afterProductId,
+            @RequestParam(defaultValue = "" + DEFAULT_LOW_STOCK_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<LowStockResponse> items = inventoryService.getLowStock(afterProductId, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(items.get(items.size() - 1).getProductId()));
+        }
+        return response.body(items);
+    }
+
+    @PostMapping("/reserve-batch")
+    public ResponseEntity<BatchReservationResponse> reserveBatch(@Valid @RequestBody BatchReservationRequest request) {
+        BatchReservationResponse response = inventoryService.reserveBatch(request.getItems());
+        if (response.isReserved()) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.badRequest().body(response);
+    }
+
     @GetMapping("/product/{productId}/check")
     public ResponseEntity<Boolean> checkAvailability(
             @PathVariable Long productId, @RequestParam Integer quantity) {
@@ -73,9 +151,59 @@ public class InventoryController {
         return ResponseEntity.ok(available);
     }
 
+    @PostMapping("/check-batch")
+    public ResponseEntity<BatchAvailabilityResponse> checkAvailabilityBatch(
+            @Valid @RequestBody BatchAvailabilityRequest request) {
+        BatchAvailabilityResponse response = inventoryService.checkAvailabilityBatch(request.getItems());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/allocate")
+    public ResponseEntity<AllocationResponse> allocate(@Valid @RequestBody AllocationRequest request) {
+        AllocationResponse response = inventoryService.allocate(request.getItems());
+        if (response.isAllocated()) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @GetMapping("/product/{productId}/movement-state")
+    public ResponseEntity<InventoryStateResponse> getMovementState(@PathVariable Long productId) {
+        return movementService.loadState(productId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/replay")
+    public ResponseEntity<ReplayResponse> rebuildFromMovements(
+            @RequestParam(defaultValue = "true") boolean fromSnapshots) {
+        ReplayResponse response = movementService.rebuild(fromSnapshots);
+        if (response != null) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
     @GetMapping
-    public ResponseEntity<List<InventoryResponse>> getAllInventory() {
-        List<InventoryResponse> items = inventoryService.getAllInventory();
-        return ResponseEntity.ok(items);
+    public ResponseEntity<List<InventoryResponse>> getAllInventory(
+            @RequestParam(defaultValue = "0") Long afterProductId,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<InventoryResponse> items = inventoryService.getInventoryPage(afterProductId, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(items.get(items.size() - 1).getProductId()));
+        }
+        return response.body(items);
+    }
+
+    // The whole table as one JSON object per line, written while the rows are read.
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllInventory(
+            @RequestParam(defaultValue = "0") Long afterProductId) {
+        StreamingResponseBody body = out -> inventoryService.streamInventory(afterProductId, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 }
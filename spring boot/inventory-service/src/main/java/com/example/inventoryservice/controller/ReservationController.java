@@ -0,0 +1,71 @@
+package com.example.inventoryservice.controller;
+
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.dto.ReservationResponse;
+import com.example.inventoryservice.entity.ReservationStatus;
+import com.example.inventoryservice.service.ReservationService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/inventory/reservations")
+public class ReservationController {
+    @Autowired
+    private ReservationService reservationService;
+
+    @PostMapping
+    public ResponseEntity<ReservationResponse> reserve(@Valid @RequestBody ReservationRequest request) {
+        ReservationResponse response = reservationService.reserve(request);
+        if (response != null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReservationResponse> getReservationById(@PathVariable Long id) {
+        return reservationService.getReservationById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/order/{orderId}")
+    public ResponseEntity<List<ReservationResponse>> getReservationsByOrderId(@PathVariable Long orderId) {
+        return ResponseEntity.ok(reservationService.getReservationsByOrderId(orderId));
+    }
+
+    // All or nothing: 409 with the reservation that blocked it if any one cannot be confirmed.
+    @PostMapping("/order/{orderId}/confirm")
+    public ResponseEntity<List<ReservationResponse>> confirmOrder(@PathVariable Long orderId) {
+        List<ReservationResponse> responses = reservationService.confirmOrder(orderId);
+        if (responses.stream().anyMatch(response -> !ReservationStatus.CONFIRMED.name().equals(response.getStatus()))) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(responses);
+        }
+        return ResponseEntity.ok(responses);
+    }
+
+    @PostMapping("/{id}/release")
+    public ResponseEntity<ReservationResponse> release(@PathVariable Long id) {
+        ReservationResponse response = reservationService.release(id);
+        if (response != null) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<ReservationResponse> confirm(@PathVariable Long id) {
+        ReservationResponse response = reservationService.confirm(id);
+        if (response == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!ReservationStatus.CONFIRMED.name().equals(response.getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+}
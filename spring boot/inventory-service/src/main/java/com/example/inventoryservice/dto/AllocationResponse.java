@@ -0,0 +1,17 @@
+package com.example.inventoryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationResponse {
+    private boolean allocated;
+    // False when the latency budget ran out and the shipments come from the greedy plan.
+    private boolean optimal;
+    private List<WarehouseShipment> shipments;
+    private List<ReservationResult> items;
+}
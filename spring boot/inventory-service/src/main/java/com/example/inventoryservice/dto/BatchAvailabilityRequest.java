@@ -0,0 +1,17 @@
+package com.example.inventoryservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAvailabilityRequest {
+    @NotEmpty(message = "At least one item is required")
+    @Valid
+    private List<ReservationItem> items;
+}
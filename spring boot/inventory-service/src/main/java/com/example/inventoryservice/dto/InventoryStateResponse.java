@@ -0,0 +1,16 @@
+package com.example.inventoryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryStateResponse {
+    private Long productId;
+    private Integer quantity;
+    private Integer reserved;
+    private Integer available;
+    private Long lastMovementId;
+}
@@ -0,0 +1,20 @@
+package com.example.inventoryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockEvent {
+    public static final String BELOW_THRESHOLD = "BELOW_THRESHOLD";
+    public static final String RECOVERED = "RECOVERED";
+
+    private Long productId;
+    private Integer available;
+    private Integer threshold;
+    private String type;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,15 @@
+package com.example.inventoryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayResponse {
+    private int products;
+    private long events;
+    private long elapsedMillis;
+    private long eventsPerSecond;
+}
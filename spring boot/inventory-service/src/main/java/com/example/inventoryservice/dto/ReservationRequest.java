@@ -0,0 +1,32 @@
+package com.example.inventoryservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+
+    @NotNull(message = "Order ID is required")
+    private Long orderId;
+
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be greater than 0")
+    private Integer quantity;
+
+    @Positive(message = "TTL must be greater than 0")
+    private Long ttlSeconds;
+
+    // The warehouse the allocation picked to ship from; confirming takes the units from it first.
+    private String warehouse;
+
+    public ReservationRequest(Long productId, Long orderId, Integer quantity, Long ttlSeconds) {
+        this(productId, orderId, quantity, ttlSeconds, null);
+    }
+}
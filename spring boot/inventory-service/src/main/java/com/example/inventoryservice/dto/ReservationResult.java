@@ -0,0 +1,20 @@
+package com.example.inventoryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResult {
+    public static final String RESERVED = "RESERVED";
+    public static final String AVAILABLE = "AVAILABLE";
+    public static final String INSUFFICIENT_STOCK = "INSUFFICIENT_STOCK";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private Long productId;
+    private Integer requested;
+    private Integer available;
+    private String status;
+}
@@ -0,0 +1,14 @@
+package com.example.inventoryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseShipment {
+    private String warehouse;
+    private List<ReservationItem> items;
+}
@@ -0,0 +1,16 @@
+package com.example.inventoryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseStockResponse {
+    private Long productId;
+    private String warehouse;
+    private Integer quantity;
+    private LocalDateTime updatedAt;
+}
@@ -32,6 +32,14 @@ public class InventoryItem {
     @Column
     private String warehouse;
 
+    // Null while the stock lives in this row; otherwise the number of InventoryShard rows holding it.
+    @Column
+    private Integer shardCount;
+
+    // Operations are alerted when available stock drops below this; null disables it.
+    @Column
+    private Integer lowStockThreshold;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,60 @@
+package com.example.inventoryservice.entity;
+
+/**
+ * Kinds of entries in the inventory movement log. Each one knows how it changes a
+ * product's {quantity, reserved} pair, so replaying a product's entries in id order
+ * reproduces its inventory row.
+ */
+public enum MovementType {
+    // Stock a product already had when the log started recording it.
+    OPENING {
+        @Override
+        public void apply(int[] stock, int quantity, int reserved) {
+            stock[0] = quantity;
+            stock[1] = reserved;
+        }
+    },
+    RECEIPT {
+        @Override
+        public void apply(int[] stock, int quantity, int reserved) {
+            stock[0] += quantity;
+        }
+    },
+    // updateQuantity sets the on-hand count outright.
+    ADJUSTMENT {
+        @Override
+        public void apply(int[] stock, int quantity, int reserved) {
+            stock[0] = quantity;
+        }
+    },
+    RESERVATION {
+        @Override
+        public void apply(int[] stock, int quantity, int reserved) {
+            stock[1] += quantity;
+        }
+    },
+    // Clamped at zero, like the release UPDATE itself.
+    RELEASE {
+        @Override
+        public void apply(int[] stock, int quantity, int reserved) {
+            stock[1] = Math.max(0, stock[1] - quantity);
+        }
+    },
+    COMMIT {
+        @Override
+        public void apply(int[] stock, int quantity, int reserved) {
+            stock[0] -= quantity;
+            stock[1] -= quantity;
+        }
+    },
+    // Net deltas applied by a hot-SKU flush.
+    WRITE_BEHIND {
+        @Override
+        public void apply(int[] stock, int quantity, int reserved) {
+            stock[0] += quantity;
+            stock[1] += reserved;
+        }
+    };
+
+    public abstract void apply(int[] stock, int quantity, int reserved);
+}
@@ -0,0 +1,85 @@
+package com.example.inventoryservice.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_order_id", columnList = "orderId"),
+        @Index(name = "idx_reservations_status_id", columnList = "status, id"),
+        @Index(name = "idx_reservations_stock_pending", columnList = "stockPending")
+})
+public class Reservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull(message = "Product ID is required")
+    @Column(nullable = false)
+    private Long productId;
+
+    @NotNull(message = "Order ID is required")
+    @Column(nullable = false)
+    private Long orderId;
+
+    @NotNull(message = "Quantity is required")
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private String warehouse;
+
+    // Last status whose stock effect is reflected in the inventory row. Hot SKUs
+    // leave it behind (stockPending) until the write-behind flush catches up.
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus appliedStatus;
+
+    private Boolean stockPending;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (status == null) {
+            status = ReservationStatus.ACTIVE;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public void changeStatus(ReservationStatus newStatus, boolean stockApplied) {
+        if (!Boolean.TRUE.equals(stockPending)) {
+            appliedStatus = status;
+        }
+        status = newStatus;
+        if (stockApplied) {
+            appliedStatus = newStatus;
+            stockPending = false;
+        } else {
+            stockPending = true;
+        }
+    }
+}
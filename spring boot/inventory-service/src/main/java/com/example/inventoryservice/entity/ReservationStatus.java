@@ -0,0 +1,5 @@
+package com.example.inventoryservice.entity;
+
+public enum ReservationStatus {
+    ACTIVE, CONFIRMED, RELEASED, EXPIRED
+}
@@ -0,0 +1,18 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.entity.InventoryMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+    List<InventoryMovement> findByProductIdAndIdGreaterThanOrderByIdAsc(Long productId, Long id);
+
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM InventoryMovement m")
+    long findMaxId();
+
+    @Query("SELECT DISTINCT m.productId FROM InventoryMovement m WHERE m.id > ?1 AND m.id <= ?2")
+    List<Long> findProductIdsBetween(Long afterId, Long upToId);
+}
@@ -1,11 +1,70 @@
 package com.example.inventoryservice.repository;
 
 import com.example.inventoryservice.entity.InventoryItem;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<InventoryItem, Long> {
     Optional<InventoryItem> findByProductId(Long productId);
+
+    List<InventoryItem> findByProductIdIn(Collection<Long> productIds);
+
+    // Keyset page: the unique productId index serves both the filter and the order.
+    List<InventoryItem> findByProductIdGreaterThanOrderByProductIdAsc(Long productId, Limit limit);
+
+    // Rows are locked in productId order so overlapping batches always acquire
+    // their locks in the same sequence and cannot deadlock each other.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventoryItem i WHERE i.productId IN ?1 ORDER BY i.productId")
+    List<InventoryItem> lockByProductIdIn(Collection<Long> productIds);
+
+    @Query("SELECT i.productId FROM InventoryItem i WHERE i.shardCount IS NOT NULL")
+    List<Long> findShardedProductIds();
+
+    @Query("SELECT i.productId FROM InventoryItem i WHERE NOT EXISTS " +
+            "(SELECT m.id FROM InventoryMovement m WHERE m.productId = i.productId) ORDER BY i.productId")
+    List<Long> findProductIdsWithoutMovements();
+
+    // The availability check lives in the WHERE clause so concurrent reservations
+    // cannot both pass it; a row count of 0 means not found, not enough stock, or
+    // the product's stock lives in its shards (see ShardedStockService).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.reserved = i.reserved + ?2, i.updatedAt = ?3 " +
+            "WHERE i.productId = ?1 AND i.shardCount IS NULL AND i.quantity - i.reserved >= ?2")
+    int reserveStock(Long productId, Integer quantity, LocalDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.reserved = CASE WHEN i.reserved > ?2 THEN i.reserved - ?2 ELSE 0 END, " +
+            "i.updatedAt = ?3 WHERE i.productId = ?1 AND i.shardCount IS NULL")
+    int releaseStock(Long productId, Integer quantity, LocalDateTime updatedAt);
+
+    // Turns a reservation into a shipped deduction: the units leave both the
+    // on-hand quantity and the reserved counter.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.quantity = i.quantity - ?2, i.reserved = i.reserved - ?2, i.updatedAt = ?3 " +
+            "WHERE i.productId = ?1 AND i.shardCount IS NULL AND i.reserved >= ?2")
+    int commitReservedStock(Long productId, Integer quantity, LocalDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.quantity = i.quantity + ?2, i.updatedAt = ?3 " +
+            "WHERE i.productId = ?1 AND i.shardCount IS NULL")
+    int receiveStock(Long productId, Integer quantity, LocalDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.quantity = ?2, i.updatedAt = ?3 WHERE i.productId = ?1 AND i.shardCount IS NULL")
+    int updateQuantity(Long productId, Integer quantity, LocalDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.lowStockThreshold = ?2 WHERE i.productId = ?1")
+    int updateLowStockThreshold(Long productId, Integer threshold);
 }
@@ -0,0 +1,49 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.entity.InventoryShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryShardRepository extends JpaRepository<InventoryShard, Long> {
+    List<InventoryShard> findByProductIdOrderByShardIndexAsc(Long productId);
+
+    List<InventoryShard> findByProductIdIn(Collection<Long> productIds);
+
+    // Plain values rather than entities, so a locking re-read later in the same
+    // transaction is not answered from a stale persistence context.
+    @Query("SELECT s.shardIndex AS shardIndex, s.quantity - s.reserved AS available " +
+            "FROM InventoryShard s WHERE s.productId = ?1 ORDER BY s.shardIndex")
+    List<ShardLevel> findLevelsByProductId(Long productId);
+
+    // Locks one shard that can still hold the quantity, preferring indexes from startIndex
+    // upwards. Shards locked by others are skipped rather than waited for, so a caller
+    // that gets nothing back holds no shard locks.
+    @Query(value = "SELECT shard_index FROM inventory_shards " +
+            "WHERE product_id = ?1 AND quantity - reserved >= ?2 " +
+            "ORDER BY shard_index < ?3, shard_index LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Integer claimFittingShard(Long productId, Integer quantity, Integer startIndex);
+
+    // Shards are locked in index order, the same order every multi-shard path uses.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventoryShard s WHERE s.productId = ?1 ORDER BY s.shardIndex")
+    List<InventoryShard> lockByProductId(Long productId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InventoryShard s SET s.reserved = s.reserved + ?3, s.updatedAt = ?4 " +
+            "WHERE s.productId = ?1 AND s.shardIndex = ?2 AND s.quantity - s.reserved >= ?3")
+    int reserveStock(Long productId, Integer shardIndex, Integer quantity, LocalDateTime updatedAt);
+
+    interface ShardLevel {
+        Integer getShardIndex();
+
+        Integer getAvailable();
+    }
+}
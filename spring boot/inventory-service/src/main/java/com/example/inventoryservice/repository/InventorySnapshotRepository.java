@@ -0,0 +1,12 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.entity.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+    @Query("SELECT COALESCE(MAX(s.lastMovementId), 0) FROM InventorySnapshot s")
+    long findMaxLastMovementId();
+}
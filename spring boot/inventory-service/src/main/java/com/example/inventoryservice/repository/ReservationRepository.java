@@ -0,0 +1,40 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.entity.Reservation;
+import com.example.inventoryservice.entity.ReservationStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+    List<Reservation> findByOrderId(Long orderId);
+
+    List<Reservation> findTop1000ByStatusAndIdGreaterThanOrderByIdAsc(ReservationStatus status, Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reservation r WHERE r.id = ?1")
+    Optional<Reservation> lockById(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reservation r WHERE r.orderId = ?1 ORDER BY r.id")
+    List<Reservation> lockByOrderId(Long orderId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reservation r WHERE r.id IN ?1 AND r.status = ?2 ORDER BY r.id")
+    List<Reservation> lockByIdInAndStatus(Collection<Long> ids, ReservationStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reservation r WHERE r.stockPending = true ORDER BY r.id")
+    List<Reservation> lockStockPending();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.appliedStatus = r.status, r.stockPending = false WHERE r.id IN ?1")
+    int markStockApplied(Collection<Long> ids);
+}
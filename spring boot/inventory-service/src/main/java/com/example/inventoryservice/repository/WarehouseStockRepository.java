@@ -0,0 +1,29 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.entity.WarehouseStock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WarehouseStockRepository extends JpaRepository<WarehouseStock, Long> {
+    List<WarehouseStock> findByProductIdOrderByWarehouseAsc(Long productId);
+
+    @Query("SELECT w FROM WarehouseStock w WHERE w.productId IN ?1 AND w.quantity > 0")
+    List<WarehouseStock> findStockedByProductIdIn(Collection<Long> productIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WarehouseStock w WHERE w.productId = ?1 ORDER BY w.warehouse")
+    List<WarehouseStock> lockByProductId(Long productId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WarehouseStock w SET w.quantity = w.quantity + ?3, w.updatedAt = ?4 " +
+            "WHERE w.productId = ?1 AND w.warehouse = ?2")
+    int addQuantity(Long productId, String warehouse, Integer quantity, LocalDateTime updatedAt);
+}
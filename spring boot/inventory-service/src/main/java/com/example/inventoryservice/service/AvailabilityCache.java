@@ -0,0 +1,237 @@
+package com.example.inventoryservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Read-through cache of available units per product, backing the availability checks.
+ *
+ * Values live in a {@link LongIntHashMap}, so an entry is two array slots rather than
+ * a boxed inventory row. Lookups take an optimistic {@link StampedLock} read and only
+ * fall back to a read lock when a writer got in the way.
+ *
+ * A full cache makes room by CLOCK, an approximation of least-recently-read: a hit sets
+ * the product's bit in a reference bitmap (products may share a bit), and a hand sweeping
+ * the table clears set bits and evicts the first entry whose bit is already clear. Hits
+ * only write the bitmap, never the table, so they stay on the optimistic read.
+ *
+ * Writers call {@link #evict(Long)} after changing a product's stock. The entry is
+ * dropped at once and again when the transaction completes, and every eviction bumps
+ * a sequence number for the product's stripe. A loader takes {@link #loadStamp(Long)}
+ * before reading the database and {@link #put} ignores its value if an eviction
+ * happened in between, so a read that raced a commit can never re-insert the old
+ * count.
+ *
+ * Hit, miss, eviction and size meters follow Micrometer's {@code cache.*} naming and
+ * show up under {@code /actuator/metrics}.
+ */
+@Component
+public class AvailabilityCache implements MeterBinder {
+    static final String CACHE_NAME = "inventory-availability";
+
+    private static final int STRIPES = 64;
+
+    private final int maxEntries;
+    private final LongIntHashMap available;
+    private final long[] sequences = new long[STRIPES];
+    // Written without the lock; a lost update only costs an entry its second chance.
+    private final long[] referenced;
+    private final int referenceShift;
+    private int hand;
+    private final StampedLock lock = new StampedLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AvailabilityCache(@Value("${inventory.availability-cache.max-entries:1000000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.available = new LongIntHashMap(Math.min(maxEntries, 1024));
+        int referenceBits = 64;
+        while (referenceBits < maxEntries) {
+            referenceBits <<= 1;
+        }
+        this.referenced = new long[referenceBits >>> 6];
+        this.referenceShift = 64 - Integer.numberOfTrailingZeros(referenceBits);
+    }
+
+    /**
+     * Returns the cached available count, or {@link LongIntHashMap#MISSING}.
+     */
+    public int get(Long productId) {
+        long stamp = lock.tryOptimisticRead();
+        int value = available.get(productId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = available.get(productId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (value == LongIntHashMap.MISSING) {
+            misses.increment();
+        } else {
+            hits.increment();
+            markReferenced(productId);
+        }
+        return value;
+    }
+
+    public long loadStamp(Long productId) {
+        long stamp = lock.readLock();
+        try {
+            return sequences[stripe(productId)];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void put(Long productId, int value, long loadStamp) {
+        long stamp = lock.writeLock();
+        try {
+            if (sequences[stripe(productId)] != loadStamp) {
+                return;
+            }
+            if (available.size() >= maxEntries && available.get(productId) == LongIntHashMap.MISSING) {
+                evictOne();
+            }
+            available.put(productId, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void evict(Long productId) {
+        drop(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop(productId);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        dropAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    dropAll();
+                }
+            });
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return available.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("Availability lookups answered from the cache")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("Availability lookups that had to read the database")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+        Gauge.builder("cache.size", this, AvailabilityCache::size)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    private void drop(Long productId) {
+        long stamp = lock.writeLock();
+        try {
+            sequences[stripe(productId)]++;
+            available.remove(productId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        evictions.increment();
+    }
+
+    // Called under the write lock with the table full. The first turn clears every
+    // bit it passes, so the hand stops within two.
+    private void evictOne() {
+        int mask = available.capacity() - 1;
+        for (int step = 0; step <= 2 * (mask + 1); step++) {
+            hand = (hand + 1) & mask;
+            long productId = available.keyAt(hand);
+            if (productId == 0) {
+                continue;
+            }
+            int bit = referenceBit(productId);
+            long word = referenced[bit >>> 6];
+            if ((word & (1L << bit)) != 0) {
+                referenced[bit >>> 6] = word & ~(1L << bit);
+                continue;
+            }
+            available.remove(productId);
+            evictions.increment();
+            return;
+        }
+        // The only entry is product 0, which the map keeps outside its slots.
+        if (available.remove(0L)) {
+            evictions.increment();
+        }
+    }
+
+    private void markReferenced(long productId) {
+        int bit = referenceBit(productId);
+        long word = referenced[bit >>> 6];
+        // Checked first so hot products do not keep writing the same cache line.
+        if ((word & (1L << bit)) == 0) {
+            referenced[bit >>> 6] = word | (1L << bit);
+        }
+    }
+
+    private int referenceBit(long productId) {
+        return (int) ((productId * 0x9E3779B97F4A7C15L) >>> referenceShift);
+    }
+
+    private void dropAll() {
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < STRIPES; i++) {
+                sequences[i]++;
+            }
+            evictions.add(available.size());
+            available.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static int stripe(Long productId) {
+        return (int) (productId ^ (productId >>> 32)) & (STRIPES - 1);
+    }
+}
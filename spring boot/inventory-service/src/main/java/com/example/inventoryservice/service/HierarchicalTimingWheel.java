@@ -0,0 +1,186 @@
+package com.example.inventoryservice.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by reservation id.
+ *
+ * Each level has {@code 2^bits} buckets holding intrusive doubly-linked lists, so
+ * scheduling and cancelling are O(1). Level 0 buckets are one tick wide; a bucket at
+ * level n covers {@code 2^(bits*n)} ticks and is cascaded down into the finer levels
+ * when the clock enters its range. Enough levels are allocated to address the whole
+ * {@code long} tick range, so no deadline ever overflows the wheel.
+ *
+ * All methods are synchronized; {@link #advance(long)} is expected to be driven by a
+ * single scheduler thread.
+ */
+public class HierarchicalTimingWheel {
+
+    private final long tickMillis;
+    private final int bits;
+    private final long mask;
+    private final Bucket[][] levels;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    public HierarchicalTimingWheel(long tickMillis, int bits, long startMillis) {
+        if (tickMillis <= 0 || bits <= 0 || bits > 16) {
+            throw new IllegalArgumentException("tickMillis must be positive and bits within 1..16");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = bits;
+        this.mask = (1L << bits) - 1;
+        int levelCount = (Long.SIZE + bits - 1) / bits;
+        this.levels = new Bucket[levelCount][1 << bits];
+        for (Bucket[] level : levels) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = new Bucket();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules {@code id} to expire at {@code deadlineMillis}, replacing any timer
+     * already registered for it. Deadlines that are already due fire on the next tick.
+     */
+    public synchronized void schedule(long id, long deadlineMillis) {
+        Entry existing = entries.remove(id);
+        if (existing != null) {
+            existing.unlink();
+        }
+        long deadlineTick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        Entry entry = new Entry(id, deadlineTick);
+        entries.put(id, entry);
+        place(entry);
+    }
+
+    public synchronized boolean cancel(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        entry.unlink();
+        return true;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the clock forward to {@code nowMillis} and returns the ids whose deadline
+     * has passed, in expiry order.
+     */
+    public synchronized List<Long> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<Long> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            if (entries.isEmpty()) {
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            cascade();
+            Bucket due = levels[0][(int) (currentTick & mask)];
+            for (Entry entry = due.drain(); entry != null; ) {
+                Entry next = entry.next;
+                entry.next = null;
+                entries.remove(entry.id);
+                expired.add(entry.id);
+                entry = next;
+            }
+        }
+        return expired;
+    }
+
+    // An entry lives on the lowest level whose parent window contains both the
+    // current tick and its deadline, which guarantees its bucket is strictly ahead of
+    // the clock and gets cascaded (or fired) exactly when the clock reaches it.
+    private void place(Entry entry) {
+        int level = 0;
+        while (level < levels.length - 1
+                && (entry.deadlineTick >>> (bits * (level + 1))) != (currentTick >>> (bits * (level + 1)))) {
+            level++;
+        }
+        int index = (int) ((entry.deadlineTick >>> (bits * level)) & mask);
+        levels[level][index].add(entry);
+    }
+
+    private void cascade() {
+        int highest = 0;
+        while (highest < levels.length - 1 && (currentTick & ((1L << (bits * (highest + 1))) - 1)) == 0) {
+            highest++;
+        }
+        for (int level = highest; level > 0; level--) {
+            Bucket bucket = levels[level][(int) ((currentTick >>> (bits * level)) & mask)];
+            for (Entry entry = bucket.drain(); entry != null; ) {
+                Entry next = entry.next;
+                entry.next = null;
+                place(entry);
+                entry = next;
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long deadlineTick;
+        private Bucket bucket;
+        private Entry prev;
+        private Entry next;
+
+        private Entry(long id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private void unlink() {
+            if (bucket != null) {
+                bucket.remove(this);
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private Entry head;
+
+        private void add(Entry entry) {
+            entry.bucket = this;
+            entry.prev = null;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+
+        private void remove(Entry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.bucket = null;
+            entry.prev = null;
+            entry.next = null;
+        }
+
+        // Detaches the whole list; callers walk it through the next pointers.
+        private Entry drain() {
+            Entry first = head;
+            head = null;
+            for (Entry entry = first; entry != null; entry = entry.next) {
+                entry.bucket = null;
+                entry.prev = null;
+            }
+            return first;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.entity.MovementType;
+import com.example.inventoryservice.entity.Reservation;
+import com.example.inventoryservice.entity.ReservationStatus;
+import com.example.inventoryservice.repository.InventoryRepository;
+import com.example.inventoryservice.repository.ReservationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional in-memory front for the inventory rows of designated hot SKUs.
+ *
+ * Available stock for each hot SKU lives in a {@link StripedStockCounter}, so flash-sale
+ * reservations never queue on the row lock. Two kinds of changes are written behind:
+ * <ul>
+ *   <li>plain reserve/release calls from {@link InventoryService} accumulate a net
+ *       reserved delta that is flushed on every tick;</li>
+ *   <li>ledger reservations from {@link ReservationService} are journaled by the
+ *       reservation rows themselves ({@code stockPending}), and the flush applies the
+ *       difference between their current and last applied status.</li>
+ * </ul>
+ * Startup replays any still-pending ledger rows before loading the counters, which
+ * reconciles the inventory table with the ledger after a crash. Plain reserve/release
+ * deltas not yet flushed when the process dies are lost, bounded by the flush interval.
+ */
+@Component
+public class HotSkuReservationEngine {
+    private static final String FLUSH_SQL =
+            "UPDATE inventory SET reserved = reserved + ?, quantity = quantity + ?, updated_at = ? WHERE product_id = ?";
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryMovementLog movementLog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.hot-sku.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.hot-sku.product-ids:}")
+    private Set<Long> productIds;
+
+    @Value("${inventory.hot-sku.stripes:16}")
+    private int stripes;
+
+    private final Map<Long, HotSku> skus = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        for (Long productId : productIds) {
+            // Sharded products already spread their row contention and stay in the database.
+            inventoryRepository.findByProductId(productId)
+                    .filter(item -> item.getShardCount() == null)
+                    .ifPresent(item -> skus.put(productId, new HotSku(item, stripes)));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        flush();
+    }
+
+    public boolean isHot(Long productId) {
+        return productId != null && skus.containsKey(productId);
+    }
+
+    public Set<Long> getHotProductIds() {
+        return Collections.unmodifiableSet(skus.keySet());
+    }
+
+    public int available(Long productId) {
+        return skus.get(productId).available.available();
+    }
+
+    public boolean reserve(Long productId, int quantity) {
+        HotSku sku = skus.get(productId);
+        if (!sku.available.tryAcquire(quantity)) {
+            return false;
+        }
+        sku.reserved.addAndGet(quantity);
+        sku.pendingReserved.add(quantity);
+        return true;
+    }
+
+    // Claims the released units off the reserved count before handing them back, so
+    // concurrent releases never give back more than is reserved.
+    public void release(Long productId, int quantity) {
+        HotSku sku = skus.get(productId);
+        int reserved;
+        int releasable;
+        do {
+            reserved = sku.reserved.get();
+            releasable = Math.max(0, Math.min(quantity, reserved));
+        } while (releasable > 0 && !sku.reserved.compareAndSet(reserved, reserved - releasable));
+        sku.available.add(releasable);
+        sku.pendingReserved.add(-releasable);
+    }
+
+    // Journaled variants only touch the in-memory counters; the caller's reservation
+    // row carries the change to the database.
+    public boolean tryReserveJournaled(Long productId, int quantity) {
+        HotSku sku = skus.get(productId);
+        if (!sku.available.tryAcquire(quantity)) {
+            return false;
+        }
+        sku.reserved.addAndGet(quantity);
+        return true;
+    }
+
+    public void adjustJournaled(Long productId, int quantityDelta, int availableDelta) {
+        HotSku sku = skus.get(productId);
+        sku.quantity.addAndGet(quantityDelta);
+        sku.reserved.addAndGet(quantityDelta - availableDelta);
+        sku.available.add(availableDelta);
+    }
+
+    // Returns the change applied to both the on-hand and the available units.
+    public int updateQuantity(Long productId, int quantity) {
+        HotSku sku = skus.get(productId);
+        int delta = quantity - sku.quantity.getAndSet(quantity);
+        sku.available.add(delta);
+        return delta;
+    }
+
+    public InventoryItem view(Long productId) {
+        HotSku sku = skus.get(productId);
+        InventoryItem item = new InventoryItem();
+        item.setId(sku.id);
+        item.setProductId(productId);
+        item.setQuantity(sku.quantity.get());
+        item.setReserved(sku.reserved.get());
+        item.setWarehouse(sku.warehouse);
+        item.setCreatedAt(sku.createdAt);
+        item.setUpdatedAt(sku.updatedAt);
+        return item;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.hot-sku.flush-interval-millis:200}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Long> drained = new HashMap<>();
+        skus.forEach((productId, sku) -> {
+            long delta = sku.pendingReserved.sumThenReset();
+            if (delta != 0) {
+                drained.put(productId, delta);
+            }
+        });
+        // Always its own transaction: the drained deltas are gone from the counters, so they must
+        // not roll back with a caller's transaction that happens to flush first.
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeBehind(drained));
+        } catch (RuntimeException ex) {
+            drained.forEach((productId, delta) -> skus.get(productId).pendingReserved.add(delta));
+            throw ex;
+        }
+    }
+
+    private void writeBehind(Map<Long, Long> drained) {
+        // productId -> {reserved delta, quantity delta}, kept sorted so row locks are
+        // always taken in the same order as the batch reservation path.
+        Map<Long, long[]> deltas = new TreeMap<>();
+        drained.forEach((productId, delta) -> deltas.computeIfAbsent(productId, id -> new long[2])[0] += delta);
+
+        List<Reservation> pending = reservationRepository.lockStockPending();
+        List<Long> ids = new ArrayList<>(pending.size());
+        for (Reservation reservation : pending) {
+            long[] delta = deltas.computeIfAbsent(reservation.getProductId(), id -> new long[2]);
+            int quantity = reservation.getQuantity();
+            delta[0] += reservedEffect(reservation.getStatus(), quantity) - reservedEffect(reservation.getAppliedStatus(), quantity);
+            delta[1] += quantityEffect(reservation.getStatus(), quantity) - quantityEffect(reservation.getAppliedStatus(), quantity);
+            ids.add(reservation.getId());
+        }
+        if (!ids.isEmpty()) {
+            reservationRepository.markStockApplied(ids);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                rows.add(new Object[] {delta[0], delta[1], now, productId});
+                movementLog.record(productId, MovementType.WRITE_BEHIND, (int) delta[1], (int) delta[0]);
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, rows);
+        }
+    }
+
+    private static long reservedEffect(ReservationStatus status, int quantity) {
+        return status == ReservationStatus.ACTIVE ? quantity : 0;
+    }
+
+    private static long quantityEffect(ReservationStatus status, int quantity) {
+        return status == ReservationStatus.CONFIRMED ? -quantity : 0;
+    }
+
+    static void onRollback(Runnable compensation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        compensation.run();
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class HotSku {
+        private final Long id;
+        private final String warehouse;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+        private final AtomicInteger quantity;
+        private final StripedStockCounter available;
+        // Kept next to the counter rather than derived from its stripes, which cannot be read atomically.
+        private final AtomicInteger reserved;
+        private final LongAdder pendingReserved = new LongAdder();
+
+        private HotSku(InventoryItem item, int stripes) {
+            this.id = item.getId();
+            this.warehouse = item.getWarehouse();
+            this.createdAt = item.getCreatedAt();
+            this.updatedAt = item.getUpdatedAt();
+            this.quantity = new AtomicInteger(item.getQuantity());
+            this.available = new StripedStockCounter(stripes, item.getAvailable());
+            this.reserved = new AtomicInteger(item.getReserved());
+        }
+    }
+}
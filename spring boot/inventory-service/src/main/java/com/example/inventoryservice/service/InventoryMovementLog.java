@@ -0,0 +1,61 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.entity.MovementType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends entries to the inventory movement log.
+ *
+ * Entries recorded inside a transaction are buffered and written with one JDBC batch
+ * just before it commits, on the same connection, so the log and the stock rows always
+ * commit or roll back together. Writing at commit time also means an entry is
+ * inserted while the transaction still holds the row locks behind its change, which
+ * keeps each product's entries in the order the changes were applied.
+ */
+@Component
+public class InventoryMovementLog {
+    private static final String INSERT_SQL =
+            "INSERT INTO inventory_movements (product_id, type, quantity, reserved, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void record(Long productId, MovementType type, int quantity) {
+        record(productId, type, quantity, 0);
+    }
+
+    public void record(Long productId, MovementType type, int quantity, int reserved) {
+        Object[] row = {productId, type.name(), quantity, reserved, Timestamp.valueOf(LocalDateTime.now())};
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            jdbcTemplate.update(INSERT_SQL, row);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> pending = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Object[]> rows = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventoryMovementLog.this);
+                }
+            });
+            pending = rows;
+        }
+        pending.add(row);
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.InventoryStateResponse;
+import com.example.inventoryservice.dto.ReplayResponse;
+import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.entity.InventoryMovement;
+import com.example.inventoryservice.entity.InventorySnapshot;
+import com.example.inventoryservice.entity.MovementType;
+import com.example.inventoryservice.repository.InventoryMovementRepository;
+import com.example.inventoryservice.repository.InventoryRepository;
+import com.example.inventoryservice.repository.InventorySnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Reads the inventory movement log written by {@link InventoryMovementLog}.
+ *
+ * A scheduled job folds new entries into per-product snapshots, so a product's
+ * current stock is its snapshot plus the entries after it ({@link #loadState}).
+ * {@link #rebuild} replays the log into the {@code inventory} table after an
+ * incident; it streams the entries in one ordered scan and writes the results back
+ * with JDBC batches.
+ */
+@Service
+public class InventoryMovementService {
+    static final int FETCH_SIZE = 10_000;
+    private static final int OPENING_BATCH_SIZE = 1000;
+    private static final String MOVEMENTS_SQL =
+            "SELECT id, product_id, type, quantity, reserved FROM inventory_movements WHERE id > ? AND id <= ? ORDER BY id";
+    private static final String UPDATE_SQL =
+            "UPDATE inventory SET quantity = ?, reserved = ?, updated_at = ? WHERE product_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO inventory (product_id, quantity, reserved, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    @Autowired
+    private InventorySnapshotRepository snapshotRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ShardedStockService shardedStock;
+
+    @Autowired
+    private HotSkuReservationEngine hotSkuEngine;
+
+    @Autowired
+    private InventoryMovementLog movementLog;
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Highest movement id seen by the previous snapshot run.
+    private volatile long settledMovementId;
+
+    /**
+     * Products created before the log existed get an OPENING entry with their
+     * current stock, taken under the same row locks their writers use.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recordOpeningBalances() {
+        List<Long> productIds = inventoryRepository.findProductIdsWithoutMovements();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < productIds.size(); from += OPENING_BATCH_SIZE) {
+            List<Long> batch = productIds.subList(from, Math.min(from + OPENING_BATCH_SIZE, productIds.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                List<InventoryItem> locked = inventoryRepository.lockByProductIdIn(batch);
+                for (InventoryItem item : locked) {
+                    if (item.getShardCount() != null) {
+                        shardedStock.lockShards(item.getProductId());
+                    }
+                }
+                for (InventoryItem item : locked) {
+                    InventoryItem stock = shardedStock.view(item);
+                    movementLog.record(item.getProductId(), MovementType.OPENING, stock.getQuantity(), stock.getReserved());
+                }
+            });
+        }
+    }
+
+    public Optional<InventoryStateResponse> loadState(Long productId) {
+        Optional<InventorySnapshot> snapshot = snapshotRepository.findById(productId);
+        long lastMovementId = snapshot.map(InventorySnapshot::getLastMovementId).orElse(0L);
+        List<InventoryMovement> tail = movementRepository.findByProductIdAndIdGreaterThanOrderByIdAsc(productId, lastMovementId);
+        if (snapshot.isEmpty() && tail.isEmpty()) {
+            return Optional.empty();
+        }
+        int[] stock = snapshot.map(s -> new int[] {s.getQuantity(), s.getReserved()}).orElseGet(() -> new int[2]);
+        for (InventoryMovement movement : tail) {
+            movement.getType().apply(stock, movement.getQuantity(), movement.getReserved());
+            lastMovementId = movement.getId();
+        }
+        return Optional.of(new InventoryStateResponse(productId, stock[0], stock[1], stock[0] - stock[1], lastMovementId));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.movements.snapshot-interval-millis:60000}")
+    public void snapshot() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> takeSnapshots());
+    }
+
+    // Ids are assigned just before commit, so a transaction still committing can own
+    // an id below one that is already visible. Each run therefore only covers entries
+    // up to the highest id the previous run saw, giving stragglers a full interval.
+    int takeSnapshots() {
+        long upTo = settledMovementId;
+        settledMovementId = movementRepository.findMaxId();
+        long from = snapshotRepository.findMaxLastMovementId();
+        if (upTo <= from) {
+            return 0;
+        }
+        List<Long> productIds = movementRepository.findProductIdsBetween(from, upTo);
+        Map<Long, InventorySnapshot> snapshots = new HashMap<>();
+        Map<Long, int[]> stock = new HashMap<>();
+        for (InventorySnapshot snapshot : snapshotRepository.findAllById(productIds)) {
+            snapshots.put(snapshot.getProductId(), snapshot);
+            stock.put(snapshot.getProductId(), new int[] {snapshot.getQuantity(), snapshot.getReserved()});
+        }
+        replay(from, upTo, stock, null);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<InventorySnapshot> changed = new ArrayList<>(stock.size());
+        stock.forEach((productId, counts) -> {
+            InventorySnapshot snapshot = snapshots.computeIfAbsent(productId, id -> new InventorySnapshot());
+            snapshot.setProductId(productId);
+            snapshot.setQuantity(counts[0]);
+            snapshot.setReserved(counts[1]);
+            snapshot.setLastMovementId(upTo);
+            snapshot.setCreatedAt(now);
+            changed.add(snapshot);
+        });
+        snapshotRepository.saveAll(changed);
+        return changed.size();
+    }
+
+    /**
+     * Rewrites every logged product's inventory row (or shards) from the movement log.
+     * With {@code fromSnapshots} each product starts from its snapshot and only its
+     * later entries are replayed. Meant for maintenance windows: stock writes racing
+     * the rebuild are overwritten. Returns null while hot SKUs are held in memory.
+     */
+    @Transactional
+    public ReplayResponse rebuild(boolean fromSnapshots) {
+        if (!hotSkuEngine.getHotProductIds().isEmpty()) {
+            return null;
+        }
+        long started = System.nanoTime();
+        // Sorted, so the inventory rows and then the shards are written in productId order.
+        Map<Long, int[]> stock = new TreeMap<>();
+        Map<Long, Long> snapshotIds = new HashMap<>();
+        long from = 0;
+        if (fromSnapshots) {
+            from = Long.MAX_VALUE;
+            for (InventorySnapshot snapshot : snapshotRepository.findAll()) {
+                stock.put(snapshot.getProductId(), new int[] {snapshot.getQuantity(), snapshot.getReserved()});
+                snapshotIds.put(snapshot.getProductId(), snapshot.getLastMovementId());
+                from = Math.min(from, snapshot.getLastMovementId());
+            }
+            if (snapshotIds.isEmpty()) {
+                from = 0;
+            }
+        }
+        long events = replay(from, Long.MAX_VALUE, stock, snapshotIds);
+
+        Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList("SELECT product_id FROM inventory", Long.class));
+        Set<Long> sharded = new HashSet<>(inventoryRepository.findShardedProductIds());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        stock.forEach((productId, counts) -> {
+            if (sharded.contains(productId)) {
+                return;
+            }
+            if (existing.contains(productId)) {
+                updates.add(new Object[] {counts[0], counts[1], now, productId});
+            } else {
+                inserts.add(new Object[] {productId, counts[0], counts[1], now, now});
+            }
+        });
+        jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        stock.forEach((productId, counts) -> {
+            if (sharded.contains(productId)) {
+                shardedStock.reset(productId, counts[0], counts[1]);
+            }
+        });
+        availabilityCache.evictAll();
+        lowStockMonitor.stockReplaced();
+
+        long elapsedNanos = Math.max(System.nanoTime() - started, 1);
+        return new ReplayResponse(stock.size(), events, elapsedNanos / 1_000_000,
+                events * 1_000_000_000L / elapsedNanos);
+    }
+
+    // Folds the entries with ids in (afterId, upToId] into stock, skipping any a
+    // product's snapshot already covers. Returns the number of entries applied.
+    private long replay(long afterId, long upToId, Map<Long, int[]> stock, Map<Long, Long> snapshotIds) {
+        long[] applied = new long[1];
+        RowCallbackHandler handler = rs -> {
+            long id = rs.getLong(1);
+            Long productId = rs.getLong(2);
+            if (snapshotIds != null) {
+                Long covered = snapshotIds.get(productId);
+                if (covered != null && id <= covered) {
+                    return;
+                }
+            }
+            int[] counts = stock.computeIfAbsent(productId, key -> new int[2]);
+            MovementType.valueOf(rs.getString(3)).apply(counts, rs.getInt(4), rs.getInt(5));
+            applied[0]++;
+        };
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MOVEMENTS_SQL);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, afterId);
+            statement.setLong(2, upToId);
+            return statement;
+        }, handler);
+        return applied[0];
+    }
+}
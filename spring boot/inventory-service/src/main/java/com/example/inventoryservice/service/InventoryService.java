@@ -1,90 +1,481 @@
 package com.example.inventoryservice.service;
 
+import com.example.inventoryservice.dto.AllocationResponse;
+import com.example.inventoryservice.dto.BatchAvailabilityResponse;
+import com.example.inventoryservice.dto.BatchReservationResponse;
 import com.example.inventoryservice.dto.InventoryRequest;
 import com.example.inventoryservice.dto.InventoryResponse;
+import com.example.inventoryservice.dto.LowStockResponse;
+import com.example.inventoryservice.dto.ReservationItem;
+import com.example.inventoryservice.dto.ReservationResult;
+import com.example.inventoryservice.dto.WarehouseStockResponse;
 import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.entity.InventoryShard;
+import com.example.inventoryservice.entity.MovementType;
 import com.example.inventoryservice.repository.InventoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class InventoryService {
+    static final int STREAM_FETCH_SIZE = 1000;
+
+    // Sharded rows report their shard sums; the subqueries only run for those rows.
+    private static final String STREAM_SQL =
+            "SELECT i.id, i.product_id, i.warehouse, i.created_at, " +
+            "CASE WHEN i.shard_count IS NULL THEN i.quantity " +
+            "ELSE (SELECT SUM(s.quantity) FROM inventory_shards s WHERE s.product_id = i.product_id) END, " +
+            "CASE WHEN i.shard_count IS NULL THEN i.reserved " +
+            "ELSE (SELECT SUM(s.reserved) FROM inventory_shards s WHERE s.product_id = i.product_id) END, " +
+            "CASE WHEN i.shard_count IS NULL THEN i.updated_at " +
+            "ELSE (SELECT MAX(s.updated_at) FROM inventory_shards s WHERE s.product_id = i.product_id) END " +
+            "FROM inventory i WHERE i.product_id > ? ORDER BY i.product_id";
+
     @Autowired
     private InventoryRepository inventoryRepository;
 
+    @Autowired
+    private HotSkuReservationEngine hotSkuEngine;
+
+    @Autowired
+    private ShardedStockService shardedStock;
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    @Autowired
+    private InventoryMovementLog movementLog;
+
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+
+    @Autowired
+    private WarehouseStockService warehouseStockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.sharding.max-shards:64}")
+    private int maxShards;
+
+    /**
+     * Receives stock into the request's warehouse. The first receipt creates the
+     * product's inventory row; later ones, from any warehouse, add to its totals.
+     */
+    @Transactional
     public InventoryResponse addInventory(InventoryRequest request) {
-        InventoryItem item = new InventoryItem();
-        item.setProductId(request.getProductId());
-        item.setQuantity(request.getQuantity());
-        item.setReserved(0);
-        item.setWarehouse(request.getWarehouse());
+        Long productId = request.getProductId();
+        int quantity = request.getQuantity();
+        InventoryResponse response;
+        if (hotSkuEngine.isHot(productId)) {
+            // Apply pending deltas first, as in updateQuantity, before the row changes underneath them.
+            hotSkuEngine.flush();
+            inventoryRepository.receiveStock(productId, quantity, LocalDateTime.now());
+            movementLog.record(productId, MovementType.RECEIPT, quantity);
+            hotSkuEngine.adjustJournaled(productId, quantity, quantity);
+            HotSkuReservationEngine.onRollback(() -> hotSkuEngine.adjustJournaled(productId, -quantity, -quantity));
+            lowStockMonitor.stockChanged(productId);
+            response = mapToResponse(hotSkuEngine.view(productId));
+        } else if (inventoryRepository.findByProductId(productId).isPresent()) {
+            if (!shardedStock.receiveStock(productId, quantity)) {
+                return null;
+            }
+            stockChanged(productId, MovementType.RECEIPT, quantity);
+            response = currentInventory(productId);
+        } else {
+            InventoryItem item = new InventoryItem();
+            item.setProductId(productId);
+            item.setQuantity(quantity);
+            item.setReserved(0);
+            item.setWarehouse(request.getWarehouse());
 
-        InventoryItem savedItem = inventoryRepository.save(item);
-        return mapToResponse(savedItem);
+            InventoryItem savedItem = inventoryRepository.save(item);
+            movementLog.record(savedItem.getProductId(), MovementType.RECEIPT, savedItem.getQuantity());
+            response = mapToResponse(savedItem);
+        }
+        if (request.getWarehouse() != null) {
+            warehouseStockService.receive(productId, request.getWarehouse(), quantity);
+        }
+        return response;
     }
 
     public Optional<InventoryResponse> getInventoryByProductId(Long productId) {
-        return inventoryRepository.findByProductId(productId).map(this::mapToResponse);
+        if (hotSkuEngine.isHot(productId)) {
+            return Optional.of(mapToResponse(hotSkuEngine.view(productId)));
+        }
+        return inventoryRepository.findByProductId(productId).map(shardedStock::view).map(this::mapToResponse);
     }
 
     public Optional<InventoryResponse> getInventoryById(Long id) {
-        return inventoryRepository.findById(id).map(this::mapToResponse);
+        return inventoryRepository.findById(id).map(shardedStock::view).map(this::mapToResponse);
     }
 
+    @Transactional
     public InventoryResponse updateQuantity(Long productId, Integer quantity) {
-        Optional<InventoryItem> optional = inventoryRepository.findByProductId(productId);
-        if (optional.isPresent()) {
-            InventoryItem item = optional.get();
-            item.setQuantity(quantity);
-            InventoryItem updatedItem = inventoryRepository.save(item);
-            return mapToResponse(updatedItem);
+        if (hotSkuEngine.isHot(productId)) {
+            // Apply pending deltas first so the absolute quantity is not offset by them later.
+            hotSkuEngine.flush();
+            inventoryRepository.updateQuantity(productId, quantity, LocalDateTime.now());
+            movementLog.record(productId, MovementType.ADJUSTMENT, quantity);
+            int delta = hotSkuEngine.updateQuantity(productId, quantity);
+            HotSkuReservationEngine.onRollback(() -> hotSkuEngine.adjustJournaled(productId, -delta, -delta));
+            lowStockMonitor.stockChanged(productId);
+            InventoryResponse response = mapToResponse(hotSkuEngine.view(productId));
+            warehouseStockService.adjustTo(productId, response.getWarehouse(), quantity);
+            return response;
         }
-        return null;
+        if (!shardedStock.updateQuantity(productId, quantity)) {
+            return null;
+        }
+        stockChanged(productId, MovementType.ADJUSTMENT, quantity);
+        InventoryResponse response = currentInventory(productId);
+        warehouseStockService.adjustTo(productId, response.getWarehouse(), quantity);
+        return response;
     }
 
+    @Transactional
     public InventoryResponse reserveStock(Long productId, Integer quantity) {
-        Optional<InventoryItem> optional = inventoryRepository.findByProductId(productId);
-        if (optional.isPresent()) {
-            InventoryItem item = optional.get();
-            if (item.getAvailable() >= quantity) {
-                item.setReserved(item.getReserved() + quantity);
-                InventoryItem updatedItem = inventoryRepository.save(item);
-                return mapToResponse(updatedItem);
+        if (hotSkuEngine.isHot(productId)) {
+            if (!hotSkuEngine.reserve(productId, quantity)) {
+                return null;
             }
+            lowStockMonitor.stockChanged(productId);
+            return mapToResponse(hotSkuEngine.view(productId));
+        }
+        if (!shardedStock.reserveStock(productId, quantity)) {
+            return null;
         }
-        return null;
+        stockChanged(productId, MovementType.RESERVATION, quantity);
+        return currentInventory(productId);
     }
 
+    @Transactional
     public InventoryResponse releaseStock(Long productId, Integer quantity) {
-        Optional<InventoryItem> optional = inventoryRepository.findByProductId(productId);
-        if (optional.isPresent()) {
-            InventoryItem item = optional.get();
-            int newReserved = Math.max(0, item.getReserved() - quantity);
-            item.setReserved(newReserved);
-            InventoryItem updatedItem = inventoryRepository.save(item);
-            return mapToResponse(updatedItem);
+        if (hotSkuEngine.isHot(productId)) {
+            hotSkuEngine.release(productId, quantity);
+            lowStockMonitor.stockChanged(productId);
+            return mapToResponse(hotSkuEngine.view(productId));
+        }
+        if (!shardedStock.releaseStock(productId, quantity)) {
+            return null;
+        }
+        stockChanged(productId, MovementType.RELEASE, quantity);
+        return currentInventory(productId);
+    }
+
+    /**
+     * Moves the product's stock into {@code shards} shard rows so concurrent reservations
+     * for it stop queueing on one row lock. Returns null if the shard count is out of
+     * range, or the product does not exist, is already sharded, or is served by the
+     * hot-SKU engine.
+     */
+    @Transactional
+    public InventoryResponse shardInventory(Long productId, Integer shards) {
+        if (shards == null || shards < 2 || shards > maxShards || hotSkuEngine.isHot(productId)) {
+            return null;
+        }
+        InventoryItem item = shardedStock.shard(productId, shards);
+        return item != null ? mapToResponse(item) : null;
+    }
+
+    @Transactional
+    public BatchReservationResponse reserveBatch(List<ReservationItem> items) {
+        // Duplicate lines for the same product are merged; the TreeMap keeps the
+        // same ascending productId order the row locks are taken in.
+        Map<Long, Integer> requested = new TreeMap<>();
+        for (ReservationItem item : items) {
+            requested.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        List<Long> rowBacked = requested.keySet().stream()
+                .filter(productId -> !hotSkuEngine.isHot(productId))
+                .collect(Collectors.toList());
+        Map<Long, InventoryItem> locked = rowBacked.isEmpty() ? Collections.emptyMap()
+                : inventoryRepository.lockByProductIdIn(rowBacked).stream()
+                        .collect(Collectors.toMap(InventoryItem::getProductId, Function.identity()));
+
+        // Shards are locked after every inventory row, in productId order as well.
+        Map<Long, List<InventoryShard>> lockedShards = new HashMap<>();
+        for (InventoryItem item : locked.values()) {
+            if (item.getShardCount() != null) {
+                lockedShards.put(item.getProductId(), shardedStock.lockShards(item.getProductId()));
+            }
         }
-        return null;
+
+        List<ReservationResult> results = new ArrayList<>(requested.size());
+        boolean allAvailable = true;
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            Long productId = entry.getKey();
+            InventoryItem item = hotSkuEngine.isHot(productId) ? hotSkuEngine.view(productId) : locked.get(productId);
+            if (lockedShards.containsKey(productId)) {
+                item = shardedStock.view(item);
+            }
+            if (item == null) {
+                results.add(new ReservationResult(productId, entry.getValue(), 0, ReservationResult.NOT_FOUND));
+                allAvailable = false;
+            } else if (item.getAvailable() < entry.getValue()) {
+                results.add(new ReservationResult(productId, entry.getValue(), item.getAvailable(),
+                        ReservationResult.INSUFFICIENT_STOCK));
+                allAvailable = false;
+            } else {
+                results.add(new ReservationResult(productId, entry.getValue(), item.getAvailable(),
+                        ReservationResult.AVAILABLE));
+            }
+        }
+
+        // Hot SKUs are not locked, so they are taken from the in-memory counters last
+        // and handed back if one of them ran short since the check above.
+        if (allAvailable) {
+            List<ReservationResult> takenHot = new ArrayList<>();
+            for (ReservationResult result : results) {
+                if (!hotSkuEngine.isHot(result.getProductId())) {
+                    continue;
+                }
+                if (!hotSkuEngine.reserve(result.getProductId(), result.getRequested())) {
+                    result.setAvailable(hotSkuEngine.available(result.getProductId()));
+                    result.setStatus(ReservationResult.INSUFFICIENT_STOCK);
+                    allAvailable = false;
+                    break;
+                }
+                takenHot.add(result);
+            }
+            if (allAvailable) {
+                HotSkuReservationEngine.onRollback(() -> takenHot.forEach(
+                        result -> hotSkuEngine.release(result.getProductId(), result.getRequested())));
+            } else {
+                takenHot.forEach(result -> hotSkuEngine.release(result.getProductId(), result.getRequested()));
+            }
+        }
+
+        // All or nothing: the locked rows are only modified once every line is known to fit.
+        if (allAvailable) {
+            for (ReservationResult result : results) {
+                if (hotSkuEngine.isHot(result.getProductId())) {
+                    result.setAvailable(hotSkuEngine.available(result.getProductId()));
+                    lowStockMonitor.stockChanged(result.getProductId());
+                } else if (lockedShards.containsKey(result.getProductId())) {
+                    List<InventoryShard> shards = lockedShards.get(result.getProductId());
+                    ShardedStockService.reserveLocked(shards, result.getRequested());
+                    result.setAvailable(ShardedStockService.available(shards));
+                } else {
+                    InventoryItem item = locked.get(result.getProductId());
+                    item.setReserved(item.getReserved() + result.getRequested());
+                    result.setAvailable(item.getAvailable());
+                }
+                if (!hotSkuEngine.isHot(result.getProductId())) {
+                    stockChanged(result.getProductId(), MovementType.RESERVATION, result.getRequested());
+                }
+                result.setStatus(ReservationResult.RESERVED);
+            }
+        }
+        return new BatchReservationResponse(allAvailable, results);
     }
 
     public boolean checkAvailability(Long productId, Integer quantity) {
-        Optional<InventoryItem> optional = inventoryRepository.findByProductId(productId);
+        if (hotSkuEngine.isHot(productId)) {
+            return hotSkuEngine.available(productId) >= quantity;
+        }
+        int available = availabilityCache.get(productId);
+        if (available != LongIntHashMap.MISSING) {
+            return available >= quantity;
+        }
+        long stamp = availabilityCache.loadStamp(productId);
+        Optional<InventoryItem> optional = inventoryRepository.findByProductId(productId).map(shardedStock::view);
         if (optional.isPresent()) {
             InventoryItem item = optional.get();
+            availabilityCache.put(productId, item.getAvailable(), stamp);
             return item.getAvailable() >= quantity;
         }
         return false;
     }
 
-    public List<InventoryResponse> getAllInventory() {
-        return inventoryRepository.findAll().stream()
+    /**
+     * Checks every line against the availability cache without reserving anything.
+     * Products missing from the cache are loaded with a single query.
+     */
+    public BatchAvailabilityResponse checkAvailabilityBatch(List<ReservationItem> items) {
+        Map<Long, Integer> requested = new TreeMap<>();
+        for (ReservationItem item : items) {
+            requested.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, Integer> available = new HashMap<>();
+        Map<Long, Long> stamps = new HashMap<>();
+        for (Long productId : requested.keySet()) {
+            int cached = hotSkuEngine.isHot(productId) ? hotSkuEngine.available(productId) : availabilityCache.get(productId);
+            if (cached != LongIntHashMap.MISSING) {
+                available.put(productId, cached);
+            } else {
+                stamps.put(productId, availabilityCache.loadStamp(productId));
+            }
+        }
+        if (!stamps.isEmpty()) {
+            for (InventoryItem item : shardedStock.views(inventoryRepository.findByProductIdIn(stamps.keySet()))) {
+                availabilityCache.put(item.getProductId(), item.getAvailable(), stamps.get(item.getProductId()));
+                available.put(item.getProductId(), item.getAvailable());
+            }
+        }
+
+        List<ReservationResult> results = new ArrayList<>(requested.size());
+        boolean allAvailable = true;
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            Integer units = available.get(entry.getKey());
+            String status;
+            if (units == null) {
+                status = ReservationResult.NOT_FOUND;
+                units = 0;
+            } else if (units < entry.getValue()) {
+                status = ReservationResult.INSUFFICIENT_STOCK;
+            } else {
+                status = ReservationResult.AVAILABLE;
+            }
+            allAvailable &= status.equals(ReservationResult.AVAILABLE);
+            results.add(new ReservationResult(entry.getKey(), entry.getValue(), units, status));
+        }
+        return new BatchAvailabilityResponse(allAvailable, results);
+    }
+
+    /**
+     * Plans which warehouses ship the given lines. Lines the product totals cannot
+     * cover fail the allocation before any warehouse is considered.
+     */
+    public AllocationResponse allocate(List<ReservationItem> items) {
+        BatchAvailabilityResponse availability = checkAvailabilityBatch(items);
+        if (!availability.isAvailable()) {
+            return new AllocationResponse(false, false, List.of(), availability.getItems());
+        }
+        return warehouseStockService.allocate(availability.getItems());
+    }
+
+    public List<WarehouseStockResponse> getWarehouseStock(Long productId) {
+        return warehouseStockService.getWarehouseStock(productId);
+    }
+
+    /**
+     * Sets the available level below which the product is reported as low on stock,
+     * or removes it when {@code threshold} is null. Returns null if the product does
+     * not exist.
+     */
+    @Transactional
+    public InventoryResponse setLowStockThreshold(Long productId, Integer threshold) {
+        if (inventoryRepository.updateLowStockThreshold(productId, threshold) == 0) {
+            return null;
+        }
+        lowStockMonitor.thresholdChanged(productId);
+        return getInventoryByProductId(productId).orElse(null);
+    }
+
+    public List<LowStockResponse> getLowStock(Long afterProductId, int limit) {
+        return lowStockMonitor.getBelowThreshold(afterProductId, limit);
+    }
+
+    /**
+     * Returns up to {@code limit} items with a productId above {@code afterProductId},
+     * in productId order. The last productId of a full page is the cursor for the next.
+     */
+    public List<InventoryResponse> getInventoryPage(Long afterProductId, int limit) {
+        List<InventoryItem> items = inventoryRepository.findByProductIdGreaterThanOrderByProductIdAsc(
+                afterProductId, Limit.of(limit));
+        return shardedStock.views(items).stream()
+                .map(item -> hotSkuEngine.isHot(item.getProductId()) ? hotSkuEngine.view(item.getProductId()) : item)
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Writes every item with a productId above {@code afterProductId} to {@code out} as
+     * newline-delimited JSON. Rows are pulled through a read-only transaction with a
+     * JDBC fetch size and written as they arrive, so memory use does not depend on the
+     * size of the table.
+     */
+    public long streamInventory(Long afterProductId, OutputStream out) {
+        ObjectWriter writer = objectMapper.writerFor(InventoryResponse.class);
+        long[] written = new long[1];
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(STREAM_SQL);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setLong(1, afterProductId);
+            return statement;
+        }, rs -> {
+            InventoryItem item = mapStreamedRow(rs);
+            if (hotSkuEngine.isHot(item.getProductId())) {
+                item = hotSkuEngine.view(item.getProductId());
+            }
+            try {
+                writer.writeValue(out, mapToResponse(item));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            written[0]++;
+        }));
+        return written[0];
+    }
+
+    // Logs a committed stock change, drops the product's cached availability and
+    // checks it against its low-stock threshold.
+    private void stockChanged(Long productId, MovementType type, int quantity) {
+        movementLog.record(productId, type, quantity);
+        availabilityCache.evict(productId);
+        lowStockMonitor.stockChanged(productId);
+    }
+
+    private InventoryResponse currentInventory(Long productId) {
+        return inventoryRepository.findByProductId(productId)
+                .map(shardedStock::view)
+                .map(this::mapToResponse)
+                .orElse(null);
+    }
+
+    private static InventoryItem mapStreamedRow(ResultSet rs) throws SQLException {
+        InventoryItem item = new InventoryItem();
+        item.setId(rs.getLong(1));
+        item.setProductId(rs.getLong(2));
+        item.setWarehouse(rs.getString(3));
+        item.setCreatedAt(toLocalDateTime(rs.getTimestamp(4)));
+        item.setQuantity(rs.getInt(5));
+        item.setReserved(rs.getInt(6));
+        item.setUpdatedAt(toLocalDateTime(rs.getTimestamp(7)));
+        return item;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
     private InventoryResponse mapToResponse(InventoryItem item) {
         InventoryResponse response = new InventoryResponse();
         response.setId(item.getId());
@@ -0,0 +1,174 @@
+package com.example.inventoryservice.service;
+
+/**
+ * Open-addressing map from {@code long} keys to {@code int} values, with no boxing.
+ *
+ * Keys and values are interleaved in one {@code long[]} (key, value, key, value, ...)
+ * and probed linearly, so an entry costs two array slots and a lookup touches one
+ * cache line in the common case. The table is kept at most half full and removals
+ * shift later entries back instead of leaving tombstones.
+ *
+ * Not thread-safe. {@link #get(long)} never throws and always terminates, even while
+ * another thread is writing, so a caller can use it under an optimistic read and
+ * validate afterwards (see {@link AvailabilityCache}).
+ */
+public class LongIntHashMap {
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private static final long EMPTY = 0L;
+
+    private long[] table;
+    private int size;
+    // Key 0 is the empty-slot marker, so it is stored on the side.
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public LongIntHashMap(int expectedSize) {
+        this.table = new long[2 * capacityFor(expectedSize)];
+    }
+
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    /**
+     * Returns the value for {@code key}, or {@link #MISSING} if there is none.
+     */
+    public int get(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : MISSING;
+        }
+        long[] slots = table;
+        int mask = (slots.length >> 1) - 1;
+        int slot = mix(key) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            long current = slots[slot << 1];
+            if (current == key) {
+                return (int) slots[(slot << 1) + 1];
+            }
+            if (current == EMPTY) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int mask = (table.length >> 1) - 1;
+        int slot = mix(key) & mask;
+        while (true) {
+            long current = table[slot << 1];
+            if (current == key) {
+                table[(slot << 1) + 1] = value;
+                return;
+            }
+            if (current == EMPTY) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((size + 1) * 2 > mask + 1) {
+            resize();
+            put(key, value);
+            return;
+        }
+        table[(slot << 1) + 1] = value;
+        table[slot << 1] = key;
+        size++;
+    }
+
+    public boolean remove(long key) {
+        if (key == EMPTY) {
+            boolean removed = hasZeroKey;
+            hasZeroKey = false;
+            return removed;
+        }
+        int mask = (table.length >> 1) - 1;
+        int slot = mix(key) & mask;
+        while (true) {
+            long current = table[slot << 1];
+            if (current == EMPTY) {
+                return false;
+            }
+            if (current == key) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Backward-shift deletion: pull every later entry of the run whose home slot
+        // does not lie between the hole and itself into the hole.
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (table[next << 1] != EMPTY) {
+            int home = mix(table[next << 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[(hole << 1) + 1] = table[(next << 1) + 1];
+                table[hole << 1] = table[next << 1];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole << 1] = EMPTY;
+        size--;
+        return true;
+    }
+
+    // Number of slots, a power of two; with keyAt lets a caller sweep the table.
+    public int capacity() {
+        return table.length >> 1;
+    }
+
+    /**
+     * Returns the key stored in {@code slot}, or 0 if the slot is empty. Key 0 itself
+     * is never in a slot.
+     */
+    public long keyAt(int slot) {
+        return table[slot << 1];
+    }
+
+    public void clear() {
+        table = new long[table.length];
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    // Rehashes into a fresh array, so a concurrent reader of the old one never sees
+    // a half-moved entry.
+    private void resize() {
+        long[] old = table;
+        long[] grown = new long[old.length * 2];
+        int mask = (grown.length >> 1) - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            long key = old[i];
+            if (key != EMPTY) {
+                int slot = mix(key) & mask;
+                while (grown[slot << 1] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                grown[slot << 1] = key;
+                grown[(slot << 1) + 1] = old[i + 1];
+            }
+        }
+        table = grown;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < 2L * Math.max(expectedSize, 1)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Product ids are sequential, so spread them before masking.
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.LowStockEvent;
+import java.util.List;
+
+/**
+ * Application event carrying a batch of low-stock crossings drained by
+ * {@link LowStockAlertPublisher}. Listeners receive crossings in the order they were
+ * detected.
+ */
+public class LowStockAlertBatch {
+    private final List<LowStockEvent> events;
+
+    public LowStockAlertBatch(List<LowStockEvent> events) {
+        this.events = events;
+    }
+
+    public List<LowStockEvent> getEvents() {
+        return events;
+    }
+}
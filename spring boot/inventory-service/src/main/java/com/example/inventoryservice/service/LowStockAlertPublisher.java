@@ -0,0 +1,33 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.LowStockEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+// Drains the low-stock queue in batches and hands each batch to the application's event listeners.
+@Component
+public class LowStockAlertPublisher {
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.low-stock.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${inventory.low-stock.drain-interval-millis:1000}")
+    public int publish() {
+        int published = 0;
+        List<LowStockEvent> batch;
+        while (!(batch = lowStockMonitor.drain(batchSize)).isEmpty()) {
+            eventPublisher.publishEvent(new LowStockAlertBatch(batch));
+            published += batch.size();
+        }
+        return published;
+    }
+}
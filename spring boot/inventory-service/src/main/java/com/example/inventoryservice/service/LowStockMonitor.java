@@ -0,0 +1,210 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.LowStockEvent;
+import com.example.inventoryservice.dto.LowStockResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks products whose available stock is below their low-stock threshold.
+ *
+ * Stock mutations report the products they touched through {@link #stockChanged}.
+ * Products without a threshold are dismissed with one map lookup. For the others the
+ * product is re-evaluated once its transaction completes: committed stock is re-read
+ * (hot SKUs use their in-memory counter) under a per-stripe lock, so evaluations of
+ * one product never overtake each other. A crossing in either direction updates the
+ * sorted below-threshold index and queues a {@link LowStockEvent}; the queue is
+ * bounded, and events offered while it is full are dropped and counted.
+ */
+@Component
+public class LowStockMonitor implements MeterBinder {
+    private static final int LOCK_STRIPES = 64;
+    private static final String LEVELS_SQL =
+            "SELECT i.product_id, i.low_stock_threshold, CASE WHEN i.shard_count IS NULL THEN i.quantity - i.reserved " +
+            "ELSE (SELECT SUM(s.quantity - s.reserved) FROM inventory_shards s WHERE s.product_id = i.product_id) END " +
+            "FROM inventory i WHERE i.low_stock_threshold IS NOT NULL";
+    private static final String LEVEL_SQL = LEVELS_SQL + " AND i.product_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HotSkuReservationEngine hotSkuEngine;
+
+    @Value("${inventory.low-stock.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private final Map<Long, Integer> thresholds = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, LowStockResponse> below = new ConcurrentSkipListMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private BlockingQueue<LowStockEvent> events;
+
+    @PostConstruct
+    void load() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        events = new ArrayBlockingQueue<>(queueCapacity);
+        reload(false);
+    }
+
+    public void stockChanged(Long productId) {
+        if (thresholds.containsKey(productId)) {
+            afterCompletion(() -> evaluate(productId, false));
+        }
+    }
+
+    public void thresholdChanged(Long productId) {
+        afterCompletion(() -> evaluate(productId, true));
+    }
+
+    // Re-evaluates every product with a threshold, e.g. after the inventory table was rebuilt.
+    public void stockReplaced() {
+        afterCompletion(() -> reload(true));
+    }
+
+    public List<LowStockResponse> getBelowThreshold(Long afterProductId, int limit) {
+        ConcurrentNavigableMap<Long, LowStockResponse> tail = below.tailMap(afterProductId, false);
+        List<LowStockResponse> page = new ArrayList<>(Math.min(limit, tail.size()));
+        for (LowStockResponse entry : tail.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entry);
+        }
+        return page;
+    }
+
+    /**
+     * Moves up to {@code max} queued events into a new list, oldest first.
+     */
+    public List<LowStockEvent> drain(int max) {
+        List<LowStockEvent> batch = new ArrayList<>();
+        events.drainTo(batch, max);
+        return batch;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("inventory.low_stock.events", queued, LongAdder::sum)
+                .tags("outcome", "queued")
+                .register(registry);
+        FunctionCounter.builder("inventory.low_stock.events", dropped, LongAdder::sum)
+                .tags("outcome", "dropped")
+                .description("Crossings lost because the event queue was full")
+                .register(registry);
+        Gauge.builder("inventory.low_stock.below", below, Map::size)
+                .description("Products currently below their low-stock threshold")
+                .register(registry);
+    }
+
+    private void reload(boolean emit) {
+        List<Object[]> levels = jdbcTemplate.query(LEVELS_SQL,
+                (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getInt(2), rs.getInt(3)});
+        Set<Long> current = new HashSet<>();
+        for (Object[] level : levels) {
+            Long productId = (Long) level[0];
+            current.add(productId);
+            int available = hotSkuEngine.isHot(productId) ? hotSkuEngine.available(productId) : (Integer) level[2];
+            evaluate(productId, (Integer) level[1], available, emit);
+        }
+        for (Long productId : new ArrayList<>(thresholds.keySet())) {
+            if (!current.contains(productId)) {
+                clear(productId);
+            }
+        }
+    }
+
+    private void evaluate(Long productId, boolean refreshThreshold) {
+        synchronized (lockFor(productId)) {
+            Integer threshold = thresholds.get(productId);
+            if (threshold != null && !refreshThreshold && hotSkuEngine.isHot(productId)) {
+                evaluate(productId, threshold, hotSkuEngine.available(productId), true);
+                return;
+            }
+            List<int[]> level = jdbcTemplate.query(LEVEL_SQL,
+                    (rs, rowNum) -> new int[] {rs.getInt(2), rs.getInt(3)}, productId);
+            if (level.isEmpty()) {
+                clear(productId);
+                return;
+            }
+            int available = hotSkuEngine.isHot(productId) ? hotSkuEngine.available(productId) : level.get(0)[1];
+            evaluate(productId, level.get(0)[0], available, true);
+        }
+    }
+
+    private void evaluate(Long productId, int threshold, int available, boolean emit) {
+        synchronized (lockFor(productId)) {
+            thresholds.put(productId, threshold);
+            LowStockResponse current = below.get(productId);
+            LocalDateTime now = LocalDateTime.now();
+            if (available < threshold) {
+                below.put(productId, new LowStockResponse(productId, available, threshold,
+                        current != null ? current.getSince() : now));
+                if (current == null && emit) {
+                    publish(new LowStockEvent(productId, available, threshold, LowStockEvent.BELOW_THRESHOLD, now));
+                }
+            } else if (current != null) {
+                below.remove(productId);
+                if (emit) {
+                    publish(new LowStockEvent(productId, available, threshold, LowStockEvent.RECOVERED, now));
+                }
+            }
+        }
+    }
+
+    private void clear(Long productId) {
+        synchronized (lockFor(productId)) {
+            thresholds.remove(productId);
+            below.remove(productId);
+        }
+    }
+
+    private void publish(LowStockEvent event) {
+        if (events.offer(event)) {
+            queued.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private Object lockFor(Long productId) {
+        return locks[(int) (productId ^ (productId >>> 32)) & (LOCK_STRIPES - 1)];
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
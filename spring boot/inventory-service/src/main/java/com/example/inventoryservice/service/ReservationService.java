@@ -0,0 +1,295 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.dto.ReservationResponse;
+import com.example.inventoryservice.entity.MovementType;
+import com.example.inventoryservice.entity.Reservation;
+import com.example.inventoryservice.entity.ReservationStatus;
+import com.example.inventoryservice.repository.ReservationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+public class ReservationService {
+    static final int EXPIRY_BATCH_SIZE = 500;
+    private static final int TIMING_WHEEL_BITS = 8;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HotSkuReservationEngine hotSkuEngine;
+
+    @Autowired
+    private ShardedStockService shardedStock;
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    @Autowired
+    private InventoryMovementLog movementLog;
+
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+
+    @Autowired
+    private WarehouseStockService warehouseStockService;
+
+    @Value("${inventory.reservation.default-ttl:15m}")
+    private Duration defaultTtl;
+
+    @Value("${inventory.reservation.tick-millis:100}")
+    private long tickMillis;
+
+    private HierarchicalTimingWheel timingWheel;
+
+    @PostConstruct
+    void initTimingWheel() {
+        timingWheel = new HierarchicalTimingWheel(tickMillis, TIMING_WHEEL_BITS, System.currentTimeMillis());
+    }
+
+    @Transactional
+    public ReservationResponse reserve(ReservationRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        Long productId = request.getProductId();
+        int quantity = request.getQuantity();
+        boolean hot = hotSkuEngine.isHot(productId);
+        if (hot) {
+            if (!hotSkuEngine.tryReserveJournaled(productId, quantity)) {
+                return null;
+            }
+            HotSkuReservationEngine.onRollback(() -> hotSkuEngine.adjustJournaled(productId, 0, quantity));
+            lowStockMonitor.stockChanged(productId);
+        } else if (!shardedStock.reserveStock(productId, quantity)) {
+            return null;
+        } else {
+            stockChanged(productId, MovementType.RESERVATION, quantity);
+        }
+        Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : defaultTtl;
+
+        Reservation reservation = new Reservation();
+        reservation.setProductId(productId);
+        reservation.setOrderId(request.getOrderId());
+        reservation.setQuantity(quantity);
+        reservation.setWarehouse(request.getWarehouse());
+        reservation.changeStatus(ReservationStatus.ACTIVE, !hot);
+        reservation.setExpiresAt(now.plus(ttl));
+        Reservation saved = reservationRepository.save(reservation);
+
+        long deadline = toEpochMillis(saved.getExpiresAt());
+        afterCommit(() -> timingWheel.schedule(saved.getId(), deadline));
+        return mapToResponse(saved);
+    }
+
+    @Transactional
+    public ReservationResponse release(Long id) {
+        Optional<Reservation> optional = reservationRepository.lockById(id);
+        if (optional.isEmpty()) {
+            return null;
+        }
+        Reservation reservation = optional.get();
+        if (reservation.getStatus() == ReservationStatus.ACTIVE) {
+            Long productId = reservation.getProductId();
+            int quantity = reservation.getQuantity();
+            if (hotSkuEngine.isHot(productId)) {
+                reservation.changeStatus(ReservationStatus.RELEASED, false);
+                hotSkuEngine.adjustJournaled(productId, 0, quantity);
+                HotSkuReservationEngine.onRollback(() -> hotSkuEngine.adjustJournaled(productId, 0, -quantity));
+                lowStockMonitor.stockChanged(productId);
+            } else {
+                reservation.changeStatus(ReservationStatus.RELEASED, true);
+                if (shardedStock.releaseStock(productId, quantity)) {
+                    stockChanged(productId, MovementType.RELEASE, quantity);
+                }
+            }
+            afterCommit(() -> timingWheel.cancel(id));
+        }
+        return mapToResponse(reservation);
+    }
+
+    @Transactional
+    public ReservationResponse confirm(Long id) {
+        Optional<Reservation> optional = reservationRepository.lockById(id);
+        if (optional.isEmpty()) {
+            return null;
+        }
+        Reservation reservation = optional.get();
+        if (reservation.getStatus() == ReservationStatus.ACTIVE && !confirmLocked(reservation)) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+        return mapToResponse(reservation);
+    }
+
+    /**
+     * Confirms all of the order's reservations in one transaction. If any of them is
+     * neither ACTIVE nor CONFIRMED, or its reserved units can no longer be committed,
+     * none is confirmed and only that reservation is returned, as it was.
+     */
+    @Transactional
+    public List<ReservationResponse> confirmOrder(Long orderId) {
+        List<Reservation> reservations = reservationRepository.lockByOrderId(orderId);
+        // Stock rows are taken in ascending productId order, like every other multi-product path.
+        List<Reservation> byProduct = new ArrayList<>(reservations);
+        byProduct.sort(Comparator.comparing(Reservation::getProductId));
+        for (Reservation reservation : byProduct) {
+            boolean confirmed = reservation.getStatus() == ReservationStatus.CONFIRMED
+                    || (reservation.getStatus() == ReservationStatus.ACTIVE && confirmLocked(reservation));
+            if (!confirmed) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return List.of(mapToResponse(reservation));
+            }
+        }
+        return reservations.stream().map(this::mapToResponse).collect(Collectors.toList());
+    }
+
+    // Confirms an ACTIVE reservation the caller holds the lock of. Returns false, having changed
+    // nothing, if its reserved units are no longer there to commit.
+    private boolean confirmLocked(Reservation reservation) {
+        Long productId = reservation.getProductId();
+        int quantity = reservation.getQuantity();
+        if (hotSkuEngine.isHot(productId)) {
+            reservation.changeStatus(ReservationStatus.CONFIRMED, false);
+            hotSkuEngine.adjustJournaled(productId, -quantity, 0);
+            HotSkuReservationEngine.onRollback(() -> hotSkuEngine.adjustJournaled(productId, quantity, 0));
+            lowStockMonitor.stockChanged(productId);
+        } else {
+            if (!shardedStock.commitReservedStock(productId, quantity)) {
+                return false;
+            }
+            reservation.changeStatus(ReservationStatus.CONFIRMED, true);
+            stockChanged(productId, MovementType.COMMIT, quantity);
+        }
+        warehouseStockService.ship(productId, reservation.getWarehouse(), quantity);
+        Long id = reservation.getId();
+        afterCommit(() -> timingWheel.cancel(id));
+        return true;
+    }
+
+    public Optional<ReservationResponse> getReservationById(Long id) {
+        return reservationRepository.findById(id).map(this::mapToResponse);
+    }
+
+    public List<ReservationResponse> getReservationsByOrderId(Long orderId) {
+        return reservationRepository.findByOrderId(orderId).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry-interval-millis:${inventory.reservation.tick-millis:100}}")
+    public void expireDueReservations() {
+        expireDueReservations(System.currentTimeMillis());
+    }
+
+    // Expires the reservations whose timers are due by nowMillis.
+    void expireDueReservations(long nowMillis) {
+        List<Long> due = timingWheel.advance(nowMillis);
+        if (due.isEmpty()) {
+            return;
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < due.size(); from += EXPIRY_BATCH_SIZE) {
+            List<Long> batch = due.subList(from, Math.min(from + EXPIRY_BATCH_SIZE, due.size()));
+            transactionTemplate.executeWithoutResult(status -> expireBatch(batch));
+        }
+    }
+
+    // Reservations released or confirmed after their timer fired are skipped by the
+    // status filter; the rest give their units back with one UPDATE per product.
+    int expireBatch(List<Long> ids) {
+        List<Reservation> reservations = reservationRepository.lockByIdInAndStatus(ids, ReservationStatus.ACTIVE);
+        Map<Long, Integer> releasedByProduct = new TreeMap<>();
+        for (Reservation reservation : reservations) {
+            Long productId = reservation.getProductId();
+            int quantity = reservation.getQuantity();
+            if (hotSkuEngine.isHot(productId)) {
+                reservation.changeStatus(ReservationStatus.EXPIRED, false);
+                hotSkuEngine.adjustJournaled(productId, 0, quantity);
+                HotSkuReservationEngine.onRollback(() -> hotSkuEngine.adjustJournaled(productId, 0, -quantity));
+                lowStockMonitor.stockChanged(productId);
+            } else {
+                reservation.changeStatus(ReservationStatus.EXPIRED, true);
+                releasedByProduct.merge(productId, quantity, Integer::sum);
+            }
+        }
+        shardedStock.releaseStock(releasedByProduct);
+        releasedByProduct.forEach((productId, quantity) -> stockChanged(productId, MovementType.RELEASE, quantity));
+        return reservations.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildTimingWheel() {
+        long lastId = 0L;
+        List<Reservation> page;
+        do {
+            page = reservationRepository.findTop1000ByStatusAndIdGreaterThanOrderByIdAsc(ReservationStatus.ACTIVE, lastId);
+            for (Reservation reservation : page) {
+                timingWheel.schedule(reservation.getId(), toEpochMillis(reservation.getExpiresAt()));
+                lastId = reservation.getId();
+            }
+        } while (!page.isEmpty());
+    }
+
+    int pendingTimers() {
+        return timingWheel.size();
+    }
+
+    private void stockChanged(Long productId, MovementType type, int quantity) {
+        movementLog.record(productId, type, quantity);
+        availabilityCache.evict(productId);
+        lowStockMonitor.stockChanged(productId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private ReservationResponse mapToResponse(Reservation reservation) {
+        ReservationResponse response = new ReservationResponse();
+        response.setId(reservation.getId());
+        response.setProductId(reservation.getProductId());
+        response.setOrderId(reservation.getOrderId());
+        response.setQuantity(reservation.getQuantity());
+        response.setStatus(reservation.getStatus().toString());
+        response.setExpiresAt(reservation.getExpiresAt());
+        response.setCreatedAt(reservation.getCreatedAt());
+        response.setUpdatedAt(reservation.getUpdatedAt());
+        return response;
+    }
+}
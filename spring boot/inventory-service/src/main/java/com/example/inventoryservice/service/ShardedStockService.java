@@ -0,0 +1,374 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.entity.InventoryShard;
+import com.example.inventoryservice.repository.InventoryRepository;
+import com.example.inventoryservice.repository.InventoryShardRepository;
+import com.example.inventoryservice.repository.InventoryShardRepository.ShardLevel;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Applies stock changes to a product's inventory row, or to its shards once the
+ * product has been split.
+ *
+ * A sharded product keeps its on-hand and reserved units in {@code shardCount}
+ * {@link InventoryShard} rows and the inventory row only carries the metadata, so
+ * concurrent reservations for the same SKU queue on different row locks. Shards are
+ * interchangeable slices of one stock level:
+ * <ul>
+ *   <li>a reservation locks one shard that can hold it, upwards from a randomly
+ *       chosen index and skipping shards other reservations hold; only when no free
+ *       shard fits are all shards locked and the units taken across them;</li>
+ *   <li>releases and commits lock all of the product's shards and take the units from
+ *       the shards holding the most reserved, so the reserved total never drops below
+ *       zero and a commit never deducts more than was reserved.</li>
+ * </ul>
+ * Every path that waits for shard locks takes them in ascending index order, after
+ * any inventory row locks. The single-shard claim never waits, so it holds nothing
+ * when it comes back empty and the locked path after it keeps that order; a
+ * reservation is only refused once the locked shards together cannot cover it.
+ *
+ * The single-row UPDATEs on the inventory table skip sharded rows, so a product
+ * sharded by another instance is picked up on the first miss. All methods expect to
+ * run inside the caller's transaction.
+ */
+@Service
+public class ShardedStockService {
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryShardRepository shardRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Sharding is one-way, so a cached entry never goes stale; the map only spares
+    // sharded products the failed single-row attempt.
+    private final Map<Long, Integer> shardCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void loadShardCounts() {
+        inventoryRepository.findShardedProductIds().forEach(this::lookupShardCount);
+    }
+
+    public boolean reserveStock(Long productId, int quantity) {
+        if (!isSharded(productId)) {
+            if (inventoryRepository.reserveStock(productId, quantity, LocalDateTime.now()) > 0) {
+                return true;
+            }
+            if (lookupShardCount(productId) == null) {
+                return false;
+            }
+        }
+        return reserveOnShards(productId, quantity);
+    }
+
+    public boolean releaseStock(Long productId, int quantity) {
+        if (!isSharded(productId)) {
+            if (inventoryRepository.releaseStock(productId, quantity, LocalDateTime.now()) > 0) {
+                return true;
+            }
+            if (lookupShardCount(productId) == null) {
+                return false;
+            }
+        }
+        releaseOnShards(productId, quantity);
+        return true;
+    }
+
+    /**
+     * Releases several products at once. All inventory rows are updated before any
+     * shard, keeping the lock order of the batch reservation path.
+     */
+    public void releaseStock(Map<Long, Integer> quantities) {
+        Map<Long, Integer> sharded = new TreeMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        new TreeMap<>(quantities).forEach((productId, quantity) -> {
+            if (isSharded(productId)
+                    || (inventoryRepository.releaseStock(productId, quantity, now) == 0
+                        && lookupShardCount(productId) != null)) {
+                sharded.put(productId, quantity);
+            }
+        });
+        sharded.forEach(this::releaseOnShards);
+    }
+
+    public boolean commitReservedStock(Long productId, int quantity) {
+        if (!isSharded(productId)) {
+            if (inventoryRepository.commitReservedStock(productId, quantity, LocalDateTime.now()) > 0) {
+                return true;
+            }
+            if (lookupShardCount(productId) == null) {
+                return false;
+            }
+        }
+        List<InventoryShard> shards = shardRepository.lockByProductId(productId);
+        if (reserved(shards) < quantity) {
+            return false;
+        }
+        takeReserved(shards, quantity, true);
+        return true;
+    }
+
+    public boolean receiveStock(Long productId, int quantity) {
+        if (!isSharded(productId)) {
+            if (inventoryRepository.receiveStock(productId, quantity, LocalDateTime.now()) > 0) {
+                return true;
+            }
+            if (lookupShardCount(productId) == null) {
+                return false;
+            }
+        }
+        List<InventoryShard> shards = shardRepository.lockByProductId(productId);
+        int onHand = shards.stream().mapToInt(InventoryShard::getQuantity).sum();
+        spread(shards, onHand + quantity, reserved(shards));
+        return true;
+    }
+
+    public boolean updateQuantity(Long productId, int quantity) {
+        if (!isSharded(productId)) {
+            if (inventoryRepository.updateQuantity(productId, quantity, LocalDateTime.now()) > 0) {
+                return true;
+            }
+            if (lookupShardCount(productId) == null) {
+                return false;
+            }
+        }
+        List<InventoryShard> shards = shardRepository.lockByProductId(productId);
+        spread(shards, quantity, reserved(shards));
+        return true;
+    }
+
+    /**
+     * Splits the product's current stock evenly across {@code shards} rows. Returns the
+     * product's summed view, or null if it does not exist or is already sharded.
+     */
+    public InventoryItem shard(Long productId, int shards) {
+        List<InventoryItem> locked = inventoryRepository.lockByProductIdIn(List.of(productId));
+        if (locked.isEmpty() || locked.get(0).getShardCount() != null) {
+            return null;
+        }
+        InventoryItem item = locked.get(0);
+        List<InventoryShard> rows = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            InventoryShard shard = new InventoryShard();
+            shard.setProductId(productId);
+            shard.setShardIndex(i);
+            rows.add(shard);
+        }
+        spread(rows, item.getQuantity(), item.getReserved());
+        shardRepository.saveAll(rows);
+        item.setShardCount(shards);
+        InventoryItem view = view(item, rows);
+        item.setQuantity(0);
+        item.setReserved(0);
+        return view;
+    }
+
+    /**
+     * Returns the item with its quantity and reserved counts summed over its shards.
+     * Unsharded items are returned as they are; sharded ones are copied, never modified.
+     */
+    public InventoryItem view(InventoryItem item) {
+        if (item.getShardCount() == null) {
+            return item;
+        }
+        return view(item, shardRepository.findByProductIdOrderByShardIndexAsc(item.getProductId()));
+    }
+
+    public List<InventoryItem> views(List<InventoryItem> items) {
+        List<Long> sharded = items.stream()
+                .filter(item -> item.getShardCount() != null)
+                .map(InventoryItem::getProductId)
+                .collect(Collectors.toList());
+        if (sharded.isEmpty()) {
+            return items;
+        }
+        Map<Long, List<InventoryShard>> shards = shardRepository.findByProductIdIn(sharded).stream()
+                .collect(Collectors.groupingBy(InventoryShard::getProductId));
+        return items.stream()
+                .map(item -> item.getShardCount() == null ? item
+                        : view(item, shards.getOrDefault(item.getProductId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+
+    // Used by the batch path once it holds all of its inventory row locks.
+    public List<InventoryShard> lockShards(Long productId) {
+        return shardRepository.lockByProductId(productId);
+    }
+
+    // Overwrites the product's totals, e.g. when the inventory table is rebuilt from the movement log.
+    public void reset(Long productId, int quantity, int reserved) {
+        spread(shardRepository.lockByProductId(productId), quantity, reserved);
+    }
+
+    public static int available(List<InventoryShard> shards) {
+        return shards.stream().mapToInt(InventoryShard::getAvailable).sum();
+    }
+
+    // Takes the units from the locked shards with the most headroom first, so the
+    // shards stay as even as possible for the single-shard path.
+    public static void reserveLocked(List<InventoryShard> shards, int quantity) {
+        List<InventoryShard> byAvailable = new ArrayList<>(shards);
+        byAvailable.sort((a, b) -> Integer.compare(b.getAvailable(), a.getAvailable()));
+        int remaining = quantity;
+        for (InventoryShard shard : byAvailable) {
+            int take = Math.min(remaining, Math.max(0, shard.getAvailable()));
+            shard.setReserved(shard.getReserved() + take);
+            remaining -= take;
+            if (remaining == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Re-splits each sharded product's stock evenly across its shards once one of them
+     * has drifted below half its fair share, so reservations keep landing on the first
+     * shard they try.
+     */
+    @Scheduled(fixedDelayString = "${inventory.sharding.rebalance-interval-millis:30000}")
+    public void rebalance() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (Long productId : inventoryRepository.findShardedProductIds()) {
+            if (!isSharded(productId)) {
+                lookupShardCount(productId);
+            }
+            transactionTemplate.executeWithoutResult(status -> rebalance(productId));
+        }
+    }
+
+    boolean rebalance(Long productId) {
+        List<InventoryShard> shards = shardRepository.lockByProductId(productId);
+        if (shards.isEmpty()) {
+            return false;
+        }
+        int fairShare = available(shards) / shards.size();
+        boolean skewed = shards.stream()
+                .anyMatch(shard -> shard.getReserved() < 0 || shard.getAvailable() < fairShare / 2);
+        if (!skewed) {
+            return false;
+        }
+        spread(shards, shards.stream().mapToInt(InventoryShard::getQuantity).sum(), reserved(shards));
+        return true;
+    }
+
+    private boolean isSharded(Long productId) {
+        return shardCounts.containsKey(productId);
+    }
+
+    private Integer lookupShardCount(Long productId) {
+        Integer shards = inventoryRepository.findByProductId(productId)
+                .map(InventoryItem::getShardCount)
+                .orElse(null);
+        if (shards != null) {
+            shardCounts.put(productId, shards);
+        }
+        return shards;
+    }
+
+    private boolean reserveOnShards(Long productId, int quantity) {
+        int startIndex = ThreadLocalRandom.current().nextInt(shardCounts.get(productId));
+        Integer claimed = shardRepository.claimFittingShard(productId, quantity, startIndex);
+        if (claimed != null) {
+            shardRepository.reserveStock(productId, claimed, quantity, LocalDateTime.now());
+            return true;
+        }
+        // No free shard holds it alone; the unlocked read spares a sold-out product the locks.
+        List<ShardLevel> levels = shardRepository.findLevelsByProductId(productId);
+        if (levels.stream().mapToInt(ShardLevel::getAvailable).sum() < quantity) {
+            return false;
+        }
+        List<InventoryShard> locked = shardRepository.lockByProductId(productId);
+        if (available(locked) < quantity) {
+            return false;
+        }
+        reserveLocked(locked, quantity);
+        return true;
+    }
+
+    // Mirrors the single-row release: whatever exceeds the reserved total is ignored.
+    private void releaseOnShards(Long productId, int quantity) {
+        List<InventoryShard> shards = shardRepository.lockByProductId(productId);
+        int releasable = Math.min(quantity, Math.max(0, reserved(shards)));
+        if (releasable > 0) {
+            takeReserved(shards, releasable, false);
+        }
+    }
+
+    // Lowers the reserved count of the locked shards holding the most first, and their
+    // on-hand units with it when the reservation is committed. The caller has checked that
+    // the reserved total covers the quantity, so the positive counts alone do.
+    private static void takeReserved(List<InventoryShard> shards, int quantity, boolean commit) {
+        List<InventoryShard> byReserved = new ArrayList<>(shards);
+        byReserved.sort((a, b) -> Integer.compare(b.getReserved(), a.getReserved()));
+        int remaining = quantity;
+        for (InventoryShard shard : byReserved) {
+            int take = Math.min(remaining, Math.max(0, shard.getReserved()));
+            shard.setReserved(shard.getReserved() - take);
+            if (commit) {
+                shard.setQuantity(shard.getQuantity() - take);
+            }
+            remaining -= take;
+            if (remaining == 0) {
+                break;
+            }
+        }
+    }
+
+    private static int reserved(List<InventoryShard> shards) {
+        return shards.stream().mapToInt(InventoryShard::getReserved).sum();
+    }
+
+    // Splits both counters evenly; any remainder lands on shard 0.
+    private static void spread(List<InventoryShard> shards, int quantity, int reserved) {
+        int[] reservedShares = split(reserved, shards.size());
+        int[] availableShares = split(quantity - reserved, shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            InventoryShard shard = shards.get(i);
+            shard.setReserved(reservedShares[i]);
+            shard.setQuantity(reservedShares[i] + availableShares[i]);
+        }
+    }
+
+    private static int[] split(int total, int parts) {
+        int[] shares = new int[parts];
+        int share = Math.floorDiv(total, parts);
+        for (int i = 0; i < parts; i++) {
+            shares[i] = share;
+        }
+        shares[0] += total - share * parts;
+        return shares;
+    }
+
+    private static InventoryItem view(InventoryItem item, List<InventoryShard> shards) {
+        InventoryItem view = new InventoryItem();
+        view.setId(item.getId());
+        view.setProductId(item.getProductId());
+        view.setQuantity(shards.stream().mapToInt(InventoryShard::getQuantity).sum());
+        view.setReserved(reserved(shards));
+        view.setWarehouse(item.getWarehouse());
+        view.setShardCount(item.getShardCount());
+        view.setCreatedAt(item.getCreatedAt());
+        view.setUpdatedAt(shards.stream().map(InventoryShard::getUpdatedAt)
+                .filter(updatedAt -> updatedAt != null)
+                .max(LocalDateTime::compareTo)
+                .orElse(item.getUpdatedAt()));
+        return view;
+    }
+}
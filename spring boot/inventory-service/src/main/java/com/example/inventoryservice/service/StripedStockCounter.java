@@ -0,0 +1,117 @@
+package com.example.inventoryservice.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Available-stock counter split across independently CAS-updated stripes.
+ *
+ * A reservation first tries to take its whole amount from a single randomly chosen
+ * stripe, so concurrent callers rarely touch the same cache line. When no single
+ * stripe holds enough, it gathers the amount across stripes and hands back whatever
+ * it took if the total still falls short. Stock is never oversold; under heavy
+ * contention near zero a reservation may be refused while a concurrent one is
+ * handing units back.
+ */
+public class StripedStockCounter {
+
+    // 16 ints = 64 bytes, so neighbouring stripes never share a cache line.
+    private static final int PADDING = 16;
+
+    private final int stripes;
+    private final AtomicIntegerArray cells;
+
+    public StripedStockCounter(int stripes, int initial) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive");
+        }
+        this.stripes = stripes;
+        this.cells = new AtomicIntegerArray(stripes * PADDING);
+        int share = initial / stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, share);
+        }
+        cells.addAndGet(0, initial - share * stripes);
+    }
+
+    public boolean tryAcquire(int amount) {
+        if (amount <= 0) {
+            return amount == 0;
+        }
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int index = ((start + i) % stripes) * PADDING;
+            int value;
+            while ((value = cells.get(index)) >= amount) {
+                if (cells.compareAndSet(index, value, value - amount)) {
+                    return true;
+                }
+            }
+        }
+        return acquireAcrossStripes(amount, start);
+    }
+
+    /**
+     * Adds (or, for a negative delta, removes) stock unconditionally. A negative delta
+     * may drive the counter below zero, in which case further acquisitions fail until
+     * stock is added back.
+     */
+    public void add(int delta) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        if (delta >= 0) {
+            cells.addAndGet(start * PADDING, delta);
+            return;
+        }
+        // Drain positive stripes first so no stripe keeps serving stock the total no longer has.
+        int remaining = -delta;
+        for (int i = 0; i < stripes && remaining > 0; i++) {
+            int index = ((start + i) % stripes) * PADDING;
+            int value;
+            while ((value = cells.get(index)) > 0) {
+                int take = Math.min(value, remaining);
+                if (cells.compareAndSet(index, value, value - take)) {
+                    remaining -= take;
+                    break;
+                }
+            }
+        }
+        if (remaining > 0) {
+            cells.addAndGet(start * PADDING, -remaining);
+        }
+    }
+
+    public int available() {
+        int sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private boolean acquireAcrossStripes(int amount, int start) {
+        int[] taken = new int[stripes];
+        int remaining = amount;
+        for (int i = 0; i < stripes && remaining > 0; i++) {
+            int stripe = (start + i) % stripes;
+            int index = stripe * PADDING;
+            int value;
+            while ((value = cells.get(index)) > 0) {
+                int take = Math.min(value, remaining);
+                if (cells.compareAndSet(index, value, value - take)) {
+                    taken[stripe] = take;
+                    remaining -= take;
+                    break;
+                }
+            }
+        }
+        if (remaining == 0) {
+            return true;
+        }
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            if (taken[stripe] > 0) {
+                cells.addAndGet(stripe * PADDING, taken[stripe]);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.inventoryservice.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Splits an order across warehouses so it ships in as few parcels as possible.
+ *
+ * Choosing the fewest warehouses that together hold every line is a set-cover problem.
+ * A greedy pass (take the warehouse covering the most outstanding units, repeat) gives
+ * a plan and an upper bound. Subsets of each smaller size are then searched
+ * exhaustively, smallest first, so the first one that covers the order is optimal.
+ * The search for one size is split by the subset's first warehouse into fork-join
+ * tasks, and a branch is cut as soon as the warehouses left to pick could not cover
+ * the outstanding units even in the best case. When the latency budget runs out the
+ * greedy plan is returned, marked as not proven optimal.
+ */
+@Component
+public class WarehouseAllocator {
+    // With fewer candidate warehouses than this a search is cheaper than forking it.
+    static final int PARALLEL_THRESHOLD = 12;
+
+    private final ForkJoinPool pool;
+    private final long budgetNanos;
+
+    public WarehouseAllocator(@Value("${inventory.allocation.parallelism:0}") int parallelism,
+                              @Value("${inventory.allocation.budget-millis:50}") long budgetMillis) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Plans an order given {@code stock[w][i]}, the units of line {@code i} held by
+     * warehouse {@code w}. Returns null if the warehouses together cannot fill every line.
+     */
+    public Plan allocate(int[] demand, int[][] stock) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int lines = demand.length;
+        long totalUnits = 0;
+        for (int i = 0; i < lines; i++) {
+            long held = 0;
+            for (int[] warehouse : stock) {
+                held += warehouse[i];
+            }
+            if (held < demand[i]) {
+                return null;
+            }
+            totalUnits += demand[i];
+        }
+
+        // Candidates are the warehouses that can contribute, largest contribution first,
+        // so prefix sums over them bound what any k further picks can still cover.
+        List<Integer> useful = new ArrayList<>();
+        long[] coverage = new long[stock.length];
+        for (int w = 0; w < stock.length; w++) {
+            for (int i = 0; i < lines; i++) {
+                coverage[w] += Math.min(stock[w][i], demand[i]);
+            }
+            if (coverage[w] > 0) {
+                useful.add(w);
+            }
+        }
+        useful.sort(Comparator.comparingLong((Integer w) -> -coverage[w]).thenComparingInt(w -> w));
+        int[] candidates = useful.stream().mapToInt(Integer::intValue).toArray();
+        long[] prefix = new long[candidates.length + 1];
+        for (int c = 0; c < candidates.length; c++) {
+            prefix[c + 1] = prefix[c] + coverage[candidates[c]];
+        }
+
+        int[] chosen = greedy(demand, stock, candidates, totalUnits);
+        boolean optimal = true;
+        int smallest = 1;
+        while (prefix[smallest] < totalUnits) {
+            smallest++;
+        }
+        for (int k = smallest; k < chosen.length; k++) {
+            Search search = new Search(demand, stock, candidates, prefix, totalUnits, k, deadline);
+            int[] found = search.run(pool);
+            if (search.timedOut) {
+                optimal = false;
+                break;
+            }
+            if (found != null) {
+                chosen = found;
+                break;
+            }
+        }
+        return pick(demand, stock, chosen, optimal);
+    }
+
+    private static int[] greedy(int[] demand, int[][] stock, int[] candidates, long totalUnits) {
+        int[] remaining = demand.clone();
+        boolean[] used = new boolean[candidates.length];
+        List<Integer> chosen = new ArrayList<>();
+        while (totalUnits > 0) {
+            int best = -1;
+            long bestGain = 0;
+            for (int c = 0; c < candidates.length; c++) {
+                if (used[c]) {
+                    continue;
+                }
+                long gain = 0;
+                for (int i = 0; i < remaining.length; i++) {
+                    gain += Math.min(stock[candidates[c]][i], remaining[i]);
+                }
+                if (gain > bestGain) {
+                    best = c;
+                    bestGain = gain;
+                }
+            }
+            used[best] = true;
+            chosen.add(candidates[best]);
+            totalUnits -= take(remaining, stock[candidates[best]]);
+        }
+        return chosen.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Fills each line from the chosen warehouses holding the most of it first.
+    private static Plan pick(int[] demand, int[][] stock, int[] chosen, boolean optimal) {
+        int[][] picks = new int[chosen.length][demand.length];
+        Integer[] order = new Integer[chosen.length];
+        for (int i = 0; i < demand.length; i++) {
+            int line = i;
+            for (int j = 0; j < chosen.length; j++) {
+                order[j] = j;
+            }
+            Arrays.sort(order, Comparator.comparingInt((Integer j) -> -stock[chosen[j]][line]).thenComparingInt(j -> j));
+            int remaining = demand[i];
+            for (int j = 0; j < chosen.length && remaining > 0; j++) {
+                int take = Math.min(remaining, stock[chosen[order[j]]][i]);
+                picks[order[j]][i] = take;
+                remaining -= take;
+            }
+        }
+        // A greedy choice can end up unused once every line goes to its largest holders.
+        List<Integer> shipping = new ArrayList<>();
+        for (int j = 0; j < chosen.length; j++) {
+            if (Arrays.stream(picks[j]).anyMatch(units -> units > 0)) {
+                shipping.add(j);
+            }
+        }
+        return new Plan(shipping.stream().mapToInt(j -> chosen[j]).toArray(),
+                shipping.stream().map(j -> picks[j]).toArray(int[][]::new), optimal);
+    }
+
+    // Lowers remaining by what the warehouse can supply and returns the units it covered.
+    private static long take(int[] remaining, int[] warehouse) {
+        long covered = 0;
+        for (int i = 0; i < remaining.length; i++) {
+            int units = Math.min(warehouse[i], remaining[i]);
+            remaining[i] -= units;
+            covered += units;
+        }
+        return covered;
+    }
+
+    /**
+     * Chosen warehouses in the caller's indexing, with {@code picks[j][i]} units of line
+     * {@code i} shipped from {@code warehouses[j]}.
+     */
+    public static final class Plan {
+        private final int[] warehouses;
+        private final int[][] picks;
+        private final boolean optimal;
+
+        Plan(int[] warehouses, int[][] picks, boolean optimal) {
+            this.warehouses = warehouses;
+            this.picks = picks;
+            this.optimal = optimal;
+        }
+
+        public int[] getWarehouses() {
+            return warehouses;
+        }
+
+        public int[][] getPicks() {
+            return picks;
+        }
+
+        public boolean isOptimal() {
+            return optimal;
+        }
+    }
+
+    // Looks for k candidates that together cover the whole order.
+    private static final class Search {
+        final int[] demand;
+        final int[][] stock;
+        final int[] candidates;
+        final long[] prefix;
+        final long totalUnits;
+        final int k;
+        final long deadline;
+        final AtomicBoolean done = new AtomicBoolean();
+        volatile boolean timedOut;
+
+        Search(int[] demand, int[][] stock, int[] candidates, long[] prefix, long totalUnits, int k, long deadline) {
+            this.demand = demand;
+            this.stock = stock;
+            this.candidates = candidates;
+            this.prefix = prefix;
+            this.totalUnits = totalUnits;
+            this.k = k;
+            this.deadline = deadline;
+        }
+
+        int[] run(ForkJoinPool pool) {
+            int firsts = candidates.length - k + 1;
+            if (candidates.length < PARALLEL_THRESHOLD || k == 1) {
+                for (int first = 0; first < firsts; first++) {
+                    int[] found = searchFrom(first);
+                    if (found != null || done.get()) {
+                        return found;
+                    }
+                }
+                return null;
+            }
+            return pool.invoke(new Split(this, 0, firsts));
+        }
+
+        // Subsets whose lowest candidate position is first.
+        int[] searchFrom(int first) {
+            if (prefix[first + k] - prefix[first] < totalUnits) {
+                return null;
+            }
+            int[] remaining = demand.clone();
+            long outstanding = totalUnits - take(remaining, stock[candidates[first]]);
+            int[] chosen = new int[k];
+            chosen[0] = first;
+            int[] found = extend(chosen, 1, first + 1, remaining, outstanding);
+            if (found != null) {
+                done.set(true);
+            }
+            return found;
+        }
+
+        private int[] extend(int[] chosen, int depth, int next, int[] remaining, long outstanding) {
+            if (outstanding == 0) {
+                int[] warehouses = new int[depth];
+                for (int j = 0; j < depth; j++) {
+                    warehouses[j] = candidates[chosen[j]];
+                }
+                return warehouses;
+            }
+            int slots = k - depth;
+            if (slots == 0 || done.get()) {
+                return null;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                timedOut = true;
+                done.set(true);
+                return null;
+            }
+            for (int c = next; c + slots <= candidates.length; c++) {
+                // Candidates are sorted by contribution, so once the best remaining run
+                // of picks falls short every later start does too.
+                if (prefix[c + slots] - prefix[c] < outstanding) {
+                    break;
+                }
+                int[] left = remaining.clone();
+                long covered = take(left, stock[candidates[c]]);
+                if (covered == 0) {
+                    continue;
+                }
+                chosen[depth] = c;
+                int[] found = extend(chosen, depth + 1, c + 1, left, outstanding - covered);
+                if (found != null || done.get()) {
+                    return found;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Split extends RecursiveTask<int[]> {
+        private final Search search;
+        private final int from;
+        private final int to;
+
+        Split(Search search, int from, int to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from == 1) {
+                return search.done.get() ? null : search.searchFrom(from);
+            }
+            int middle = (from + to) >>> 1;
+            Split low = new Split(search, from, middle);
+            low.fork();
+            int[] high = new Split(search, middle, to).compute();
+            int[] found = low.join();
+            return found != null ? found : high;
+        }
+    }
+}
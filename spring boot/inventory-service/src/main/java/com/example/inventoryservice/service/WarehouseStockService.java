@@ -0,0 +1,169 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.AllocationResponse;
+import com.example.inventoryservice.dto.ReservationItem;
+import com.example.inventoryservice.dto.ReservationResult;
+import com.example.inventoryservice.dto.WarehouseShipment;
+import com.example.inventoryservice.dto.WarehouseStockResponse;
+import com.example.inventoryservice.entity.WarehouseStock;
+import com.example.inventoryservice.repository.WarehouseStockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the per-warehouse breakdown of each product's on-hand stock and plans which
+ * warehouses ship an order. Sellable totals, reservations and availability stay on
+ * the product's inventory row; receipts add to both, and shipments and absolute
+ * adjustments take from both, so the plans are made from units that are still there.
+ */
+@Service
+public class WarehouseStockService {
+    private static final String SEED_SQL =
+            "INSERT INTO warehouse_stock (product_id, warehouse, quantity, updated_at) " +
+            "SELECT i.product_id, i.warehouse, CASE WHEN i.shard_count IS NULL THEN i.quantity " +
+            "ELSE (SELECT SUM(s.quantity) FROM inventory_shards s WHERE s.product_id = i.product_id) END, ? " +
+            "FROM inventory i WHERE i.warehouse IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM warehouse_stock w WHERE w.product_id = i.product_id)";
+
+    @Autowired
+    private WarehouseStockRepository warehouseStockRepository;
+
+    @Autowired
+    private WarehouseAllocator allocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Products stocked before the breakdown existed hold all their units in the
+    // warehouse recorded on their inventory row.
+    @EventListener(ApplicationReadyEvent.class)
+    public int seedFromInventory() {
+        return jdbcTemplate.update(SEED_SQL, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // Callers hold the product's stock locks, so two receipts never race to insert the same row.
+    public void receive(Long productId, String warehouse, int quantity) {
+        if (warehouseStockRepository.addQuantity(productId, warehouse, quantity, LocalDateTime.now()) == 0) {
+            WarehouseStock stock = new WarehouseStock();
+            stock.setProductId(productId);
+            stock.setWarehouse(warehouse);
+            stock.setQuantity(quantity);
+            warehouseStockRepository.save(stock);
+        }
+    }
+
+    /**
+     * Takes shipped units out of the product's warehouses: from {@code warehouse} first
+     * when the reservation named one, then from the fullest of the others. Units the
+     * warehouses do not hold are not taken from anywhere, so no row goes negative.
+     */
+    public void ship(Long productId, String warehouse, int quantity) {
+        List<WarehouseStock> rows = warehouseStockRepository.lockByProductId(productId);
+        rows.sort(Comparator.comparing((WarehouseStock stock) -> !stock.getWarehouse().equals(warehouse))
+                .thenComparing(WarehouseStock::getQuantity, Comparator.reverseOrder()));
+        take(rows, quantity);
+    }
+
+    /**
+     * Brings the breakdown in line with an absolute on-hand count. Units counted away
+     * leave the fullest warehouses first; units counted in go to {@code homeWarehouse},
+     * or the fullest warehouse when the product has none recorded.
+     */
+    public void adjustTo(Long productId, String homeWarehouse, int quantity) {
+        List<WarehouseStock> rows = warehouseStockRepository.lockByProductId(productId);
+        rows.sort(Comparator.comparing(WarehouseStock::getQuantity, Comparator.reverseOrder()));
+        int held = rows.stream().mapToInt(WarehouseStock::getQuantity).sum();
+        if (held > quantity) {
+            take(rows, held - quantity);
+        } else if (held < quantity) {
+            String warehouse = homeWarehouse != null ? homeWarehouse
+                    : rows.isEmpty() ? null : rows.get(0).getWarehouse();
+            if (warehouse != null) {
+                receive(productId, warehouse, quantity - held);
+            }
+        }
+    }
+
+    public List<WarehouseStockResponse> getWarehouseStock(Long productId) {
+        return warehouseStockRepository.findByProductIdOrderByWarehouseAsc(productId).stream()
+                .map(stock -> new WarehouseStockResponse(stock.getProductId(), stock.getWarehouse(),
+                        stock.getQuantity(), stock.getUpdatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Splits lines that are already known to be available (one per product) across
+     * the warehouses holding them, using as few warehouses as the allocator can find
+     * within its budget. If the warehouses together fall short, the response is not
+     * allocated and the short lines are marked {@link ReservationResult#INSUFFICIENT_STOCK}.
+     */
+    public AllocationResponse allocate(List<ReservationResult> lines) {
+        Map<Long, Integer> lineIndex = new HashMap<>();
+        int[] demand = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            lineIndex.put(lines.get(i).getProductId(), i);
+            demand[i] = lines.get(i).getRequested();
+        }
+        // Sorted by name, so equally good plans come out the same every time.
+        Map<String, int[]> byWarehouse = new TreeMap<>();
+        for (WarehouseStock stock : warehouseStockRepository.findStockedByProductIdIn(lineIndex.keySet())) {
+            byWarehouse.computeIfAbsent(stock.getWarehouse(), name -> new int[demand.length])
+                    [lineIndex.get(stock.getProductId())] = stock.getQuantity();
+        }
+        List<String> warehouses = new ArrayList<>(byWarehouse.keySet());
+        int[][] stock = byWarehouse.values().toArray(new int[0][]);
+
+        WarehouseAllocator.Plan plan = allocator.allocate(demand, stock);
+        if (plan == null) {
+            List<ReservationResult> results = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                int held = 0;
+                for (int[] warehouse : stock) {
+                    held += warehouse[i];
+                }
+                ReservationResult line = lines.get(i);
+                results.add(held < demand[i]
+                        ? new ReservationResult(line.getProductId(), demand[i], held, ReservationResult.INSUFFICIENT_STOCK)
+                        : line);
+            }
+            return new AllocationResponse(false, false, List.of(), results);
+        }
+
+        List<WarehouseShipment> shipments = new ArrayList<>(plan.getWarehouses().length);
+        for (int j = 0; j < plan.getWarehouses().length; j++) {
+            List<ReservationItem> items = new ArrayList<>();
+            for (int i = 0; i < demand.length; i++) {
+                if (plan.getPicks()[j][i] > 0) {
+                    items.add(new ReservationItem(lines.get(i).getProductId(), plan.getPicks()[j][i]));
+                }
+            }
+            shipments.add(new WarehouseShipment(warehouses.get(plan.getWarehouses()[j]), items));
+        }
+        return new AllocationResponse(true, plan.isOptimal(), shipments, lines);
+    }
+
+    // Takes up to quantity units from the locked rows, in their order.
+    private static void take(List<WarehouseStock> rows, int quantity) {
+        int remaining = quantity;
+        for (WarehouseStock stock : rows) {
+            if (remaining == 0) {
+                break;
+            }
+            int taken = Math.min(remaining, Math.max(0, stock.getQuantity()));
+            stock.setQuantity(stock.getQuantity() - taken);
+            remaining -= taken;
+        }
+    }
+}
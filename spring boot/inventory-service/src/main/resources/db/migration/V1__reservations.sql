@@ -0,0 +1,22 @@
+-- Reservation ledger: one row per order line holding stock, from ACTIVE until it is
+-- confirmed, released or expires. Run once against PostgreSQL before deploying.
+CREATE TABLE IF NOT EXISTS reservations (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id     BIGINT NOT NULL,
+    order_id       BIGINT NOT NULL,
+    quantity       INTEGER NOT NULL,
+    status         VARCHAR(255) NOT NULL,
+    expires_at     TIMESTAMP(6) NOT NULL,
+    warehouse      VARCHAR(255),
+    applied_status VARCHAR(255),
+    stock_pending  BOOLEAN,
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL
+);
+
+-- Confirming or releasing an order locks its reservations by order_id.
+CREATE INDEX IF NOT EXISTS idx_reservations_order_id ON reservations (order_id);
+-- Expiry timers are re-armed at startup by paging through ACTIVE reservations in id order.
+CREATE INDEX IF NOT EXISTS idx_reservations_status_id ON reservations (status, id);
+-- Hot-SKU write-behind looks up the reservations whose stock change is not yet flushed.
+CREATE INDEX IF NOT EXISTS idx_reservations_stock_pending ON reservations (stock_pending);
@@ -0,0 +1,21 @@
+-- Optional stock shards for contended products: an inventory row with a shard_count keeps
+-- its stock in that many inventory_shards rows. Run once against PostgreSQL before deploying.
+
+BEGIN;
+
+LOCK TABLE inventory IN EXCLUSIVE MODE;
+
+ALTER TABLE inventory ADD COLUMN IF NOT EXISTS shard_count INTEGER;
+
+CREATE TABLE IF NOT EXISTS inventory_shards (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id  BIGINT NOT NULL,
+    shard_index INTEGER NOT NULL,
+    quantity    INTEGER NOT NULL,
+    reserved    INTEGER NOT NULL,
+    updated_at  TIMESTAMP(6) NOT NULL,
+    -- Every shard read and lock goes through (product_id, shard_index).
+    CONSTRAINT uk_inventory_shards_product_shard UNIQUE (product_id, shard_index)
+);
+
+COMMIT;
@@ -0,0 +1,21 @@
+-- Append-only log of stock movements and the periodic per-product snapshots a replay
+-- starts from. Run once against PostgreSQL before deploying.
+CREATE TABLE IF NOT EXISTS inventory_movements (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    type       VARCHAR(255) NOT NULL,
+    quantity   INTEGER NOT NULL,
+    reserved   INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+-- Replay reads a product's movements after its snapshot's last_movement_id in id order.
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_product_id ON inventory_movements (product_id, id);
+
+CREATE TABLE IF NOT EXISTS inventory_snapshots (
+    product_id       BIGINT PRIMARY KEY,
+    quantity         INTEGER NOT NULL,
+    reserved         INTEGER NOT NULL,
+    last_movement_id BIGINT NOT NULL,
+    created_at       TIMESTAMP(6) NOT NULL
+);
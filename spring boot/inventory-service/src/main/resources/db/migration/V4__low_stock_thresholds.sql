@@ -0,0 +1,7 @@
+-- Adds the optional per-product low-stock threshold. Run once against PostgreSQL before deploying.
+ALTER TABLE inventory ADD COLUMN IF NOT EXISTS low_stock_threshold INTEGER;
+
+-- The low-stock monitor loads every product with a threshold at startup; most have none.
+-- CONCURRENTLY keeps the table writable while it builds, so run it outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inventory_low_stock
+    ON inventory (product_id) WHERE low_stock_threshold IS NOT NULL;
@@ -0,0 +1,9 @@
+-- Stock held per warehouse for each product. Run once against PostgreSQL before deploying.
+CREATE TABLE IF NOT EXISTS warehouse_stock (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    warehouse  VARCHAR(255) NOT NULL,
+    quantity   INTEGER NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_warehouse_stock_product_warehouse UNIQUE (product_id, warehouse)
+);
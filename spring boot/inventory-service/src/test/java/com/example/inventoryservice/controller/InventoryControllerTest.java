@@ -1,17 +1,32 @@
 package com.example.inventoryservice.controller;
 
+import com.example.inventoryservice.dto.AllocationRequest;
+import com.example.inventoryservice.dto.AllocationResponse;
+import com.example.inventoryservice.dto.BatchAvailabilityRequest;
+import com.example.inventoryservice.dto.BatchAvailabilityResponse;
+import com.example.inventoryservice.dto.BatchReservationRequest;
+import com.example.inventoryservice.dto.BatchReservationResponse;
 import com.example.inventoryservice.dto.InventoryRequest;
 import com.example.inventoryservice.dto.InventoryResponse;
+import com.example.inventoryservice.dto.LowStockResponse;
+import com.example.inventoryservice.dto.ReservationItem;
+import com.example.inventoryservice.dto.ReplayResponse;
+import com.example.inventoryservice.dto.ReservationResult;
+import com.example.inventoryservice.dto.WarehouseShipment;
+import com.example.inventoryservice.service.InventoryMovementService;
 import com.example.inventoryservice.service.InventoryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -22,24 +37,41 @@ import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
-@AutoConfigureMockMvc
 @ActiveProfiles("test")
 class InventoryControllerTest {
 
     @Autowired
+    private WebApplicationContext context;
+
     private MockMvc mockMvc;
 
     @MockBean
     private InventoryService inventoryService;
 
+    @MockBean
+    private InventoryMovementService movementService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    // Every request goes through the resource-server chain as an authenticated caller.
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .apply(springSecurity())
+                .defaultRequest(get("/").with(jwt()).with(csrf()))
+                .build();
+    }
+
     @Test
     void testAddInventory() throws Exception {
         InventoryRequest request = new InventoryRequest(1L, 100, "Warehouse A");
@@ -124,6 +156,20 @@ class InventoryControllerTest {
         verify(inventoryService, times(1)).reserveStock(1L, 30);
     }
 
+    @Test
+    void testShardInventory() throws Exception {
+        InventoryResponse response = new InventoryResponse(1L, 1L, 100, 0, 100, "Warehouse A", LocalDateTime.now(), LocalDateTime.now());
+
+        when(inventoryService.shardInventory(1L, 8)).thenReturn(response);
+
+        mockMvc.perform(post("/api/inventory/product/1/shards")
+                .param("count", "8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(100));
+
+        verify(inventoryService, times(1)).shardInventory(1L, 8);
+    }
+
     @Test
     void testReleaseStock() throws Exception {
         InventoryResponse response = new InventoryResponse(1L, 1L, 100, 0, 100, "Warehouse A", LocalDateTime.now(), LocalDateTime.now());
@@ -157,15 +203,53 @@ class InventoryControllerTest {
                 new InventoryResponse(2L, 2L, 200, 50, 150, "Warehouse B", LocalDateTime.now(), LocalDateTime.now())
         );
 
-        when(inventoryService.getAllInventory()).thenReturn(responses);
+        when(inventoryService.getInventoryPage(0L, 500)).thenReturn(responses);
 
         mockMvc.perform(get("/api/inventory"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].productId").value(1L))
-                .andExpect(jsonPath("$[1].productId").value(2L));
+                .andExpect(jsonPath("$[1].productId").value(2L))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
 
-        verify(inventoryService, times(1)).getAllInventory();
+        verify(inventoryService, times(1)).getInventoryPage(0L, 500);
+    }
+
+    @Test
+    void testGetAllInventoryFullPageHasCursor() throws Exception {
+        List<InventoryResponse> responses = Arrays.asList(
+                new InventoryResponse(3L, 30L, 100, 0, 100, "Warehouse A", LocalDateTime.now(), LocalDateTime.now()),
+                new InventoryResponse(4L, 40L, 200, 50, 150, "Warehouse B", LocalDateTime.now(), LocalDateTime.now())
+        );
+
+        when(inventoryService.getInventoryPage(20L, 2)).thenReturn(responses);
+
+        mockMvc.perform(get("/api/inventory").param("afterProductId", "20").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "40"));
+    }
+
+    @Test
+    void testGetLowStock() throws Exception {
+        List<LowStockResponse> responses = Arrays.asList(
+                new LowStockResponse(7L, 3, 10, LocalDateTime.now()));
+
+        when(inventoryService.getLowStock(0L, 100)).thenReturn(responses);
+
+        mockMvc.perform(get("/api/inventory/low-stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].productId").value(7L))
+                .andExpect(jsonPath("$[0].threshold").value(10));
+    }
+
+    @Test
+    void testSetLowStockThresholdRejectsNegative() throws Exception {
+        mockMvc.perform(put("/api/inventory/product/1/low-stock-threshold")
+                .param("threshold", "-1"))
+                .andExpect(status().isBadRequest());
+
+        verify(inventoryService, never()).setLowStockThreshold(any(), any());
     }
 
     @Test
@@ -178,4 +262,100 @@ class InventoryControllerTest {
 
         verify(inventoryService, times(1)).reserveStock(999L, 30);
     }
+
+    @Test
+    void testReserveBatch() throws Exception {
+        BatchReservationRequest request = new BatchReservationRequest(Arrays.asList(
+                new ReservationItem(1L, 2), new ReservationItem(2L, 1)));
+        BatchReservationResponse response = new BatchReservationResponse(true, Arrays.asList(
+                new ReservationResult(1L, 2, 98, ReservationResult.RESERVED),
+                new ReservationResult(2L, 1, 49, ReservationResult.RESERVED)));
+
+        when(inventoryService.reserveBatch(anyList())).thenReturn(response);
+
+        mockMvc.perform(post("/api/inventory/reserve-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reserved").value(true))
+                .andExpect(jsonPath("$.items", hasSize(2)));
+
+        verify(inventoryService, times(1)).reserveBatch(anyList());
+    }
+
+    @Test
+    void testReserveBatchInsufficientStock() throws Exception {
+        BatchReservationRequest request = new BatchReservationRequest(Arrays.asList(new ReservationItem(1L, 200)));
+        BatchReservationResponse response = new BatchReservationResponse(false, Arrays.asList(
+                new ReservationResult(1L, 200, 100, ReservationResult.INSUFFICIENT_STOCK)));
+
+        when(inventoryService.reserveBatch(anyList())).thenReturn(response);
+
+        mockMvc.perform(post("/api/inventory/reserve-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.items[0].status").value("INSUFFICIENT_STOCK"));
+    }
+
+    @Test
+    void testCheckAvailabilityBatch() throws Exception {
+        BatchAvailabilityRequest request = new BatchAvailabilityRequest(Arrays.asList(
+                new ReservationItem(1L, 2), new ReservationItem(2L, 60)));
+        BatchAvailabilityResponse response = new BatchAvailabilityResponse(false, Arrays.asList(
+                new ReservationResult(1L, 2, 100, ReservationResult.AVAILABLE),
+                new ReservationResult(2L, 60, 50, ReservationResult.INSUFFICIENT_STOCK)));
+
+        when(inventoryService.checkAvailabilityBatch(anyList())).thenReturn(response);
+
+        mockMvc.perform(post("/api/inventory/check-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(false))
+                .andExpect(jsonPath("$.items[1].status").value("INSUFFICIENT_STOCK"));
+
+        verify(inventoryService, times(1)).checkAvailabilityBatch(anyList());
+    }
+
+    @Test
+    void testReplayRequiresAdminScope() throws Exception {
+        mockMvc.perform(post("/api/inventory/replay"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(movementService);
+    }
+
+    @Test
+    void testReplay() throws Exception {
+        when(movementService.rebuild(true)).thenReturn(new ReplayResponse(3, 120L, 40L, 3000L));
+
+        mockMvc.perform(post("/api/inventory/replay")
+                .with(jwt().authorities(new SimpleGrantedAuthority("SCOPE_inventory.admin"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products").value(3))
+                .andExpect(jsonPath("$.events").value(120));
+
+        verify(movementService, times(1)).rebuild(true);
+    }
+
+    @Test
+    void testAllocate() throws Exception {
+        AllocationRequest request = new AllocationRequest(Arrays.asList(
+                new ReservationItem(1L, 8), new ReservationItem(2L, 1)));
+        AllocationResponse response = new AllocationResponse(true, true, Arrays.asList(
+                new WarehouseShipment("Warehouse A", Arrays.asList(new ReservationItem(1L, 5), new ReservationItem(2L, 1))),
+                new WarehouseShipment("Warehouse B", Arrays.asList(new ReservationItem(1L, 3)))),
+                Arrays.asList(new ReservationResult(1L, 8, 10, ReservationResult.AVAILABLE),
+                        new ReservationResult(2L, 1, 4, ReservationResult.AVAILABLE)));
+
+        when(inventoryService.allocate(anyList())).thenReturn(response);
+
+        mockMvc.perform(post("/api/inventory/allocate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shipments", hasSize(2)))
+                .andExpect(jsonPath("$.shipments[0].warehouse").value("Warehouse A"));
+    }
 }
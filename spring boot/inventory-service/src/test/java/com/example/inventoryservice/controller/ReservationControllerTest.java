@@ -0,0 +1,109 @@
+package com.example.inventoryservice.controller;
+
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.dto.ReservationResponse;
+import com.example.inventoryservice.service.ReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationControllerTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReservationService reservationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Every request goes through the resource-server chain as an authenticated caller.
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .apply(springSecurity())
+                .defaultRequest(get("/").with(jwt()).with(csrf()))
+                .build();
+    }
+
+    @Test
+    void testReserve() throws Exception {
+        ReservationRequest request = new ReservationRequest(1L, 10L, 2, 600L);
+        ReservationResponse response = new ReservationResponse(1L, 1L, 10L, 2, "ACTIVE",
+                LocalDateTime.now().plusMinutes(10), LocalDateTime.now(), LocalDateTime.now());
+
+        when(reservationService.reserve(any(ReservationRequest.class))).thenReturn(response);
+
+        mockMvc.perform(post("/api/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("ACTIVE"));
+
+        verify(reservationService, times(1)).reserve(any(ReservationRequest.class));
+    }
+
+    @Test
+    void testReleaseNotFound() throws Exception {
+        when(reservationService.release(999L)).thenReturn(null);
+
+        mockMvc.perform(post("/api/inventory/reservations/999/release"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testConfirmExpiredReservation() throws Exception {
+        ReservationResponse response = new ReservationResponse(1L, 1L, 10L, 2, "EXPIRED",
+                LocalDateTime.now().minusMinutes(1), LocalDateTime.now(), LocalDateTime.now());
+
+        when(reservationService.confirm(1L)).thenReturn(response);
+
+        mockMvc.perform(post("/api/inventory/reservations/1/confirm"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testConfirmOrderConflict() throws Exception {
+        ReservationResponse blocked = new ReservationResponse(2L, 2L, 10L, 1, "ACTIVE",
+                LocalDateTime.now().plusMinutes(10), LocalDateTime.now(), LocalDateTime.now());
+
+        when(reservationService.confirmOrder(10L)).thenReturn(List.of(blocked));
+
+        mockMvc.perform(post("/api/inventory/reservations/order/10/confirm"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$[0].id").value(2));
+    }
+
+    @Test
+    void testRequiresAuthentication() throws Exception {
+        MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build()
+                .perform(get("/api/inventory/reservations/1"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(reservationService);
+    }
+}
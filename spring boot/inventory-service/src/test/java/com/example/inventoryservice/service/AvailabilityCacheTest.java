@@ -0,0 +1,84 @@
+package com.example.inventoryservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityCacheTest {
+
+    @Test
+    void testReadThroughAndEvict() {
+        AvailabilityCache cache = new AvailabilityCache(100);
+
+        assertEquals(LongIntHashMap.MISSING, cache.get(1L));
+        cache.put(1L, 40, cache.loadStamp(1L));
+        assertEquals(40, cache.get(1L));
+
+        cache.evict(1L);
+        assertEquals(LongIntHashMap.MISSING, cache.get(1L));
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    void testLoadRacingAnEvictionIsDiscarded() {
+        AvailabilityCache cache = new AvailabilityCache(100);
+
+        long stamp = cache.loadStamp(1L);
+        // A writer changes the product's stock while the loader is reading the database.
+        cache.evict(1L);
+        cache.put(1L, 40, stamp);
+
+        assertEquals(LongIntHashMap.MISSING, cache.get(1L));
+        cache.put(1L, 35, cache.loadStamp(1L));
+        assertEquals(35, cache.get(1L));
+    }
+
+    @Test
+    void testEvictsAnUnreadEntryWhenFull() {
+        AvailabilityCache cache = new AvailabilityCache(2);
+        cache.put(1L, 10, cache.loadStamp(1L));
+        cache.put(2L, 20, cache.loadStamp(2L));
+        assertEquals(10, cache.get(1L));
+
+        cache.put(3L, 30, cache.loadStamp(3L));
+
+        assertEquals(2, cache.size());
+        assertEquals(10, cache.get(1L));
+        assertEquals(30, cache.get(3L));
+        assertEquals(LongIntHashMap.MISSING, cache.get(2L));
+        // Updating a cached product never evicts another.
+        cache.put(3L, 31, cache.loadStamp(3L));
+        assertEquals(10, cache.get(1L));
+        assertEquals(31, cache.get(3L));
+    }
+
+    @Test
+    void testKeepsAdmittingOnceFull() {
+        AvailabilityCache cache = new AvailabilityCache(100);
+
+        for (long productId = 1; productId <= 1_000; productId++) {
+            cache.put(productId, (int) productId, cache.loadStamp(productId));
+            assertEquals((int) productId, cache.get(productId));
+        }
+
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    void testPublishesHitAndMissCounters() {
+        AvailabilityCache cache = new AvailabilityCache(100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.get(1L);
+        cache.put(1L, 5, cache.loadStamp(1L));
+        cache.get(1L);
+        cache.get(1L);
+
+        assertEquals(2.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").gauge().value());
+    }
+}
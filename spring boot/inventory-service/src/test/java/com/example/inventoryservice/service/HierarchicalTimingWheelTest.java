@@ -0,0 +1,89 @@
+package com.example.inventoryservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void testExpiresInDeadlineOrder() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 4, 0);
+        wheel.schedule(1L, 50);
+        wheel.schedule(2L, 20);
+        wheel.schedule(3L, 5_000);
+
+        assertTrue(wheel.advance(10).isEmpty());
+        assertEquals(Arrays.asList(2L), wheel.advance(20));
+        assertEquals(Arrays.asList(1L), wheel.advance(4_999));
+        assertEquals(Arrays.asList(3L), wheel.advance(5_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCancelRemovesTimer() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 4, 0);
+        wheel.schedule(1L, 100);
+        wheel.schedule(2L, 100);
+
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(1L));
+        assertEquals(Arrays.asList(2L), wheel.advance(100));
+    }
+
+    @Test
+    void testRescheduleReplacesPreviousDeadline() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 4, 0);
+        wheel.schedule(1L, 100);
+        wheel.schedule(1L, 300);
+
+        assertTrue(wheel.advance(200).isEmpty());
+        assertEquals(Arrays.asList(1L), wheel.advance(300));
+    }
+
+    @Test
+    void testPastDeadlineFiresOnNextTick() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 4, 1_000);
+        wheel.schedule(1L, 0);
+
+        assertEquals(Arrays.asList(1L), wheel.advance(1_010));
+    }
+
+    @Test
+    void testCascadesAcrossLevelsWithoutLosingTimers() {
+        long start = 1_700_000_000_000L;
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, 3, start);
+        Random random = new Random(7);
+        long[] deadlines = new long[5_000];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = start + 1 + random.nextInt(20_000);
+            wheel.schedule(i, deadlines[i]);
+        }
+        Set<Long> cancelled = new HashSet<>();
+        for (long id = 0; id < deadlines.length; id += 7) {
+            wheel.cancel(id);
+            cancelled.add(id);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = start; now <= start + 20_001; now += 97) {
+            for (Long id : wheel.advance(now)) {
+                assertTrue(deadlines[id.intValue()] <= now);
+                assertTrue(deadlines[id.intValue()] > now - 97);
+                fired.add(id);
+            }
+        }
+        fired.addAll(wheel.advance(start + 20_001));
+
+        assertEquals(deadlines.length - cancelled.size(), fired.size());
+        assertTrue(fired.stream().noneMatch(cancelled::contains));
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.inventoryservice.service;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput of reserve/release pairs on a single hot SKU: the conditional UPDATE on
+ * one inventory row (H2, row-locked) against the striped in-memory counter used by
+ * {@link HotSkuReservationEngine}. Run the {@link #main} method from the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class HotSkuReservationBenchmark {
+
+    private static final String RESERVE_SQL =
+            "UPDATE inventory SET reserved = reserved + 1 WHERE product_id = 1 AND quantity - reserved >= 1";
+    private static final String RELEASE_SQL =
+            "UPDATE inventory SET reserved = reserved - 1 WHERE product_id = 1 AND reserved >= 1";
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        JdbcDataSource dataSource;
+        Connection keepAlive;
+        StripedStockCounter counter;
+        LongAdder pendingReserved;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:hotsku;LOCK_TIMEOUT=10000");
+            keepAlive = dataSource.getConnection();
+            try (Statement statement = keepAlive.createStatement()) {
+                statement.execute("CREATE TABLE inventory (product_id BIGINT PRIMARY KEY, quantity INT, reserved INT)");
+                statement.execute("INSERT INTO inventory VALUES (1, 1000000000, 0)");
+            }
+            counter = new StripedStockCounter(16, 1_000_000_000);
+            pendingReserved = new LongAdder();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            keepAlive.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RowConnection {
+        Connection connection;
+        PreparedStatement reserve;
+        PreparedStatement release;
+
+        @Setup(Level.Trial)
+        public void setUp(Shared shared) throws SQLException {
+            connection = shared.dataSource.getConnection();
+            reserve = connection.prepareStatement(RESERVE_SQL);
+            release = connection.prepareStatement(RELEASE_SQL);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int rowLockedReserveRelease(RowConnection row) throws SQLException {
+        return row.reserve.executeUpdate() + row.release.executeUpdate();
+    }
+
+    @Benchmark
+    public boolean stripedReserveRelease(Shared shared) {
+        boolean reserved = shared.counter.tryAcquire(1);
+        shared.pendingReserved.increment();
+        shared.counter.add(1);
+        shared.pendingReserved.decrement();
+        return reserved;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HotSkuReservationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
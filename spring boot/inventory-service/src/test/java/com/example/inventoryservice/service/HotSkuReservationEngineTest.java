@@ -0,0 +1,184 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.InventoryResponse;
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.dto.ReservationResponse;
+import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.entity.Reservation;
+import com.example.inventoryservice.entity.ReservationStatus;
+import com.example.inventoryservice.repository.InventoryRepository;
+import com.example.inventoryservice.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "inventory.hot-sku.enabled=true",
+        "inventory.hot-sku.product-ids=1",
+        "inventory.hot-sku.flush-interval-millis=3600000"
+})
+@ActiveProfiles("test")
+class HotSkuReservationEngineTest {
+
+    @Autowired
+    private HotSkuReservationEngine hotSkuEngine;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        InventoryItem item = new InventoryItem();
+        item.setProductId(1L);
+        item.setQuantity(100);
+        item.setReserved(0);
+        inventoryRepository.save(item);
+        hotSkuEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hotSkuEngine.flush();
+        ((Map<?, ?>) ReflectionTestUtils.getField(hotSkuEngine, "skus")).clear();
+        reservationRepository.deleteAll();
+        inventoryRepository.deleteAll();
+    }
+
+    @Test
+    void testReservationsAreWrittenBehind() {
+        assertTrue(hotSkuEngine.isHot(1L));
+        assertNotNull(inventoryService.reserveStock(1L, 30));
+        assertNotNull(inventoryService.releaseStock(1L, 5));
+
+        assertEquals(75, inventoryService.getInventoryByProductId(1L).orElseThrow().getAvailable());
+        assertEquals(0, inventoryRepository.findByProductId(1L).orElseThrow().getReserved());
+
+        hotSkuEngine.flush();
+
+        assertEquals(25, inventoryRepository.findByProductId(1L).orElseThrow().getReserved());
+    }
+
+    @Test
+    void testFlushSurvivesTheCallersRollback() {
+        assertNotNull(inventoryService.reserveStock(1L, 30));
+
+        // updateQuantity flushes the pending reservation first; its own change is then rolled back.
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryService.updateQuantity(1L, 120);
+            status.setRollbackOnly();
+        });
+        hotSkuEngine.flush();
+
+        InventoryItem item = inventoryRepository.findByProductId(1L).orElseThrow();
+        assertEquals(30, item.getReserved());
+        assertEquals(100, item.getQuantity());
+        // The in-memory counters are rolled back with the row.
+        InventoryResponse view = inventoryService.getInventoryByProductId(1L).orElseThrow();
+        assertEquals(100, view.getQuantity());
+        assertEquals(70, view.getAvailable());
+    }
+
+    @Test
+    void testConcurrentReleasesNeverExceedTheReservedUnits() throws Exception {
+        assertNotNull(inventoryService.reserveStock(1L, 50));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 400; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    hotSkuEngine.release(1L, 1);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        InventoryResponse view = inventoryService.getInventoryByProductId(1L).orElseThrow();
+        assertEquals(0, view.getReserved());
+        assertEquals(100, view.getAvailable());
+        hotSkuEngine.flush();
+        assertEquals(0, inventoryRepository.findByProductId(1L).orElseThrow().getReserved());
+    }
+
+    @Test
+    void testHotSkuCannotBeOversold() {
+        assertNotNull(inventoryService.reserveStock(1L, 100));
+        assertNull(inventoryService.reserveStock(1L, 1));
+        assertFalse(inventoryService.checkAvailability(1L, 1));
+    }
+
+    @Test
+    void testLedgerReservationsAreJournaled() {
+        ReservationResponse active = reservationService.reserve(new ReservationRequest(1L, 10L, 10, 600L));
+        ReservationResponse confirmed = reservationService.reserve(new ReservationRequest(1L, 10L, 20, 600L));
+        ReservationResponse released = reservationService.reserve(new ReservationRequest(1L, 10L, 5, 600L));
+        reservationService.confirm(confirmed.getId());
+        reservationService.release(released.getId());
+
+        assertEquals(70, hotSkuEngine.available(1L));
+        assertEquals(Boolean.TRUE, reservationRepository.findById(active.getId()).orElseThrow().getStockPending());
+
+        hotSkuEngine.flush();
+
+        InventoryItem item = inventoryRepository.findByProductId(1L).orElseThrow();
+        assertEquals(80, item.getQuantity());
+        assertEquals(10, item.getReserved());
+        assertEquals(ReservationStatus.ACTIVE, reservationRepository.findById(active.getId()).orElseThrow().getAppliedStatus());
+    }
+
+    @Test
+    void testStartupReconcilesPendingLedgerRows() {
+        // Simulates a crash: a hot reservation reached the ledger but was never flushed.
+        Reservation reservation = new Reservation();
+        reservation.setProductId(1L);
+        reservation.setOrderId(20L);
+        reservation.setQuantity(12);
+        reservation.changeStatus(ReservationStatus.ACTIVE, false);
+        reservation.setExpiresAt(LocalDateTime.now().plusMinutes(10));
+        reservationRepository.save(reservation);
+        ((Map<?, ?>) ReflectionTestUtils.getField(hotSkuEngine, "skus")).clear();
+
+        hotSkuEngine.start();
+
+        assertEquals(12, inventoryRepository.findByProductId(1L).orElseThrow().getReserved());
+        assertEquals(88, hotSkuEngine.available(1L));
+    }
+}
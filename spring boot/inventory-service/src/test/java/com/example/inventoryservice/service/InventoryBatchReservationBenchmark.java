@@ -0,0 +1,100 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.InventoryServiceApplication;
+import com.example.inventoryservice.dto.BatchReservationResponse;
+import com.example.inventoryservice.dto.ReservationItem;
+import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.repository.InventoryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one reserve-batch call against the equivalent sequence of per-item
+ * reservations, through the service and the test profile's H2 database. Run the
+ * {@link #main} method from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryBatchReservationBenchmark {
+
+    private static final int PRODUCTS = 100;
+
+    @Param({"1", "10", "100"})
+    int itemCount;
+
+    ConfigurableApplicationContext context;
+    InventoryService inventoryService;
+    List<ReservationItem> items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(InventoryServiceApplication.class)
+                .profiles("test")
+                // Passed as arguments: default properties would rank below the application yml files.
+                .run("--server.port=0");
+        inventoryService = context.getBean(InventoryService.class);
+
+        List<InventoryItem> stock = new ArrayList<>();
+        for (long productId = 1; productId <= PRODUCTS; productId++) {
+            InventoryItem item = new InventoryItem();
+            item.setProductId(productId);
+            item.setQuantity(Integer.MAX_VALUE);
+            item.setReserved(0);
+            stock.add(item);
+        }
+        context.getBean(InventoryRepository.class).saveAll(stock);
+
+        items = new ArrayList<>(itemCount);
+        for (long productId = 1; productId <= itemCount; productId++) {
+            items.add(new ReservationItem(productId, 1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void perItem(Blackhole blackhole) {
+        for (ReservationItem item : items) {
+            blackhole.consume(inventoryService.reserveStock(item.getProductId(), item.getQuantity()));
+        }
+    }
+
+    @Benchmark
+    public BatchReservationResponse batch() {
+        return inventoryService.reserveBatch(items);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InventoryBatchReservationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.InventoryRequest;
+import com.example.inventoryservice.dto.InventoryStateResponse;
+import com.example.inventoryservice.dto.ReplayResponse;
+import com.example.inventoryservice.dto.ReservationItem;
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.dto.ReservationResponse;
+import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.entity.MovementType;
+import com.example.inventoryservice.repository.InventoryMovementRepository;
+import com.example.inventoryservice.repository.InventoryRepository;
+import com.example.inventoryservice.repository.InventoryShardRepository;
+import com.example.inventoryservice.repository.InventorySnapshotRepository;
+import com.example.inventoryservice.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "inventory.movements.snapshot-interval-millis=3600000")
+@ActiveProfiles("test")
+class InventoryMovementServiceTest {
+
+    @Autowired
+    private InventoryMovementService movementService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryShardRepository shardRepository;
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    @Autowired
+    private InventorySnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+        shardRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        movementRepository.deleteAll();
+        snapshotRepository.deleteAll();
+    }
+
+    @Test
+    void testStockChangesAreLoggedAndReplayed() {
+        inventoryService.addInventory(new InventoryRequest(1L, 100, "Warehouse A"));
+        inventoryService.reserveStock(1L, 30);
+        inventoryService.releaseStock(1L, 10);
+        inventoryService.reserveBatch(Arrays.asList(new ReservationItem(1L, 5)));
+        ReservationResponse reservation = reservationService.reserve(new ReservationRequest(1L, 1L, 15, 60L));
+        reservationService.confirm(reservation.getId());
+        inventoryService.updateQuantity(1L, 120);
+        // Refused: nothing reaches the log.
+        assertNull(inventoryService.reserveStock(1L, 1000));
+
+        assertEquals(7, movementRepository.count());
+        assertMatchesTable(1L);
+    }
+
+    @Test
+    void testSnapshotPlusTail() {
+        inventoryService.addInventory(new InventoryRequest(1L, 50, null));
+        inventoryService.reserveStock(1L, 20);
+
+        // The first run only records how far the log reaches; the second snapshots up to there.
+        assertEquals(0, movementService.takeSnapshots());
+        inventoryService.releaseStock(1L, 5);
+        assertEquals(1, movementService.takeSnapshots());
+
+        assertEquals(2, movementRepository.findAll().stream()
+                .filter(movement -> movement.getId() <= snapshotRepository.findById(1L).orElseThrow().getLastMovementId())
+                .count());
+        assertEquals(20, snapshotRepository.findById(1L).orElseThrow().getReserved());
+        inventoryService.reserveStock(1L, 4);
+        assertMatchesTable(1L);
+    }
+
+    @Test
+    void testRebuildRestoresInventoryTable() {
+        inventoryService.addInventory(new InventoryRequest(1L, 100, null));
+        inventoryService.addInventory(new InventoryRequest(2L, 80, null));
+        inventoryService.shardInventory(2L, 4);
+        inventoryService.reserveStock(1L, 30);
+        inventoryService.reserveStock(2L, 25);
+        movementService.takeSnapshots();
+        movementService.takeSnapshots();
+        inventoryService.releaseStock(1L, 10);
+        inventoryService.updateQuantity(2L, 90);
+
+        jdbcTemplate.update("UPDATE inventory SET quantity = 0, reserved = 0 WHERE product_id = 1");
+        jdbcTemplate.update("UPDATE inventory_shards SET quantity = 0, reserved = 0 WHERE product_id = 2");
+        ReplayResponse fromSnapshots = movementService.rebuild(true);
+
+        assertEquals(2, fromSnapshots.getProducts());
+        assertEquals(2, fromSnapshots.getEvents());
+        assertEquals(100, inventoryService.getInventoryByProductId(1L).orElseThrow().getQuantity());
+        assertEquals(20, inventoryService.getInventoryByProductId(1L).orElseThrow().getReserved());
+        assertEquals(90, inventoryService.getInventoryByProductId(2L).orElseThrow().getQuantity());
+        assertEquals(25, inventoryService.getInventoryByProductId(2L).orElseThrow().getReserved());
+
+        jdbcTemplate.update("DELETE FROM inventory WHERE product_id = 1");
+        ReplayResponse full = movementService.rebuild(false);
+
+        assertEquals(6, full.getEvents());
+        assertEquals(80, inventoryService.getInventoryByProductId(1L).orElseThrow().getAvailable());
+        assertEquals(65, inventoryService.getInventoryByProductId(2L).orElseThrow().getAvailable());
+        assertTrue(inventoryService.checkAvailability(1L, 80));
+    }
+
+    @Test
+    void testOpeningBalanceForProductsWithoutHistory() {
+        InventoryItem item = new InventoryItem();
+        item.setProductId(3L);
+        item.setQuantity(40);
+        item.setReserved(6);
+        inventoryRepository.save(item);
+
+        movementService.recordOpeningBalances();
+        movementService.recordOpeningBalances();
+        inventoryService.reserveStock(3L, 4);
+
+        assertEquals(1, movementRepository.findAll().stream()
+                .filter(movement -> movement.getType() == MovementType.OPENING)
+                .count());
+        assertMatchesTable(3L);
+    }
+
+    @Test
+    void testRolledBackChangesAreNotLogged() {
+        inventoryService.addInventory(new InventoryRequest(1L, 10, null));
+
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            inventoryService.reserveStock(1L, 5);
+            throw new IllegalStateException("rollback");
+        }));
+
+        assertEquals(1, movementRepository.count());
+        assertMatchesTable(1L);
+    }
+
+    private void assertMatchesTable(Long productId) {
+        InventoryStateResponse state = movementService.loadState(productId).orElseThrow();
+        InventoryItem item = inventoryRepository.findByProductId(productId).orElseThrow();
+        assertEquals(item.getQuantity(), state.getQuantity());
+        assertEquals(item.getReserved(), state.getReserved());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.InventoryServiceApplication;
+import com.example.inventoryservice.dto.ReplayResponse;
+import com.example.inventoryservice.entity.MovementType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for {@link InventoryMovementService#rebuild} to replay the movement log into
+ * the inventory table: one million entries spread over ten thousand products, replayed
+ * from scratch on every invocation. Run the {@link #main} method from the test classpath.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryReplayBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int EVENTS = 1_000_000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final String INSERT_SQL =
+            "INSERT INTO inventory_movements (product_id, type, quantity, reserved, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    ConfigurableApplicationContext context;
+    InventoryMovementService movementService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(InventoryServiceApplication.class)
+                .profiles("test")
+                // Passed as arguments: default properties would rank below the application yml files.
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:replay;DB_CLOSE_DELAY=-1",
+                        "--inventory.movements.snapshot-interval-millis=3600000");
+        movementService = context.getBean(InventoryMovementService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < EVENTS; i++) {
+            long productId = i % PRODUCTS + 1;
+            MovementType type;
+            if (i < PRODUCTS) {
+                type = MovementType.RECEIPT;
+            } else {
+                type = i % 2 == 0 ? MovementType.RESERVATION : MovementType.RELEASE;
+            }
+            rows.add(new Object[] {productId, type.name(), type == MovementType.RECEIPT ? 1_000_000 : 3, 0, now});
+            if (rows.size() == INSERT_BATCH) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                rows.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ReplayResponse replay() {
+        ReplayResponse response = movementService.rebuild(false);
+        if (response == null || response.getEvents() != EVENTS) {
+            throw new IllegalStateException("Replay did not cover the whole log: " + response);
+        }
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InventoryReplayBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryServiceConcurrencyTest {
+
+    private static final int STOCK = 500;
+    private static final int ATTEMPTS = 4000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @AfterEach
+    void cleanUp() {
+        inventoryRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentReservationsDoNotOversell() throws Exception {
+        InventoryItem item = new InventoryItem();
+        item.setProductId(42L);
+        item.setQuantity(STOCK);
+        item.setReserved(0);
+        inventoryRepository.save(item);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (inventoryService.reserveStock(42L, 1) != null) {
+                        succeeded.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        InventoryItem reloaded = inventoryRepository.findByProductId(42L).orElseThrow();
+        assertEquals(STOCK, succeeded.get());
+        assertEquals(ATTEMPTS - STOCK, rejected.get());
+        assertEquals(STOCK, reloaded.getReserved());
+        assertEquals(0, reloaded.getAvailable());
+    }
+
+    @Test
+    void testConcurrentReserveAndReleaseKeepCountersConsistent() throws Exception {
+        InventoryItem item = new InventoryItem();
+        item.setProductId(43L);
+        item.setQuantity(STOCK);
+        item.setReserved(0);
+        inventoryRepository.save(item);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (inventoryService.reserveStock(43L, 2) != null) {
+                        inventoryService.releaseStock(43L, 2);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        InventoryItem reloaded = inventoryRepository.findByProductId(43L).orElseThrow();
+        assertEquals(0, reloaded.getReserved());
+        assertEquals(STOCK, reloaded.getAvailable());
+    }
+}
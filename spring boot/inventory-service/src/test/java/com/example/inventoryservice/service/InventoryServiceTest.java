@@ -1,20 +1,34 @@
 package com.example.inventoryservice.service;
 
+import com.example.inventoryservice.dto.BatchAvailabilityResponse;
+import com.example.inventoryservice.dto.BatchReservationResponse;
 import com.example.inventoryservice.dto.InventoryRequest;
 import com.example.inventoryservice.dto.InventoryResponse;
+import com.example.inventoryservice.dto.ReservationItem;
+import com.example.inventoryservice.dto.ReservationResult;
 import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.entity.InventoryShard;
+import com.example.inventoryservice.entity.MovementType;
 import com.example.inventoryservice.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,9 +36,32 @@ public class InventoryServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Mock
+    private HotSkuReservationEngine hotSkuEngine;
+
+    @Mock
+    private ShardedStockService shardedStock;
+
+    @Mock
+    private InventoryMovementLog movementLog;
+
+    @Mock
+    private LowStockMonitor lowStockMonitor;
+
+    @Mock
+    private WarehouseStockService warehouseStockService;
+
     @InjectMocks
     private InventoryService inventoryService;
 
+    @BeforeEach
+    public void setUp() {
+        lenient().when(shardedStock.view(any(InventoryItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(shardedStock.views(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        ReflectionTestUtils.setField(inventoryService, "maxShards", 64);
+        ReflectionTestUtils.setField(inventoryService, "availabilityCache", new AvailabilityCache(1000));
+    }
+
     @Test
     public void testAddInventory() {
         InventoryRequest request = new InventoryRequest(1L, 100, "Warehouse A");
@@ -46,6 +83,7 @@ public class InventoryServiceTest {
         assertEquals(1L, response.getProductId());
         assertEquals(100, response.getQuantity());
         verify(inventoryRepository, times(1)).save(any(InventoryItem.class));
+        verify(warehouseStockService).receive(1L, "Warehouse A", 100);
     }
 
     @Test
@@ -65,25 +103,168 @@ public class InventoryServiceTest {
         verify(inventoryRepository, times(1)).findByProductId(1L);
     }
 
+    @Test
+    public void testGetInventoryPage() {
+        InventoryItem item = new InventoryItem();
+        item.setId(5L);
+        item.setProductId(11L);
+        item.setQuantity(10);
+        item.setReserved(4);
+
+        when(inventoryRepository.findByProductIdGreaterThanOrderByProductIdAsc(10L, Limit.of(2)))
+                .thenReturn(Arrays.asList(item));
+
+        List<InventoryResponse> page = inventoryService.getInventoryPage(10L, 2);
+
+        assertEquals(1, page.size());
+        assertEquals(11L, page.get(0).getProductId());
+        assertEquals(6, page.get(0).getAvailable());
+    }
+
     @Test
     public void testReserveStock() {
         InventoryItem item = new InventoryItem();
         item.setId(1L);
         item.setProductId(1L);
         item.setQuantity(100);
-        item.setReserved(0);
+        item.setReserved(30);
         item.setCreatedAt(LocalDateTime.now());
         item.setUpdatedAt(LocalDateTime.now());
 
+        when(shardedStock.reserveStock(1L, 30)).thenReturn(true);
         when(inventoryRepository.findByProductId(1L)).thenReturn(Optional.of(item));
-        when(inventoryRepository.save(any(InventoryItem.class))).thenReturn(item);
 
         InventoryResponse response = inventoryService.reserveStock(1L, 30);
 
         assertNotNull(response);
         assertEquals(70, response.getAvailable());
-        verify(inventoryRepository, times(1)).findByProductId(1L);
-        verify(inventoryRepository, times(1)).save(any(InventoryItem.class));
+        verify(shardedStock, times(1)).reserveStock(1L, 30);
+        verify(movementLog, times(1)).record(1L, MovementType.RESERVATION, 30);
+        verify(inventoryRepository, never()).save(any(InventoryItem.class));
+    }
+
+    @Test
+    public void testReserveStock_InsufficientStock() {
+        when(shardedStock.reserveStock(1L, 30)).thenReturn(false);
+
+        InventoryResponse response = inventoryService.reserveStock(1L, 30);
+
+        assertNull(response);
+        verify(inventoryRepository, never()).findByProductId(anyLong());
+        verifyNoInteractions(movementLog);
+    }
+
+    @Test
+    public void testReleaseStock() {
+        InventoryItem item = new InventoryItem();
+        item.setId(1L);
+        item.setProductId(1L);
+        item.setQuantity(100);
+        item.setReserved(0);
+
+        when(shardedStock.releaseStock(1L, 30)).thenReturn(true);
+        when(inventoryRepository.findByProductId(1L)).thenReturn(Optional.of(item));
+
+        InventoryResponse response = inventoryService.releaseStock(1L, 30);
+
+        assertNotNull(response);
+        assertEquals(100, response.getAvailable());
+        verify(shardedStock, times(1)).releaseStock(1L, 30);
+    }
+
+    @Test
+    public void testUpdateQuantity_NotFound() {
+        when(shardedStock.updateQuantity(999L, 10)).thenReturn(false);
+
+        InventoryResponse response = inventoryService.updateQuantity(999L, 10);
+
+        assertNull(response);
+        verify(inventoryRepository, never()).findByProductId(anyLong());
+    }
+
+    @Test
+    public void testReserveBatch() {
+        InventoryItem item1 = new InventoryItem();
+        item1.setProductId(1L);
+        item1.setQuantity(100);
+        item1.setReserved(0);
+        InventoryItem item2 = new InventoryItem();
+        item2.setProductId(2L);
+        item2.setQuantity(10);
+        item2.setReserved(5);
+
+        when(inventoryRepository.lockByProductIdIn(any())).thenReturn(Arrays.asList(item1, item2));
+
+        BatchReservationResponse response = inventoryService.reserveBatch(Arrays.asList(
+                new ReservationItem(2L, 3), new ReservationItem(1L, 20), new ReservationItem(2L, 2)));
+
+        assertTrue(response.isReserved());
+        assertEquals(2, response.getItems().size());
+        assertEquals(1L, response.getItems().get(0).getProductId());
+        assertEquals(ReservationResult.RESERVED, response.getItems().get(1).getStatus());
+        assertEquals(5, response.getItems().get(1).getRequested());
+        assertEquals(20, item1.getReserved());
+        assertEquals(10, item2.getReserved());
+    }
+
+    @Test
+    public void testReserveBatch_AllOrNothing() {
+        InventoryItem item1 = new InventoryItem();
+        item1.setProductId(1L);
+        item1.setQuantity(100);
+        item1.setReserved(0);
+        InventoryItem item2 = new InventoryItem();
+        item2.setProductId(2L);
+        item2.setQuantity(10);
+        item2.setReserved(8);
+
+        when(inventoryRepository.lockByProductIdIn(any())).thenReturn(Arrays.asList(item1, item2));
+
+        BatchReservationResponse response = inventoryService.reserveBatch(Arrays.asList(
+                new ReservationItem(1L, 20), new ReservationItem(2L, 5), new ReservationItem(3L, 1)));
+
+        assertFalse(response.isReserved());
+        assertEquals(ReservationResult.AVAILABLE, response.getItems().get(0).getStatus());
+        assertEquals(ReservationResult.INSUFFICIENT_STOCK, response.getItems().get(1).getStatus());
+        assertEquals(ReservationResult.NOT_FOUND, response.getItems().get(2).getStatus());
+        assertEquals(0, item1.getReserved());
+        assertEquals(8, item2.getReserved());
+    }
+
+    @Test
+    public void testReserveBatch_ShardedProduct() {
+        InventoryItem item = new InventoryItem();
+        item.setProductId(1L);
+        item.setQuantity(0);
+        item.setReserved(0);
+        item.setShardCount(2);
+        InventoryShard shard0 = new InventoryShard(1L, 1L, 0, 10, 8, null);
+        InventoryShard shard1 = new InventoryShard(2L, 1L, 1, 10, 0, null);
+
+        when(inventoryRepository.lockByProductIdIn(any())).thenReturn(Arrays.asList(item));
+        when(shardedStock.lockShards(1L)).thenReturn(Arrays.asList(shard0, shard1));
+        when(shardedStock.view(item)).thenAnswer(invocation -> {
+            InventoryItem view = new InventoryItem();
+            view.setProductId(1L);
+            view.setQuantity(20);
+            view.setReserved(8);
+            return view;
+        });
+
+        BatchReservationResponse response = inventoryService.reserveBatch(Arrays.asList(new ReservationItem(1L, 11)));
+
+        assertTrue(response.isReserved());
+        assertEquals(1, response.getItems().get(0).getAvailable());
+        assertEquals(19, shard0.getReserved() + shard1.getReserved());
+        assertEquals(0, item.getReserved());
+    }
+
+    @Test
+    public void testShardInventory_RejectsHotSku() {
+        when(hotSkuEngine.isHot(1L)).thenReturn(true);
+
+        assertNull(inventoryService.shardInventory(1L, 4));
+        verify(shardedStock, never()).shard(anyLong(), anyInt());
     }
 
     @Test
@@ -113,4 +294,55 @@ public class InventoryServiceTest {
         assertFalse(available);
         verify(inventoryRepository, times(1)).findByProductId(1L);
     }
+
+    @Test
+    public void testCheckAvailability_ServedFromCacheUntilStockChanges() {
+        InventoryItem item = new InventoryItem();
+        item.setProductId(1L);
+        item.setQuantity(100);
+        item.setReserved(0);
+
+        when(inventoryRepository.findByProductId(1L)).thenReturn(Optional.of(item));
+        when(shardedStock.reserveStock(1L, 60)).thenReturn(true);
+
+        assertTrue(inventoryService.checkAvailability(1L, 50));
+        assertTrue(inventoryService.checkAvailability(1L, 100));
+        verify(inventoryRepository, times(1)).findByProductId(1L);
+
+        inventoryService.reserveStock(1L, 60);
+        item.setReserved(60);
+
+        assertFalse(inventoryService.checkAvailability(1L, 50));
+        assertTrue(inventoryService.checkAvailability(1L, 40));
+    }
+
+    @Test
+    public void testCheckAvailabilityBatch() {
+        InventoryItem first = new InventoryItem();
+        first.setProductId(1L);
+        first.setQuantity(100);
+        first.setReserved(0);
+        InventoryItem second = new InventoryItem();
+        second.setProductId(2L);
+        second.setQuantity(10);
+        second.setReserved(5);
+
+        when(inventoryRepository.findByProductIdIn(Set.of(1L, 2L, 3L))).thenReturn(Arrays.asList(first, second));
+
+        BatchAvailabilityResponse response = inventoryService.checkAvailabilityBatch(Arrays.asList(
+                new ReservationItem(2L, 3), new ReservationItem(1L, 20), new ReservationItem(3L, 1),
+                new ReservationItem(2L, 3)));
+
+        assertFalse(response.isAvailable());
+        assertEquals(3, response.getItems().size());
+        assertEquals(ReservationResult.AVAILABLE, response.getItems().get(0).getStatus());
+        assertEquals(ReservationResult.INSUFFICIENT_STOCK, response.getItems().get(1).getStatus());
+        assertEquals(6, response.getItems().get(1).getRequested());
+        assertEquals(ReservationResult.NOT_FOUND, response.getItems().get(2).getStatus());
+
+        // Both existing products are cached now; only the unknown one is looked up again.
+        inventoryService.checkAvailabilityBatch(Arrays.asList(new ReservationItem(1L, 1), new ReservationItem(3L, 1)));
+        verify(inventoryRepository, times(1)).findByProductIdIn(Set.of(1L, 2L, 3L));
+        verify(inventoryRepository, times(1)).findByProductIdIn(Set.of(3L));
+    }
 }
@@ -0,0 +1,117 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.InventoryResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streams a million-row inventory table and checks that the heap in use while doing
+ * so stays within a small, fixed budget. Holding the same rows as a list of responses
+ * would take several hundred megabytes.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:streaming;DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1")
+@ActiveProfiles("test")
+class InventoryStreamingTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int SAMPLE_EVERY = 100_000;
+    private static final long HEAP_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for (long productId = 1; productId <= ROWS; productId++) {
+            rows.add(new Object[] {productId, 100, (int) (productId % 7), "Warehouse A", now, now});
+            if (rows.size() == INSERT_BATCH) {
+                jdbcTemplate.batchUpdate("INSERT INTO inventory (product_id, quantity, reserved, warehouse, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM inventory");
+    }
+
+    @Test
+    void testStreamingMillionRowsKeepsHeapBounded() {
+        long baseline = usedHeapAfterGc();
+        HeapSamplingStream out = new HeapSamplingStream();
+
+        long written = inventoryService.streamInventory(0L, out);
+
+        assertEquals(ROWS, written);
+        assertEquals(ROWS, out.lines);
+        assertTrue(out.maxUsedHeap - baseline < HEAP_BUDGET_BYTES,
+                "heap grew by " + (out.maxUsedHeap - baseline) / (1024 * 1024) + " MB while streaming");
+    }
+
+    @Test
+    void testStreamResumesAfterCursor() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = inventoryService.streamInventory((long) ROWS - 2, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(2, lines.length);
+        InventoryResponse last = objectMapper.readValue(lines[1], InventoryResponse.class);
+        assertEquals(ROWS, last.getProductId());
+        assertEquals(100 - ROWS % 7, last.getAvailable());
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Discards the output, counting lines and sampling the live heap as it goes.
+    private static final class HeapSamplingStream extends OutputStream {
+        private long lines;
+        private long maxUsedHeap;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % SAMPLE_EVERY == 0) {
+                maxUsedHeap = Math.max(maxUsedHeap, usedHeapAfterGc());
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.inventoryservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void testPutGetAndRemove() {
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        map.put(1L, 10);
+        map.put(0L, 7);
+        map.put(-5L, 3);
+        map.put(1L, 11);
+
+        assertEquals(3, map.size());
+        assertEquals(11, map.get(1L));
+        assertEquals(7, map.get(0L));
+        assertEquals(3, map.get(-5L));
+        assertEquals(LongIntHashMap.MISSING, map.get(2L));
+
+        assertTrue(map.remove(1L));
+        assertFalse(map.remove(1L));
+        assertTrue(map.remove(0L));
+        assertEquals(LongIntHashMap.MISSING, map.get(1L));
+        assertEquals(LongIntHashMap.MISSING, map.get(0L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomOperations() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                int value = random.nextInt();
+                expected.put(key, value);
+                map.put(key, value);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 5_000; key++) {
+            assertEquals(expected.getOrDefault(key, LongIntHashMap.MISSING), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.InventoryRequest;
+import com.example.inventoryservice.dto.LowStockEvent;
+import com.example.inventoryservice.dto.LowStockResponse;
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.dto.ReservationResponse;
+import com.example.inventoryservice.repository.InventoryMovementRepository;
+import com.example.inventoryservice.repository.InventoryRepository;
+import com.example.inventoryservice.repository.InventoryShardRepository;
+import com.example.inventoryservice.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "inventory.low-stock.drain-interval-millis=3600000",
+        "inventory.movements.snapshot-interval-millis=3600000"
+})
+@ActiveProfiles("test")
+class LowStockMonitorTest {
+
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryShardRepository shardRepository;
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+        shardRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        movementRepository.deleteAll();
+        lowStockMonitor.stockReplaced();
+        lowStockMonitor.drain(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void testCrossingsAreQueuedAndIndexed() {
+        inventoryService.addInventory(new InventoryRequest(1L, 100, "Warehouse A"));
+        inventoryService.addInventory(new InventoryRequest(2L, 100, "Warehouse A"));
+        inventoryService.setLowStockThreshold(1L, 20);
+        inventoryService.setLowStockThreshold(2L, 20);
+        assertTrue(lowStockMonitor.drain(10).isEmpty());
+
+        inventoryService.reserveStock(1L, 70);
+        assertTrue(lowStockMonitor.drain(10).isEmpty());
+        inventoryService.reserveStock(1L, 15);
+        inventoryService.reserveStock(1L, 5);
+
+        List<LowStockEvent> events = lowStockMonitor.drain(10);
+        assertEquals(1, events.size());
+        assertEquals(LowStockEvent.BELOW_THRESHOLD, events.get(0).getType());
+        assertEquals(15, events.get(0).getAvailable());
+
+        List<LowStockResponse> below = inventoryService.getLowStock(0L, 10);
+        assertEquals(1, below.size());
+        assertEquals(1L, below.get(0).getProductId());
+        assertEquals(10, below.get(0).getAvailable());
+
+        inventoryService.releaseStock(1L, 50);
+        events = lowStockMonitor.drain(10);
+        assertEquals(1, events.size());
+        assertEquals(LowStockEvent.RECOVERED, events.get(0).getType());
+        assertTrue(inventoryService.getLowStock(0L, 10).isEmpty());
+    }
+
+    @Test
+    void testThresholdChangesReevaluate() {
+        inventoryService.addInventory(new InventoryRequest(3L, 10, "Warehouse A"));
+        assertNotNull(inventoryService.setLowStockThreshold(3L, 50));
+        assertEquals(1, inventoryService.getLowStock(0L, 10).size());
+        assertEquals(LowStockEvent.BELOW_THRESHOLD, lowStockMonitor.drain(10).get(0).getType());
+
+        inventoryService.setLowStockThreshold(3L, null);
+        assertTrue(inventoryService.getLowStock(0L, 10).isEmpty());
+        inventoryService.reserveStock(3L, 5);
+        assertTrue(lowStockMonitor.drain(10).isEmpty());
+
+        assertNull(inventoryService.setLowStockThreshold(999L, 5));
+    }
+
+    @Test
+    void testShardedReservationsCrossThreshold() {
+        inventoryService.addInventory(new InventoryRequest(4L, 40, "Warehouse A"));
+        inventoryService.shardInventory(4L, 4);
+        inventoryService.setLowStockThreshold(4L, 25);
+
+        ReservationResponse reservation = reservationService.reserve(new ReservationRequest(4L, 1L, 20, 60L));
+        List<LowStockResponse> below = inventoryService.getLowStock(0L, 10);
+        assertEquals(1, below.size());
+        assertEquals(20, below.get(0).getAvailable());
+
+        reservationService.release(reservation.getId());
+        assertTrue(inventoryService.getLowStock(0L, 10).isEmpty());
+
+        List<LowStockEvent> events = lowStockMonitor.drain(10);
+        assertEquals(2, events.size());
+        assertEquals(LowStockEvent.BELOW_THRESHOLD, events.get(0).getType());
+        assertEquals(LowStockEvent.RECOVERED, events.get(1).getType());
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.dto.ReservationResponse;
+import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.entity.Reservation;
+import com.example.inventoryservice.entity.ReservationStatus;
+import com.example.inventoryservice.repository.InventoryRepository;
+import com.example.inventoryservice.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The tests drive the timing wheel's clock themselves rather than waiting for the scheduler.
+@SpringBootTest(properties = {
+        "inventory.reservation.tick-millis=10",
+        "inventory.reservation.expiry-interval-millis=3600000"
+})
+@ActiveProfiles("test")
+class ReservationServiceTest {
+
+    // The wheel never moves back, so each test advances it past wherever an earlier one left it.
+    private static long wheelMillis;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        InventoryItem item = new InventoryItem();
+        item.setProductId(1L);
+        item.setQuantity(10);
+        item.setReserved(0);
+        inventoryRepository.save(item);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+        inventoryRepository.deleteAll();
+    }
+
+    @Test
+    void testReserveCreatesLedgerEntry() {
+        ReservationResponse response = reservationService.reserve(new ReservationRequest(1L, 100L, 4, 60L));
+
+        assertNotNull(response);
+        assertEquals("ACTIVE", response.getStatus());
+        assertEquals(4, inventoryRepository.findByProductId(1L).orElseThrow().getReserved());
+        assertEquals(1, reservationService.getReservationsByOrderId(100L).size());
+    }
+
+    @Test
+    void testReserveInsufficientStock() {
+        assertNull(reservationService.reserve(new ReservationRequest(1L, 100L, 11, 60L)));
+        assertTrue(reservationRepository.findByOrderId(100L).isEmpty());
+    }
+
+    @Test
+    void testExpiredReservationReleasesStock() {
+        ReservationResponse response = reservationService.reserve(new ReservationRequest(1L, 100L, 4, 1L));
+
+        reservationService.expireDueReservations(later(1_100));
+
+        assertEquals("EXPIRED", reservationService.getReservationById(response.getId()).orElseThrow().getStatus());
+        assertEquals(0, inventoryRepository.findByProductId(1L).orElseThrow().getReserved());
+    }
+
+    @Test
+    void testReleaseAndConfirmCancelTimers() {
+        int timersBefore = reservationService.pendingTimers();
+        ReservationResponse released = reservationService.reserve(new ReservationRequest(1L, 100L, 2, 60L));
+        ReservationResponse confirmed = reservationService.reserve(new ReservationRequest(1L, 100L, 3, 60L));
+
+        assertEquals("RELEASED", reservationService.release(released.getId()).getStatus());
+        assertEquals("CONFIRMED", reservationService.confirm(confirmed.getId()).getStatus());
+        assertEquals("RELEASED", reservationService.release(released.getId()).getStatus());
+
+        InventoryItem item = inventoryRepository.findByProductId(1L).orElseThrow();
+        assertEquals(7, item.getQuantity());
+        assertEquals(0, item.getReserved());
+        assertEquals(timersBefore, reservationService.pendingTimers());
+    }
+
+    @Test
+    void testConfirmWithoutReservedStockLeavesReservationActive() {
+        ReservationResponse reservation = reservationService.reserve(new ReservationRequest(1L, 100L, 4, 60L));
+        // The row's reserved units were given back behind the reservation's back.
+        InventoryItem item = inventoryRepository.findByProductId(1L).orElseThrow();
+        item.setReserved(0);
+        inventoryRepository.save(item);
+
+        assertEquals("ACTIVE", reservationService.confirm(reservation.getId()).getStatus());
+
+        assertEquals("ACTIVE", reservationService.getReservationById(reservation.getId()).orElseThrow().getStatus());
+        item = inventoryRepository.findByProductId(1L).orElseThrow();
+        assertEquals(10, item.getQuantity());
+        assertEquals(0, item.getReserved());
+    }
+
+    @Test
+    void testConfirmOrderIsAllOrNothing() {
+        InventoryItem other = new InventoryItem();
+        other.setProductId(2L);
+        other.setQuantity(10);
+        other.setReserved(0);
+        inventoryRepository.save(other);
+        ReservationResponse first = reservationService.reserve(new ReservationRequest(1L, 200L, 3, 60L));
+        ReservationResponse second = reservationService.reserve(new ReservationRequest(2L, 200L, 2, 60L));
+        other = inventoryRepository.findByProductId(2L).orElseThrow();
+        other.setReserved(0);
+        inventoryRepository.save(other);
+
+        List<ReservationResponse> blocked = reservationService.confirmOrder(200L);
+
+        // Product 1 was committed first and is rolled back with the rest.
+        assertEquals(List.of(second.getId()), blocked.stream().map(ReservationResponse::getId).toList());
+        assertTrue(reservationService.getReservationsByOrderId(200L).stream()
+                .allMatch(reservation -> reservation.getStatus().equals("ACTIVE")));
+        InventoryItem item = inventoryRepository.findByProductId(1L).orElseThrow();
+        assertEquals(10, item.getQuantity());
+        assertEquals(3, item.getReserved());
+
+        other = inventoryRepository.findByProductId(2L).orElseThrow();
+        other.setReserved(2);
+        inventoryRepository.save(other);
+        assertTrue(reservationService.confirmOrder(200L).stream()
+                .allMatch(reservation -> reservation.getStatus().equals("CONFIRMED")));
+        assertEquals(7, inventoryRepository.findByProductId(1L).orElseThrow().getQuantity());
+        assertEquals(8, inventoryRepository.findByProductId(2L).orElseThrow().getQuantity());
+        assertEquals(first.getId(), reservationService.confirmOrder(200L).get(0).getId());
+    }
+
+    @Test
+    void testRebuildSchedulesActiveReservations() {
+        InventoryItem item = inventoryRepository.findByProductId(1L).orElseThrow();
+        item.setReserved(3);
+        inventoryRepository.save(item);
+        Reservation reservation = new Reservation();
+        reservation.setProductId(1L);
+        reservation.setOrderId(200L);
+        reservation.setQuantity(3);
+        reservation.setStatus(ReservationStatus.ACTIVE);
+        reservation.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        reservation = reservationRepository.save(reservation);
+        int timersBefore = reservationService.pendingTimers();
+
+        reservationService.rebuildTimingWheel();
+        assertEquals(timersBefore + 1, reservationService.pendingTimers());
+        // A deadline already past fires on the wheel's next tick.
+        reservationService.expireDueReservations(later(20));
+
+        assertEquals(ReservationStatus.EXPIRED, reservationRepository.findById(reservation.getId()).orElseThrow().getStatus());
+        assertEquals(0, inventoryRepository.findByProductId(1L).orElseThrow().getReserved());
+    }
+
+    private static long later(long millis) {
+        wheelMillis = Math.max(wheelMillis, System.currentTimeMillis()) + millis;
+        return wheelMillis;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.InventoryServiceApplication;
+import com.example.inventoryservice.dto.InventoryResponse;
+import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.repository.InventoryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservation throughput on one SKU kept in a single inventory row against the same
+ * SKU split into shards, at increasing numbers of concurrent writers. Each reservation
+ * keeps its transaction open for {@code LOCK_HOLD_MILLIS} after the UPDATE, standing in
+ * for the round trips to a networked database that hold the row lock in production;
+ * the in-process H2 has none. Run the {@link #main} method from the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShardedInventoryContentionBenchmark {
+
+    private static final long SINGLE_ROW_PRODUCT = 1L;
+    private static final long SHARDED_PRODUCT = 2L;
+    private static final int SHARDS = 16;
+    private static final long LOCK_HOLD_MILLIS = 1;
+    private static final int[] WRITERS = {1, 8, 32, 128};
+
+    ConfigurableApplicationContext context;
+    InventoryService inventoryService;
+    TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(InventoryServiceApplication.class)
+                .profiles("test")
+                // Passed as arguments: default properties would rank below the application yml files.
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:contention;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+                        "--spring.datasource.hikari.maximum-pool-size=160");
+        inventoryService = context.getBean(InventoryService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        for (long productId : new long[] {SINGLE_ROW_PRODUCT, SHARDED_PRODUCT}) {
+            InventoryItem item = new InventoryItem();
+            item.setProductId(productId);
+            item.setQuantity(Integer.MAX_VALUE);
+            item.setReserved(0);
+            context.getBean(InventoryRepository.class).save(item);
+        }
+        if (inventoryService.shardInventory(SHARDED_PRODUCT, SHARDS) == null) {
+            throw new IllegalStateException("Product " + SHARDED_PRODUCT + " could not be sharded");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public InventoryResponse singleRow() {
+        return reserve(SINGLE_ROW_PRODUCT);
+    }
+
+    @Benchmark
+    public InventoryResponse sharded() {
+        return reserve(SHARDED_PRODUCT);
+    }
+
+    private InventoryResponse reserve(long productId) {
+        return transactionTemplate.execute(status -> {
+            InventoryResponse response = inventoryService.reserveStock(productId, 1);
+            if (response == null) {
+                throw new IllegalStateException("Reservation on product " + productId + " failed");
+            }
+            holdLock();
+            return response;
+        });
+    }
+
+    private static void holdLock() {
+        try {
+            Thread.sleep(LOCK_HOLD_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // JMH has no thread-count parameter, so each writer count is its own run.
+    public static void main(String[] args) throws RunnerException {
+        for (int writers : WRITERS) {
+            new Runner(new OptionsBuilder()
+                    .include(ShardedInventoryContentionBenchmark.class.getSimpleName())
+                    .threads(writers)
+                    .build()).run();
+        }
+    }
+}
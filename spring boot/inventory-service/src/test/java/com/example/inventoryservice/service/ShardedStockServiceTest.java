@@ -0,0 +1,230 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.InventoryResponse;
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.dto.ReservationResponse;
+import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.entity.InventoryShard;
+import com.example.inventoryservice.repository.InventoryRepository;
+import com.example.inventoryservice.repository.InventoryShardRepository;
+import com.example.inventoryservice.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ShardedStockServiceTest {
+
+    @Autowired
+    private ShardedStockService shardedStock;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @SpyBean
+    private InventoryShardRepository shardRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        InventoryItem item = new InventoryItem();
+        item.setProductId(7L);
+        item.setQuantity(103);
+        item.setReserved(3);
+        inventoryRepository.save(item);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+        shardRepository.deleteAll();
+        inventoryRepository.deleteAll();
+    }
+
+    @Test
+    void testShardingKeepsTotals() {
+        InventoryResponse response = inventoryService.shardInventory(7L, 4);
+
+        assertEquals(103, response.getQuantity());
+        assertEquals(3, response.getReserved());
+        assertEquals(4, shardRepository.findByProductIdOrderByShardIndexAsc(7L).size());
+        InventoryItem row = inventoryRepository.findByProductId(7L).orElseThrow();
+        assertEquals(4, row.getShardCount());
+        assertEquals(0, row.getQuantity());
+        assertEquals(100, inventoryService.getInventoryByProductId(7L).orElseThrow().getAvailable());
+        assertNull(inventoryService.shardInventory(7L, 8));
+    }
+
+    @Test
+    void testReserveSpansShardsWhenNoSingleShardFits() {
+        inventoryService.shardInventory(7L, 4);
+
+        assertNotNull(inventoryService.reserveStock(7L, 60));
+        assertNull(inventoryService.reserveStock(7L, 41));
+        InventoryResponse response = inventoryService.reserveStock(7L, 40);
+
+        assertNotNull(response);
+        assertEquals(0, response.getAvailable());
+        assertEquals(103, response.getReserved());
+    }
+
+    @Test
+    void testReserveFallsBackToAllShardsAfterLosingTheRace() {
+        inventoryService.shardInventory(7L, 4);
+        // Every fitting shard behaves as if other reservations hold it.
+        doReturn(null).when(shardRepository).claimFittingShard(eq(7L), anyInt(), anyInt());
+
+        InventoryResponse response = inventoryService.reserveStock(7L, 10);
+
+        assertNotNull(response);
+        assertEquals(90, response.getAvailable());
+        assertEquals(13, response.getReserved());
+    }
+
+    @Test
+    void testReleaseCommitAndUpdateOnShards() {
+        inventoryService.shardInventory(7L, 4);
+        ReservationResponse reservation = reservationService.reserve(new ReservationRequest(7L, 1L, 50, null));
+        assertNotNull(reservation);
+
+        reservationService.confirm(reservation.getId());
+        InventoryResponse afterConfirm = inventoryService.getInventoryByProductId(7L).orElseThrow();
+        assertEquals(53, afterConfirm.getQuantity());
+        assertEquals(3, afterConfirm.getReserved());
+
+        assertEquals(0, inventoryService.releaseStock(7L, 10).getReserved());
+        InventoryResponse updated = inventoryService.updateQuantity(7L, 20);
+        assertEquals(20, updated.getQuantity());
+        assertEquals(20, updated.getAvailable());
+    }
+
+    @Test
+    void testRebalanceEvensOutSkewedShards() {
+        inventoryService.shardInventory(7L, 4);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<InventoryShard> shards = shardRepository.lockByProductId(7L);
+            ShardedStockService.reserveLocked(shards, 25);
+            shards.get(1).setReserved(shards.get(1).getReserved() + 24);
+        });
+
+        shardedStock.rebalance();
+
+        List<InventoryShard> shards = shardRepository.findByProductIdOrderByShardIndexAsc(7L);
+        int min = shards.stream().mapToInt(InventoryShard::getAvailable).min().orElseThrow();
+        int max = shards.stream().mapToInt(InventoryShard::getAvailable).max().orElseThrow();
+        assertTrue(max - min <= 3, "available spread " + min + ".." + max);
+        assertEquals(51, ShardedStockService.available(shards));
+        assertEquals(52, shards.stream().mapToInt(InventoryShard::getReserved).sum());
+    }
+
+    @Test
+    void testConcurrentShardedReservationsDoNotOversell() throws Exception {
+        inventoryService.shardInventory(7L, 8);
+        int attempts = 400;
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < attempts; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (inventoryService.reserveStock(7L, 1) != null) {
+                        succeeded.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Reservations are only refused once every unit is taken.
+        InventoryResponse response = inventoryService.getInventoryByProductId(7L).orElseThrow();
+        assertEquals(100, succeeded.get());
+        assertEquals(100, succeeded.get() + response.getAvailable());
+        assertEquals(3 + succeeded.get(), response.getReserved());
+        assertNotNull(inventoryService.reserveStock(7L, response.getAvailable()));
+        assertEquals(0, inventoryService.getInventoryByProductId(7L).orElseThrow().getAvailable());
+        assertTrue(shardRepository.findByProductIdOrderByShardIndexAsc(7L).stream()
+                .allMatch(shard -> shard.getAvailable() == 0));
+    }
+
+    @Test
+    void testConcurrentReleasesAndCommitsStayWithinTheReservedUnits() throws Exception {
+        inventoryService.shardInventory(7L, 8);
+        assertNotNull(inventoryService.reserveStock(7L, 40));
+        int attempts = 200;
+        AtomicInteger committed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < attempts; i++) {
+                boolean commit = i % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (commit) {
+                        if (transactionTemplate.execute(status -> shardedStock.commitReservedStock(7L, 1))) {
+                            committed.incrementAndGet();
+                        }
+                    } else {
+                        inventoryService.releaseStock(7L, 1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Twice as many calls as reserved units: the extra ones find nothing left to take.
+        InventoryResponse response = inventoryService.getInventoryByProductId(7L).orElseThrow();
+        assertEquals(0, response.getReserved());
+        assertTrue(committed.get() > 0 && committed.get() <= 43, "committed " + committed.get());
+        assertEquals(103 - committed.get(), response.getQuantity());
+        assertTrue(shardRepository.findByProductIdOrderByShardIndexAsc(7L).stream()
+                .allMatch(shard -> shard.getReserved() == 0));
+    }
+}
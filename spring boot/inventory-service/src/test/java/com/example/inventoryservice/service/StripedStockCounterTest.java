@@ -0,0 +1,83 @@
+package com.example.inventoryservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedStockCounterTest {
+
+    @Test
+    void testInitialStockIsSpreadAcrossStripes() {
+        StripedStockCounter counter = new StripedStockCounter(8, 103);
+
+        assertEquals(103, counter.available());
+        assertTrue(counter.tryAcquire(103));
+        assertFalse(counter.tryAcquire(1));
+        assertEquals(0, counter.available());
+    }
+
+    @Test
+    void testAcquireSpanningStripesIsAllOrNothing() {
+        StripedStockCounter counter = new StripedStockCounter(4, 10);
+
+        assertFalse(counter.tryAcquire(11));
+        assertEquals(10, counter.available());
+        assertTrue(counter.tryAcquire(7));
+        assertEquals(3, counter.available());
+    }
+
+    @Test
+    void testNegativeAdjustmentBlocksAcquisition() {
+        StripedStockCounter counter = new StripedStockCounter(4, 4);
+        counter.add(-6);
+
+        assertEquals(-2, counter.available());
+        assertFalse(counter.tryAcquire(1));
+        counter.add(3);
+        assertTrue(counter.tryAcquire(1));
+    }
+
+    @Test
+    void testConcurrentAcquireNeverOversells() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(16, 10_000);
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int acquired = 0;
+                    for (int i = 0; i < 2_000; i++) {
+                        int amount = 1 + (i % 3);
+                        if (counter.tryAcquire(amount)) {
+                            acquired += amount;
+                        }
+                        if (i % 10 == 0 && counter.tryAcquire(1)) {
+                            counter.add(1);
+                        }
+                    }
+                    return acquired;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(10_000, total + counter.available());
+            assertTrue(counter.available() >= 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.inventoryservice.service;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocations per second on one core: five-line orders over 16 warehouses that each
+ * stock about 40% of the catalogue, planned by {@link WarehouseAllocator} with a
+ * single fork-join worker. {@code plan} times the allocator alone; {@code loadAndPlan}
+ * adds the warehouse stock query against H2, as {@link WarehouseStockService} runs it.
+ * Run the {@link #main} method from the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class WarehouseAllocationBenchmark {
+
+    private static final int PRODUCTS = 2000;
+    private static final int WAREHOUSES = 16;
+    private static final int LINES = 5;
+    private static final int ORDERS = 1024;
+    private static final String STOCK_SQL =
+            "SELECT product_id, warehouse, quantity FROM warehouse_stock WHERE product_id IN (?, ?, ?, ?, ?) AND quantity > 0";
+
+    @State(Scope.Thread)
+    public static class Orders {
+        JdbcDataSource dataSource;
+        Connection connection;
+        PreparedStatement stockQuery;
+        WarehouseAllocator allocator;
+        int[][] stock;
+        long[][] productIds;
+        int[][] demand;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            Random random = new Random(42);
+            stock = new int[WAREHOUSES][PRODUCTS];
+            for (int w = 0; w < WAREHOUSES; w++) {
+                for (int p = 0; p < PRODUCTS; p++) {
+                    stock[w][p] = random.nextDouble() < 0.4 ? 1 + random.nextInt(10) : 0;
+                }
+            }
+            productIds = new long[ORDERS][LINES];
+            demand = new int[ORDERS][LINES];
+            for (int o = 0; o < ORDERS; o++) {
+                int first = random.nextInt(PRODUCTS - LINES);
+                for (int i = 0; i < LINES; i++) {
+                    productIds[o][i] = first + i;
+                    demand[o][i] = 1 + random.nextInt(6);
+                }
+            }
+
+            dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:allocation");
+            connection = dataSource.getConnection();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE warehouse_stock (product_id BIGINT, warehouse VARCHAR(64), quantity INT, " +
+                        "PRIMARY KEY (product_id, warehouse))");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO warehouse_stock VALUES (?, ?, ?)")) {
+                for (int w = 0; w < WAREHOUSES; w++) {
+                    for (int p = 0; p < PRODUCTS; p++) {
+                        if (stock[w][p] > 0) {
+                            insert.setLong(1, p);
+                            insert.setString(2, "Warehouse " + w);
+                            insert.setInt(3, stock[w][p]);
+                            insert.addBatch();
+                        }
+                    }
+                }
+                insert.executeBatch();
+            }
+            stockQuery = connection.prepareStatement(STOCK_SQL);
+            allocator = new WarehouseAllocator(1, 50);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            allocator.shutdown();
+            connection.close();
+        }
+
+        int nextOrder() {
+            next = (next + 1) & (ORDERS - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public WarehouseAllocator.Plan plan(Orders orders) {
+        int order = orders.nextOrder();
+        int[][] stock = new int[WAREHOUSES][LINES];
+        for (int w = 0; w < WAREHOUSES; w++) {
+            for (int i = 0; i < LINES; i++) {
+                stock[w][i] = orders.stock[w][(int) orders.productIds[order][i]];
+            }
+        }
+        return orders.allocator.allocate(orders.demand[order], stock);
+    }
+
+    @Benchmark
+    public WarehouseAllocator.Plan loadAndPlan(Orders orders) throws SQLException {
+        int order = orders.nextOrder();
+        Map<Long, Integer> lineIndex = new HashMap<>();
+        for (int i = 0; i < LINES; i++) {
+            lineIndex.put(orders.productIds[order][i], i);
+            orders.stockQuery.setLong(i + 1, orders.productIds[order][i]);
+        }
+        Map<String, int[]> byWarehouse = new TreeMap<>();
+        try (ResultSet rs = orders.stockQuery.executeQuery()) {
+            while (rs.next()) {
+                byWarehouse.computeIfAbsent(rs.getString(2), name -> new int[LINES])
+                        [lineIndex.get(rs.getLong(1))] = rs.getInt(3);
+            }
+        }
+        return orders.allocator.allocate(orders.demand[order], byWarehouse.values().toArray(new int[0][]));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WarehouseAllocationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
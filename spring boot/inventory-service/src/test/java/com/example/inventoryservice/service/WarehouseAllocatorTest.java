@@ -0,0 +1,94 @@
+package com.example.inventoryservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarehouseAllocatorTest {
+
+    // Six single-unit lines. Greedy takes the four-line warehouse first and then needs
+    // two more; the two three-line warehouses alone cover the order.
+    private static final int[] DEMAND = {1, 1, 1, 1, 1, 1};
+    private static final int[][] GREEDY_TRAP = {
+            {1, 1, 1, 0, 0, 0},
+            {0, 0, 0, 1, 1, 1},
+            {1, 1, 0, 1, 1, 0}
+    };
+
+    private WarehouseAllocator allocator = new WarehouseAllocator(2, 1000);
+
+    @AfterEach
+    void tearDown() {
+        allocator.shutdown();
+    }
+
+    @Test
+    void testSearchBeatsGreedy() {
+        WarehouseAllocator.Plan plan = allocator.allocate(DEMAND, GREEDY_TRAP);
+
+        assertTrue(plan.isOptimal());
+        assertArrayEquals(new int[] {0, 1}, plan.getWarehouses());
+        assertFilled(DEMAND, GREEDY_TRAP, plan);
+    }
+
+    @Test
+    void testExhaustedBudgetFallsBackToGreedy() {
+        allocator.shutdown();
+        allocator = new WarehouseAllocator(1, 0);
+
+        WarehouseAllocator.Plan plan = allocator.allocate(DEMAND, GREEDY_TRAP);
+
+        assertFalse(plan.isOptimal());
+        assertEquals(3, plan.getWarehouses().length);
+        assertFilled(DEMAND, GREEDY_TRAP, plan);
+    }
+
+    @Test
+    void testLinesSplitAcrossWarehouses() {
+        int[] demand = {10, 4};
+        int[][] stock = {{6, 0}, {3, 4}, {5, 4}};
+
+        WarehouseAllocator.Plan plan = allocator.allocate(demand, stock);
+
+        assertEquals(2, plan.getWarehouses().length);
+        assertFilled(demand, stock, plan);
+        assertNull(allocator.allocate(new int[] {15, 0}, stock));
+    }
+
+    @Test
+    void testParallelSearchFindsMinimum() {
+        // Every warehouse holds half of one line, so four lines need exactly eight
+        // warehouses, and the decoys holding a little of everything never help.
+        int lines = 4;
+        int[] demand = new int[lines];
+        Arrays.fill(demand, 10);
+        int[][] stock = new int[WarehouseAllocator.PARALLEL_THRESHOLD + 8][lines];
+        for (int w = 0; w < 8; w++) {
+            stock[w][w % lines] = 5;
+        }
+        for (int w = 8; w < stock.length; w++) {
+            Arrays.fill(stock[w], 1);
+        }
+
+        WarehouseAllocator.Plan plan = allocator.allocate(demand, stock);
+
+        assertTrue(plan.isOptimal());
+        assertEquals(8, plan.getWarehouses().length);
+        assertFilled(demand, stock, plan);
+    }
+
+    private static void assertFilled(int[] demand, int[][] stock, WarehouseAllocator.Plan plan) {
+        for (int i = 0; i < demand.length; i++) {
+            int shipped = 0;
+            for (int j = 0; j < plan.getWarehouses().length; j++) {
+                int units = plan.getPicks()[j][i];
+                assertTrue(units <= stock[plan.getWarehouses()[j]][i]);
+                shipped += units;
+            }
+            assertEquals(demand[i], shipped);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.dto.AllocationResponse;
+import com.example.inventoryservice.dto.InventoryRequest;
+import com.example.inventoryservice.dto.InventoryResponse;
+import com.example.inventoryservice.dto.ReservationItem;
+import com.example.inventoryservice.dto.ReservationRequest;
+import com.example.inventoryservice.dto.ReservationResponse;
+import com.example.inventoryservice.dto.ReservationResult;
+import com.example.inventoryservice.dto.WarehouseStockResponse;
+import com.example.inventoryservice.entity.InventoryItem;
+import com.example.inventoryservice.repository.InventoryMovementRepository;
+import com.example.inventoryservice.repository.InventoryRepository;
+import com.example.inventoryservice.repository.ReservationRepository;
+import com.example.inventoryservice.repository.WarehouseStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WarehouseStockServiceTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private WarehouseStockService warehouseStockService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private WarehouseStockRepository warehouseStockRepository;
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    // Other tests receive stock without clearing the warehouse breakdown.
+    @BeforeEach
+    @AfterEach
+    void clearStock() {
+        warehouseStockRepository.deleteAll();
+        reservationRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        movementRepository.deleteAll();
+    }
+
+    @Test
+    void testReceiptsFromSeveralWarehousesShareOneProduct() {
+        inventoryService.addInventory(new InventoryRequest(1L, 5, "Warehouse A"));
+        inventoryService.addInventory(new InventoryRequest(1L, 7, "Warehouse B"));
+        InventoryResponse response = inventoryService.addInventory(new InventoryRequest(1L, 3, "Warehouse A"));
+
+        assertEquals(15, response.getQuantity());
+        List<WarehouseStockResponse> stock = inventoryService.getWarehouseStock(1L);
+        assertEquals(2, stock.size());
+        assertEquals("Warehouse A", stock.get(0).getWarehouse());
+        assertEquals(8, stock.get(0).getQuantity());
+        assertEquals(7, stock.get(1).getQuantity());
+    }
+
+    @Test
+    void testAllocateUsesFewestWarehouses() {
+        inventoryService.addInventory(new InventoryRequest(1L, 6, "Warehouse A"));
+        inventoryService.addInventory(new InventoryRequest(1L, 4, "Warehouse B"));
+        inventoryService.addInventory(new InventoryRequest(2L, 3, "Warehouse B"));
+        inventoryService.addInventory(new InventoryRequest(2L, 1, "Warehouse C"));
+
+        AllocationResponse single = inventoryService.allocate(Arrays.asList(
+                new ReservationItem(1L, 4), new ReservationItem(2L, 2)));
+        assertTrue(single.isAllocated());
+        assertEquals(1, single.getShipments().size());
+        assertEquals("Warehouse B", single.getShipments().get(0).getWarehouse());
+
+        AllocationResponse split = inventoryService.allocate(Arrays.asList(
+                new ReservationItem(1L, 9), new ReservationItem(2L, 3)));
+        assertTrue(split.isAllocated());
+        assertEquals(2, split.getShipments().size());
+        int shipped = split.getShipments().stream()
+                .flatMap(shipment -> shipment.getItems().stream())
+                .filter(item -> item.getProductId().equals(1L))
+                .mapToInt(ReservationItem::getQuantity)
+                .sum();
+        assertEquals(9, shipped);
+
+        AllocationResponse tooMany = inventoryService.allocate(Arrays.asList(new ReservationItem(2L, 5)));
+        assertFalse(tooMany.isAllocated());
+        assertEquals(ReservationResult.INSUFFICIENT_STOCK, tooMany.getItems().get(0).getStatus());
+    }
+
+    @Test
+    void testConfirmShipsFromTheChosenWarehouse() {
+        inventoryService.addInventory(new InventoryRequest(1L, 6, "Warehouse A"));
+        inventoryService.addInventory(new InventoryRequest(1L, 4, "Warehouse B"));
+
+        ReservationResponse fromB = reservationService.reserve(new ReservationRequest(1L, 100L, 3, null, "Warehouse B"));
+        reservationService.confirm(fromB.getId());
+        // Two more than B still holds: the rest comes out of A.
+        ReservationResponse overflow = reservationService.reserve(new ReservationRequest(1L, 101L, 3, null, "Warehouse B"));
+        reservationService.confirm(overflow.getId());
+
+        List<WarehouseStockResponse> stock = inventoryService.getWarehouseStock(1L);
+        assertEquals(4, stock.get(0).getQuantity());
+        assertEquals(0, stock.get(1).getQuantity());
+        assertFalse(inventoryService.allocate(Arrays.asList(new ReservationItem(1L, 5))).isAllocated());
+    }
+
+    @Test
+    void testAdjustmentsCarryIntoTheWarehouses() {
+        inventoryService.addInventory(new InventoryRequest(1L, 6, "Warehouse A"));
+        inventoryService.addInventory(new InventoryRequest(1L, 4, "Warehouse B"));
+
+        inventoryService.updateQuantity(1L, 7);
+        List<WarehouseStockResponse> stock = inventoryService.getWarehouseStock(1L);
+        assertEquals(3, stock.get(0).getQuantity());
+        assertEquals(4, stock.get(1).getQuantity());
+
+        // Found units go to the warehouse the product was first received into.
+        inventoryService.updateQuantity(1L, 9);
+        stock = inventoryService.getWarehouseStock(1L);
+        assertEquals(5, stock.get(0).getQuantity());
+        assertEquals(4, stock.get(1).getQuantity());
+    }
+
+    @Test
+    void testAllocateReportsStockOutsideAnyWarehouse() {
+        inventoryService.addInventory(new InventoryRequest(3L, 10, null));
+
+        AllocationResponse response = inventoryService.allocate(Arrays.asList(new ReservationItem(3L, 2)));
+
+        assertFalse(response.isAllocated());
+        assertEquals(0, response.getItems().get(0).getAvailable());
+    }
+
+    @Test
+    void testSeedFromInventory() {
+        InventoryItem item = new InventoryItem();
+        item.setProductId(4L);
+        item.setQuantity(12);
+        item.setReserved(2);
+        item.setWarehouse("Warehouse D");
+        inventoryRepository.save(item);
+
+        assertEquals(1, warehouseStockService.seedFromInventory());
+        assertEquals(0, warehouseStockService.seedFromInventory());
+        assertEquals(12, inventoryService.getWarehouseStock(4L).get(0).getQuantity());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.ReservationRequest;
+import com.example.orderservice.dto.ReservationResponse;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import java.util.List;
+
+@FeignClient(name = "inventory-service")
+public interface InventoryServiceClient {
+
+    @PostMapping("/api/inventory/reservations")
+    ReservationResponse reserve(@RequestBody ReservationRequest request);
+
+    @GetMapping("/api/inventory/reservations/order/{orderId}")
+    List<ReservationResponse> getReservationsByOrderId(@PathVariable Long orderId);
+
+    // Confirms every reservation of the order or, answering 409, none of them.
+    @PostMapping("/api/inventory/reservations/order/{orderId}/confirm")
+    List<ReservationResponse> confirmOrder(@PathVariable Long orderId);
+
+    @PostMapping("/api/inventory/reservations/{id}/release")
+    ReservationResponse release(@PathVariable Long id);
+
+}
@@ -3,6 +3,8 @@ package com.example.orderservice.client;
 import com.example.orderservice.dto.PaymentRequest;
 import com.example.orderservice.dto.PaymentResponse;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
@@ -12,4 +14,10 @@ public interface PaymentServiceClient {
     @PostMapping("/api/payments/process")
     PaymentResponse processPayment(@RequestBody PaymentRequest paymentRequest);
 
+    @GetMapping("/api/payments/order/{orderId}")
+    PaymentResponse getPaymentByOrderId(@PathVariable Long orderId);
+
+    @PostMapping("/api/payments/{id}/refund")
+    PaymentResponse refundPayment(@PathVariable Long id);
+
 }
\ No newline at end of file
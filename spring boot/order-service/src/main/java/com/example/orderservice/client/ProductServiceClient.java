@@ -4,6 +4,10 @@ import com.example.orderservice.dto.ProductDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(name = "product-service")
 public interface ProductServiceClient {
@@ -11,4 +15,8 @@ public interface ProductServiceClient {
     @GetMapping("/api/products/{id}")
     ProductDto getProductById(@PathVariable Long id);
 
+    // Up to 1000 products per call; ids of products that do not exist are left out.
+    @PostMapping("/api/products/batch")
+    List<ProductDto> getProductsByIds(@RequestBody Collection<Long> ids);
+
 }
\ No newline at end of file
@@ -1,26 +1,91 @@
 package com.example.orderservice.controller;
 
+import com.example.orderservice.dto.OrderCursor;
 import com.example.orderservice.dto.OrderRequest;
 import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderStatusBatchRequest;
+import com.example.orderservice.dto.OrderStatusResult;
+import com.example.orderservice.dto.OrderSummary;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.service.OrderExporter;
 import com.example.orderservice.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
 
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderExporter orderExporter;
+
+    // Items are charged at product-service's current prices, not the ones in the request.
+    // The order is accepted as PENDING; checkout confirms or cancels it in the background.
     @PostMapping
     public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest request) {
-        OrderResponse response = orderService.createOrder(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        Map<Long, BigDecimal> prices = orderService.resolvePrices(request);
+        if (prices == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (!request.getItems().stream().allMatch(item -> prices.containsKey(item.getProductId()))) {
+            return ResponseEntity.badRequest().build();
+        }
+        OrderResponse response = orderService.checkout(request, prices);
+        return ResponseEntity.accepted().body(response);
+    }
+
+    // A JSON array of orders, priced and saved in chunks while one result per order is streamed back.
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> importOrders(InputStream orders) {
+        StreamingResponseBody body = out -> orderService.importOrders(orders, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    // Orders created in [from, to), optionally with one status, streamed as NDJSON or CSV.
+    @GetMapping(value = "/export", produces = {NDJSON, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = OrderExporter.NDJSON) String format) {
+        boolean csv = format.equalsIgnoreCase(OrderExporter.CSV);
+        if (!csv && !format.equalsIgnoreCase(OrderExporter.NDJSON)) {
+            return ResponseEntity.badRequest().build();
+        }
+        OrderStatus orderStatus = null;
+        if (status != null) {
+            try {
+                orderStatus = OrderStatus.valueOf(status);
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        OrderStatus filter = orderStatus;
+        String exportFormat = csv ? OrderExporter.CSV : OrderExporter.NDJSON;
+        StreamingResponseBody body = out -> orderExporter.export(from, to, filter, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(csv ? "text/csv" : NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=orders." + exportFormat)
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -30,20 +95,69 @@ public class OrderController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // A page of the user's orders by (createdAt, id); a full page carries the cursor for the next one.
     @GetMapping("/user/{userId}")
-    public List<OrderResponse> getOrdersByUserId(@PathVariable Long userId) {
-        return orderService.getOrdersByUserId(userId);
+    public ResponseEntity<List<OrderResponse>> getOrdersByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "desc") String direction) {
+        boolean ascending = direction.equalsIgnoreCase("asc");
+        if (limit < 1 || limit > MAX_PAGE_SIZE || (!ascending && !direction.equalsIgnoreCase("desc"))) {
+            return ResponseEntity.badRequest().build();
+        }
+        OrderCursor after = null;
+        if (cursor != null) {
+            after = OrderCursor.decode(cursor);
+            if (after == null) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        List<OrderResponse> orders = orderService.getOrdersPage(userId, after, limit, ascending);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (orders.size() == limit) {
+            OrderResponse last = orders.get(orders.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new OrderCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response.body(orders);
+    }
+
+    // Order headers without their items, for list views.
+    @GetMapping("/user/{userId}/summary")
+    public List<OrderSummary> getOrderSummariesByUserId(@PathVariable Long userId) {
+        return orderService.getOrderSummariesByUserId(userId);
     }
 
+    // 409 when the order's current status does not allow the move, as in the batch endpoint's REJECTED.
     @PutMapping("/{id}/status")
     public ResponseEntity<OrderResponse> updateOrderStatus(@PathVariable Long id, @RequestParam String status) {
-        OrderResponse updatedOrder = orderService.updateOrderStatus(id, status);
+        OrderResponse updatedOrder;
+        try {
+            updatedOrder = orderService.updateOrderStatus(id, status);
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
         if (updatedOrder != null) {
             return ResponseEntity.ok(updatedOrder);
         }
         return ResponseEntity.notFound().build();
     }
 
+    // One outcome per order; orders whose status does not allow the move are reported, not failed.
+    @PutMapping("/status-batch")
+    public ResponseEntity<List<OrderStatusResult>> updateOrderStatuses(
+            @Valid @RequestBody OrderStatusBatchRequest request) {
+        OrderStatus status;
+        try {
+            status = OrderStatus.valueOf(request.getStatus());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderService.updateOrderStatuses(request.getOrderIds(), status));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         orderService.deleteOrder(id);
@@ -0,0 +1,25 @@
+package com.example.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+
+    // Increases with every event written; sinks can use it to drop redeliveries.
+    private Long eventId;
+    private String type;
+    private Long orderId;
+    private Long userId;
+    private String status;
+    private String previousStatus;
+    private BigDecimal totalAmount;
+    private LocalDateTime occurredAt;
+}
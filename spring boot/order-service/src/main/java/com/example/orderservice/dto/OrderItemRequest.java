@@ -1,5 +1,8 @@
 package com.example.orderservice.dto;
 
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,7 +12,14 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderItemRequest {
+    @NotNull(message = "Product ID is required")
     private Long productId;
+
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be positive")
     private Integer quantity;
+
+    @NotNull(message = "Unit price is required")
+    @PositiveOrZero(message = "Unit price must not be negative")
     private BigDecimal unitPrice;
 }
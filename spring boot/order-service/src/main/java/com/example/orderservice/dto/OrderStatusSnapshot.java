@@ -0,0 +1,18 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+// The columns a status transition reads and its event carries, without loading the order.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusSnapshot {
+    private Long id;
+    private Long userId;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+}
@@ -6,6 +6,8 @@ public class PaymentRequest {
 
     private Long orderId;
 
+    private Long userId;
+
     private BigDecimal amount;
 
     private String currency;
@@ -22,6 +24,14 @@ public class PaymentRequest {
         this.orderId = orderId;
     }
 
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
     public BigDecimal getAmount() {
         return amount;
     }
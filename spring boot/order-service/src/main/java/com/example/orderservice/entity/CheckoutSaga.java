@@ -0,0 +1,52 @@
+package com.example.orderservice.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Progress of one order's checkout; a worker owns it until nextAttemptAt, after which any instance may resume it.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "checkout_sagas", indexes = @Index(name = "idx_checkout_sagas_due", columnList = "next_attempt_at"))
+public class CheckoutSaga {
+
+    @Id
+    private Long orderId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private CheckoutSagaState state;
+
+    private Long paymentId;
+
+    @NotNull
+    private Integer attempts;
+
+    private String failureReason;
+
+    @NotNull
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
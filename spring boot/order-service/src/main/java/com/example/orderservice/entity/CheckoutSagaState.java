@@ -0,0 +1,5 @@
+package com.example.orderservice.entity;
+
+public enum CheckoutSagaState {
+    STARTED, STOCK_RESERVED, PAYMENT_CHARGED, COMPLETED, COMPENSATING, FAILED, PARKED
+}
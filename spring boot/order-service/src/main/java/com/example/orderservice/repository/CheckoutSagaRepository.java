@@ -0,0 +1,30 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.entity.CheckoutSaga;
+import com.example.orderservice.entity.CheckoutSagaState;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CheckoutSagaRepository extends JpaRepository<CheckoutSaga, Long> {
+
+    @Query("SELECT s.orderId FROM CheckoutSaga s WHERE s.state NOT IN ?1 AND s.nextAttemptAt <= ?2 ORDER BY s.nextAttemptAt")
+    List<Long> findDueOrderIds(Collection<CheckoutSagaState> finished, LocalDateTime now, Limit limit);
+
+    // Takes ownership of a due saga until leaseUntil; returns 0 if another worker got it first.
+    @Transactional
+    @Modifying
+    @Query("UPDATE CheckoutSaga s SET s.nextAttemptAt = ?2, s.version = s.version + 1 " +
+           "WHERE s.orderId = ?1 AND s.nextAttemptAt <= ?3")
+    int claim(Long orderId, LocalDateTime leaseUntil, LocalDateTime now);
+
+    long countByState(CheckoutSagaState state);
+
+}
@@ -1,8 +1,19 @@
 package com.example.orderservice.repository;
 
+import com.example.orderservice.dto.OrderStatusSnapshot;
+import com.example.orderservice.dto.OrderSummary;
 import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,6 +22,39 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByUserId(Long userId);
 
+    // Keyset pages over the (user_id, created_at, id) index: a page costs the same however
+    // deep into the user's history it starts.
+    List<Order> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Limit limit);
+
+    @Query("SELECT o FROM Order o WHERE o.userId = ?1 AND (o.createdAt, o.id) < (?2, ?3) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findByUserIdBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    List<Order> findByUserIdOrderByCreatedAtAscIdAsc(Long userId, Limit limit);
+
+    @Query("SELECT o FROM Order o WHERE o.userId = ?1 AND (o.createdAt, o.id) > (?2, ?3) " +
+           "ORDER BY o.createdAt ASC, o.id ASC")
+    List<Order> findByUserIdAfter(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    @EntityGraph(attributePaths = "items")
     Optional<Order> findByIdAndUserId(Long id, Long userId);
 
-}
\ No newline at end of file
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    @Query("SELECT new com.example.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, CAST(o.status AS String), " +
+           "SIZE(o.items), o.createdAt) FROM Order o WHERE o.userId = ?1 ORDER BY o.id")
+    List<OrderSummary> findSummariesByUserId(Long userId);
+
+    // Locks the rows until the transaction ends, so the statuses read stay current for the update.
+    // Rows are locked in id order so overlapping batches cannot deadlock each other.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.example.orderservice.dto.OrderStatusSnapshot(o.id, o.userId, o.status, o.totalAmount) " +
+           "FROM Order o WHERE o.id IN ?1 ORDER BY o.id")
+    List<OrderStatusSnapshot> lockStatusSnapshots(Collection<Long> ids);
+
+    // Bypasses the entity lifecycle, so updatedAt is set here rather than by @PreUpdate.
+    @Modifying
+    @Query("UPDATE Order o SET o.status = ?1, o.updatedAt = ?2 WHERE o.id IN ?3 AND o.status = ?4")
+    int updateStatus(OrderStatus status, LocalDateTime updatedAt, Collection<Long> ids, OrderStatus currentStatus);
+}
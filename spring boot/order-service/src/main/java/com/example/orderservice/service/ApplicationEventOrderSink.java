@@ -0,0 +1,19 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+// In-process sink: hands each relayed batch to the application's event listeners.
+@Component
+public class ApplicationEventOrderSink implements OrderEventSink {
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<OrderEvent> events) {
+        eventPublisher.publishEvent(new OrderEventBatch(events));
+    }
+}
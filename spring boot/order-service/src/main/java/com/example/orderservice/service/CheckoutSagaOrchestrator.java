@@ -0,0 +1,394 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.InventoryServiceClient;
+import com.example.orderservice.client.PaymentServiceClient;
+import com.example.orderservice.dto.PaymentRequest;
+import com.example.orderservice.dto.PaymentResponse;
+import com.example.orderservice.dto.ReservationRequest;
+import com.example.orderservice.dto.ReservationResponse;
+import com.example.orderservice.entity.CheckoutSaga;
+import com.example.orderservice.entity.CheckoutSagaState;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderItem;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.repository.CheckoutSagaRepository;
+import com.example.orderservice.repository.OrderRepository;
+import feign.FeignException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives checkout for a PENDING order: reserve its stock, charge the payment, then
+ * confirm the reservations and the order. When a step is refused the saga compensates
+ * instead, refunding the payment, releasing the stock and cancelling the order.
+ *
+ * Progress is stored in {@link CheckoutSaga} after every step, and each step is safe to
+ * repeat: reservations and payments already made for the order are looked up before
+ * new ones are requested. Steps run on a bounded worker pool. A running saga holds a
+ * lease ({@code nextAttemptAt}); sagas whose lease lapsed, because their worker died
+ * or a step failed transiently and is due for a retry, are claimed by the sweep on any
+ * instance and carried on from their stored state. A saga that keeps failing
+ * transiently is compensated after {@code order.checkout.max-attempts} tries.
+ *
+ * A compensation that still fails after {@code order.checkout.max-compensation-attempts}
+ * tries is parked: it is no longer retried, its order stays PENDING, and it is counted
+ * by the {@code checkout.sagas.parked} gauge until someone settles it by hand.
+ */
+@Component
+public class CheckoutSagaOrchestrator implements MeterBinder {
+    // Sagas the workers no longer drive; a parked one waits for an operator.
+    private static final Set<CheckoutSagaState> FINISHED = EnumSet.of(CheckoutSagaState.COMPLETED, CheckoutSagaState.FAILED,
+            CheckoutSagaState.PARKED);
+    private static final int MAX_REASON_LENGTH = 255;
+
+    @Autowired
+    private CheckoutSagaRepository sagaRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private InventoryServiceClient inventoryClient;
+
+    @Autowired
+    private PaymentServiceClient paymentClient;
+
+    @Autowired
+    private OrderOutbox orderOutbox;
+
+    @Autowired
+    private OrderCache orderCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${order.checkout.workers:32}")
+    private int workers;
+
+    @Value("${order.checkout.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${order.checkout.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    @Value("${order.checkout.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${order.checkout.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${order.checkout.max-compensation-attempts:20}")
+    private int maxCompensationAttempts;
+
+    @Value("${order.checkout.retry-backoff-millis:1000}")
+    private long retryBackoffMillis;
+
+    @Value("${order.checkout.reservation-ttl-seconds:900}")
+    private long reservationTtlSeconds;
+
+    @Value("${order.checkout.currency:USD}")
+    private String currency;
+
+    @Value("${order.checkout.payment-method:CARD}")
+    private String paymentMethod;
+
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "checkout-saga-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Records a new saga for the order in the caller's transaction and starts it once
+     * that transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void begin(Long orderId) {
+        sagaRepository.save(new CheckoutSaga(orderId, CheckoutSagaState.STARTED, null, 0, null, leaseUntil(),
+                null, null, null));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(orderId);
+            }
+        });
+    }
+
+    public Optional<CheckoutSaga> getSaga(Long orderId) {
+        return sagaRepository.findById(orderId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("checkout.sagas.parked", sagaRepository, sagas -> sagas.countByState(CheckoutSagaState.PARKED))
+                .description("Checkouts whose compensation gave up and that need settling by hand")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.checkout.sweep-interval-millis:1000}")
+    public int resumeDue() {
+        LocalDateTime now = LocalDateTime.now();
+        int resumed = 0;
+        for (Long orderId : sagaRepository.findDueOrderIds(FINISHED, now, Limit.of(sweepBatchSize))) {
+            if (!running.contains(orderId) && sagaRepository.claim(orderId, leaseUntil(), now) == 1) {
+                submit(orderId);
+                resumed++;
+            }
+        }
+        return resumed;
+    }
+
+    private void submit(Long orderId) {
+        if (!running.add(orderId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> run(orderId));
+        } catch (RejectedExecutionException ex) {
+            // The saga keeps its lease, so the sweep picks it up once the lease lapses.
+            running.remove(orderId);
+        }
+    }
+
+    void run(Long orderId) {
+        try {
+            CheckoutSaga saga = sagaRepository.findById(orderId).orElse(null);
+            while (saga != null && !FINISHED.contains(saga.getState())) {
+                saga = advance(saga);
+            }
+        } catch (OptimisticLockingFailureException ex) {
+            // Another worker took the saga over after this one's lease lapsed.
+        } finally {
+            running.remove(orderId);
+        }
+    }
+
+    // Runs the saga's next step and returns the saga in its new state, or null if it waits for a retry.
+    private CheckoutSaga advance(CheckoutSaga saga) {
+        try {
+            switch (saga.getState()) {
+                case STARTED:
+                    return reserveStock(saga);
+                case STOCK_RESERVED:
+                    return charge(saga);
+                case PAYMENT_CHARGED:
+                    return confirm(saga);
+                default:
+                    return compensate(saga);
+            }
+        } catch (FeignException ex) {
+            if (saga.getState() != CheckoutSagaState.COMPENSATING && isRejection(ex)) {
+                return moveTo(saga, CheckoutSagaState.COMPENSATING,
+                        "Rejected with status " + ex.status() + ": " + ex.getMessage());
+            }
+            return retryLater(saga, "Call failed: " + ex.getMessage());
+        }
+    }
+
+    private CheckoutSaga reserveStock(CheckoutSaga saga) {
+        Order order = orderRepository.findWithItemsById(saga.getOrderId()).orElse(null);
+        if (order == null || order.getStatus() != OrderStatus.PENDING) {
+            return moveTo(saga, CheckoutSagaState.COMPENSATING, "Order is no longer pending");
+        }
+        Map<Long, Integer> needed = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            needed.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        // Reservations made by an earlier attempt count towards the order.
+        for (ReservationResponse reservation : inventoryClient.getReservationsByOrderId(saga.getOrderId())) {
+            if (holdsStock(reservation)) {
+                needed.computeIfPresent(reservation.getProductId(),
+                        (productId, quantity) -> quantity > reservation.getQuantity() ? quantity - reservation.getQuantity() : null);
+            }
+        }
+        for (Map.Entry<Long, Integer> line : needed.entrySet()) {
+            try {
+                inventoryClient.reserve(new ReservationRequest(line.getKey(), saga.getOrderId(), line.getValue(),
+                        reservationTtlSeconds));
+            } catch (FeignException ex) {
+                if (!isRejection(ex)) {
+                    throw ex;
+                }
+                return moveTo(saga, CheckoutSagaState.COMPENSATING, "Not enough stock for product " + line.getKey());
+            }
+        }
+        return moveTo(saga, CheckoutSagaState.STOCK_RESERVED, null);
+    }
+
+    private CheckoutSaga charge(CheckoutSaga saga) {
+        Order order = orderRepository.findById(saga.getOrderId()).orElse(null);
+        if (order == null || order.getStatus() != OrderStatus.PENDING) {
+            return moveTo(saga, CheckoutSagaState.COMPENSATING, "Order is no longer pending");
+        }
+        PaymentResponse payment = findPayment(saga.getOrderId());
+        if (payment == null && order.getTotalAmount().compareTo(BigDecimal.ZERO) > 0) {
+            PaymentRequest request = new PaymentRequest();
+            request.setOrderId(order.getId());
+            request.setUserId(order.getUserId());
+            request.setAmount(order.getTotalAmount());
+            request.setCurrency(currency);
+            request.setMethod(paymentMethod);
+            payment = paymentClient.processPayment(request);
+        }
+        // Stored before the status is looked at, so a charge that is still pending and completes
+        // later is refunded by the compensation. A failed one took nothing.
+        saga.setPaymentId(payment != null && !"FAILED".equals(payment.getStatus()) ? payment.getId() : null);
+        if (payment != null && !"COMPLETED".equals(payment.getStatus())) {
+            return moveTo(saga, CheckoutSagaState.COMPENSATING, "Payment " + payment.getStatus());
+        }
+        return moveTo(saga, CheckoutSagaState.PAYMENT_CHARGED, null);
+    }
+
+    private CheckoutSaga confirm(CheckoutSaga saga) {
+        Order order = orderRepository.findById(saga.getOrderId()).orElse(null);
+        if (order == null || order.getStatus() != OrderStatus.PENDING) {
+            return moveTo(saga, CheckoutSagaState.COMPENSATING, "Order is no longer pending");
+        }
+        // One call for all of the order's reservations: a refusal leaves every one of them ACTIVE
+        // for the compensation to release, never some already committed.
+        try {
+            inventoryClient.confirmOrder(saga.getOrderId());
+        } catch (FeignException.Conflict ex) {
+            return moveTo(saga, CheckoutSagaState.COMPENSATING, "Reservations could not be confirmed: "
+                    + ex.contentUTF8());
+        }
+        return finish(saga, OrderStatus.CONFIRMED, CheckoutSagaState.COMPLETED);
+    }
+
+    private CheckoutSaga compensate(CheckoutSaga saga) {
+        if (saga.getPaymentId() != null) {
+            try {
+                paymentClient.refundPayment(saga.getPaymentId());
+            } catch (FeignException.NotFound ex) {
+                // Nothing was charged under this id.
+            }
+        }
+        for (ReservationResponse reservation : inventoryClient.getReservationsByOrderId(saga.getOrderId())) {
+            if (ReservationResponse.ACTIVE.equals(reservation.getStatus())) {
+                try {
+                    inventoryClient.release(reservation.getId());
+                } catch (FeignException.NotFound ex) {
+                    // Already gone.
+                }
+            }
+        }
+        return finish(saga, OrderStatus.CANCELLED, CheckoutSagaState.FAILED);
+    }
+
+    private PaymentResponse findPayment(Long orderId) {
+        try {
+            return paymentClient.getPaymentByOrderId(orderId);
+        } catch (FeignException.NotFound ex) {
+            return null;
+        }
+    }
+
+    // Moves a still pending order to its final status and ends the saga, in one transaction. The
+    // update only applies to a PENDING row, so a status change made meanwhile is never overwritten;
+    // an order that was cancelled while it was being confirmed is compensated instead.
+    private CheckoutSaga finish(CheckoutSaga saga, OrderStatus orderStatus, CheckoutSagaState state) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            List<Long> ids = List.of(saga.getOrderId());
+            if (orderRepository.updateStatus(orderStatus, LocalDateTime.now(), ids, OrderStatus.PENDING) == 1) {
+                orderRepository.findById(saga.getOrderId()).ifPresent(order -> {
+                    orderOutbox.statusChanged(order, OrderStatus.PENDING);
+                    orderCache.evict(order.getId());
+                });
+            } else if (state == CheckoutSagaState.COMPLETED) {
+                return moveTo(saga, CheckoutSagaState.COMPENSATING, "Order is no longer pending");
+            }
+            saga.setState(state);
+            saga.setNextAttemptAt(LocalDateTime.now());
+            return sagaRepository.save(saga);
+        });
+    }
+
+    private CheckoutSaga moveTo(CheckoutSaga saga, CheckoutSagaState state, String reason) {
+        saga.setState(state);
+        if (reason != null) {
+            saga.setFailureReason(truncate(reason));
+        }
+        saga.setAttempts(0);
+        saga.setNextAttemptAt(leaseUntil());
+        return sagaRepository.save(saga);
+    }
+
+    private CheckoutSaga retryLater(CheckoutSaga saga, String reason) {
+        int attempts = saga.getAttempts() + 1;
+        if (saga.getState() != CheckoutSagaState.COMPENSATING && attempts >= maxAttempts) {
+            return moveTo(saga, CheckoutSagaState.COMPENSATING, "Gave up after " + attempts + " attempts: " + reason);
+        }
+        if (saga.getState() == CheckoutSagaState.COMPENSATING && attempts >= maxCompensationAttempts) {
+            return moveTo(saga, CheckoutSagaState.PARKED, "Compensation gave up after " + attempts + " attempts: " + reason);
+        }
+        saga.setAttempts(attempts);
+        saga.setFailureReason(truncate(reason));
+        long delayMillis = retryBackoffMillis << Math.min(attempts - 1, 6);
+        saga.setNextAttemptAt(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delayMillis)));
+        sagaRepository.save(saga);
+        return null;
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusSeconds(leaseSeconds);
+    }
+
+    private static boolean holdsStock(ReservationResponse reservation) {
+        return ReservationResponse.ACTIVE.equals(reservation.getStatus())
+                || ReservationResponse.CONFIRMED.equals(reservation.getStatus());
+    }
+
+    // Client errors are answers; timeouts, throttling, 5xx and connection failures are worth retrying,
+    // as are 401 and 403, which say this service's credentials were refused rather than the order.
+    private static boolean isRejection(FeignException ex) {
+        return ex.status() >= 400 && ex.status() < 500 && ex.status() != 401 && ex.status() != 403
+                && ex.status() != 408 && ex.status() != 429;
+    }
+
+    private static String truncate(String reason) {
+        return reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of {@link OrderResponse}s in front of the order-detail reads.
+ *
+ * Entries are spread over lock-striped segments, each a {@link LinkedHashMap} in access
+ * order holding its share of {@code order.cache.max-entries}; the least recently read
+ * entry of a full segment is evicted, and an entry older than {@code order.cache.ttl-seconds}
+ * is dropped when it is next read. Orders that do not exist are not cached.
+ *
+ * Writers call {@link #evict} after changing an order. The entry is dropped at once and
+ * again when the transaction completes, and each drop bumps the segment's sequence
+ * number. A load records the sequence before reading the database and its result is
+ * discarded if an eviction happened in between, so a read racing a commit cannot
+ * re-insert the old order.
+ *
+ * Hit, miss, eviction, size and load-time meters follow Micrometer's {@code cache.*}
+ * naming and show up under {@code /actuator/metrics}.
+ */
+@Component
+public class OrderCache implements MeterBinder {
+    static final String CACHE_NAME = "order-responses";
+
+    private static final int STRIPES = 16;
+
+    private final Segment[] segments = new Segment[STRIPES];
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    @Autowired
+    public OrderCache(@Value("${order.cache.max-entries:100000}") int maxEntries,
+                      @Value("${order.cache.ttl-seconds:30}") long ttlSeconds) {
+        this(maxEntries, TimeUnit.SECONDS.toNanos(ttlSeconds), System::nanoTime);
+    }
+
+    OrderCache(int maxEntries, long ttlNanos, LongSupplier clock) {
+        int segmentEntries = Math.max(1, (maxEntries + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            segments[i] = new Segment(segmentEntries);
+        }
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached order, or loads it with {@code loader} and caches the result.
+     */
+    public Optional<OrderResponse> get(Long id, Function<Long, Optional<OrderResponse>> loader) {
+        Segment segment = segmentFor(id);
+        long loadStamp;
+        synchronized (segment) {
+            Entry entry = segment.get(id);
+            if (entry != null && clock.getAsLong() - entry.loadedAt < ttlNanos) {
+                hits.increment();
+                return Optional.of(entry.value);
+            }
+            if (entry != null) {
+                segment.remove(id);
+                evictions.increment();
+            }
+            loadStamp = segment.sequence;
+        }
+        misses.increment();
+        long started = clock.getAsLong();
+        Optional<OrderResponse> loaded = loader.apply(id);
+        long finished = clock.getAsLong();
+        loads.increment();
+        loadNanos.add(finished - started);
+        loaded.ifPresent(value -> {
+            synchronized (segment) {
+                if (segment.sequence == loadStamp) {
+                    segment.put(id, new Entry(value, finished));
+                }
+            }
+        });
+        return loaded;
+    }
+
+    public void evict(Long id) {
+        drop(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop(id);
+                }
+            });
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("Order reads answered from the cache")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("Order reads that had to load from the database")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tags("cache", CACHE_NAME)
+                .description("Entries removed for size or age; invalidations are not counted")
+                .register(registry);
+        Gauge.builder("cache.size", this, OrderCache::size)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+        Gauge.builder("cache.hit.ratio", this, OrderCache::hitRatio)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+        FunctionTimer.builder("cache.load", this, cache -> cache.loads.sum(), cache -> cache.loadNanos.sum(),
+                        TimeUnit.NANOSECONDS)
+                .tags("cache", CACHE_NAME)
+                .description("Time spent loading orders on a miss")
+                .register(registry);
+    }
+
+    double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? Double.NaN : (double) hitCount / total;
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    // As evict, with one completion callback for the whole set.
+    public void evictAll(Collection<Long> ids) {
+        ids.forEach(this::drop);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(OrderCache.this::drop);
+                }
+            });
+        }
+    }
+
+    private void drop(Long id) {
+        Segment segment = segmentFor(id);
+        synchronized (segment) {
+            segment.sequence++;
+            segment.remove(id);
+        }
+    }
+
+    private Segment segmentFor(Long id) {
+        return segments[(int) (id ^ (id >>> 32)) & (STRIPES - 1)];
+    }
+
+    private static final class Entry {
+        final OrderResponse value;
+        final long loadedAt;
+
+        Entry(OrderResponse value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final class Segment extends LinkedHashMap<Long, Entry> {
+        private final int maxEntries;
+        long sequence;
+
+        Segment(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > maxEntries) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
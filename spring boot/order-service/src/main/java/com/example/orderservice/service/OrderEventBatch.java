@@ -0,0 +1,20 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderEvent;
+import java.util.List;
+
+/**
+ * Application event carrying a batch of order events relayed by {@link OutboxRelay}.
+ * Listeners receive events in the order they were written.
+ */
+public class OrderEventBatch {
+    private final List<OrderEvent> events;
+
+    public OrderEventBatch(List<OrderEvent> events) {
+        this.events = events;
+    }
+
+    public List<OrderEvent> getEvents() {
+        return events;
+    }
+}
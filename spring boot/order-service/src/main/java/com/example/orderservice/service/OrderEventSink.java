@@ -0,0 +1,15 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderEvent;
+import java.util.List;
+
+/**
+ * Destination for order lifecycle events relayed from the outbox. Every sink bean gets
+ * every batch, in event order. A sink that throws has the whole batch redelivered on
+ * the next relay run, to it and to the others, so sinks must tolerate duplicates.
+ */
+public interface OrderEventSink {
+
+    void publish(List<OrderEvent> events);
+
+}
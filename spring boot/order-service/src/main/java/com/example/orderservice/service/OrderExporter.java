@@ -0,0 +1,243 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderItemResponse;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.entity.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams orders with their items for finance exports. Orders are read with plain JDBC
+ * through a forward-only, read-only cursor, one fetch-size batch of rows at a time, and
+ * written out as they arrive, so heap use does not grow with the number of orders.
+ * Nothing passes through the persistence context or the order cache.
+ */
+@Service
+public class OrderExporter {
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    static final String CSV_HEADER = "order_id,user_id,status,total_amount,shipping_address,created_at,updated_at,"
+            + "item_id,product_id,quantity,unit_price,subtotal";
+
+    // Rows come ordered by order, so an order's items are always adjacent.
+    private static final String SELECT = "SELECT o.id, o.user_id, o.status, o.total_amount, o.shipping_address, "
+            + "o.created_at, o.updated_at, i.id AS item_id, i.product_id, i.quantity, i.unit_price, i.subtotal "
+            + "FROM orders o LEFT JOIN order_items i ON i.order_id = o.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${order.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${order.export.buffer-size:65536}")
+    private int bufferSize;
+
+    /**
+     * Writes every order created in [from, to) with the given status; null bounds and a null
+     * status are not filtered on. NDJSON has one order per line with its items nested, CSV one
+     * line per item, with orders that have no items on a line of their own. Returns the
+     * number of orders written.
+     *
+     * <p>The cursor is held open inside a read-only transaction, which PostgreSQL needs to
+     * fetch in batches rather than materialize the whole result.
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime from, LocalDateTime to, OrderStatus status, String format, OutputStream out)
+            throws IOException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT);
+        String clause = " WHERE ";
+        if (from != null) {
+            sql.append(clause).append("o.created_at >= ?");
+            params.add(Timestamp.valueOf(from));
+            clause = " AND ";
+        }
+        if (to != null) {
+            sql.append(clause).append("o.created_at < ?");
+            params.add(Timestamp.valueOf(to));
+            clause = " AND ";
+        }
+        if (status != null) {
+            sql.append(clause).append("o.status = ?");
+            params.add(status.name());
+        }
+        sql.append(" ORDER BY o.id, i.id");
+
+        BufferedOutputStream buffered = new BufferedOutputStream(out, bufferSize);
+        ExportHandler handler = CSV.equals(format) ? new CsvHandler(buffered) : new NdjsonHandler(buffered);
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+                return statement;
+            }, handler);
+            handler.finish();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        return handler.orders;
+    }
+
+    private abstract static class ExportHandler implements RowCallbackHandler {
+        long orders;
+        long currentId = -1;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long id = rs.getLong("id");
+                if (id != currentId) {
+                    currentId = id;
+                    orders++;
+                    startOrder(rs, id);
+                }
+                addItem(rs);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        abstract void startOrder(ResultSet rs, long id) throws SQLException, IOException;
+
+        // Called for every row; item columns are null for an order without items.
+        abstract void addItem(ResultSet rs) throws SQLException, IOException;
+
+        abstract void finish() throws IOException;
+    }
+
+    // Holds one order back until its last item row has been read.
+    private class NdjsonHandler extends ExportHandler {
+        private final OutputStream out;
+        private final SequenceWriter writer;
+        private OrderResponse pending;
+
+        NdjsonHandler(OutputStream out) throws IOException {
+            this.out = out;
+            this.writer = objectMapper.writerFor(OrderResponse.class).withRootValueSeparator("\n").writeValues(out);
+        }
+
+        @Override
+        void startOrder(ResultSet rs, long id) throws SQLException, IOException {
+            writePending();
+            pending = new OrderResponse(id, rs.getLong("user_id"), new ArrayList<>(),
+                    rs.getBigDecimal("total_amount"), rs.getString("status"), rs.getString("shipping_address"), toLocalDateTime(rs, "created_at"),
+                    toLocalDateTime(rs, "updated_at"));
+        }
+
+        @Override
+        void addItem(ResultSet rs) throws SQLException {
+            long itemId = rs.getLong("item_id");
+            if (!rs.wasNull()) {
+                pending.getItems().add(new OrderItemResponse(itemId, rs.getLong("product_id"), rs.getInt("quantity"),
+                        rs.getBigDecimal("unit_price"), rs.getBigDecimal("subtotal")));
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            writePending();
+            writer.flush();
+            if (orders > 0) {
+                out.write('\n');
+            }
+            out.flush();
+        }
+
+        private void writePending() throws IOException {
+            if (pending != null) {
+                writer.write(pending);
+                pending = null;
+            }
+        }
+    }
+
+    private static class CsvHandler extends ExportHandler {
+        private final Writer out;
+        private String orderColumns;
+
+        CsvHandler(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.out.write(CSV_HEADER);
+            this.out.write('\n');
+        }
+
+        @Override
+        void startOrder(ResultSet rs, long id) throws SQLException {
+            orderColumns = id + "," + rs.getLong("user_id") + "," + rs.getString("status") + ","
+                    + plain(rs.getBigDecimal("total_amount")) + "," + escape(rs.getString("shipping_address")) + ","
+                    + format(toLocalDateTime(rs, "created_at")) + "," + format(toLocalDateTime(rs, "updated_at"));
+        }
+
+        @Override
+        void addItem(ResultSet rs) throws SQLException, IOException {
+            out.write(orderColumns);
+            long itemId = rs.getLong("item_id");
+            if (rs.wasNull()) {
+                out.write(",,,,,\n");
+                return;
+            }
+            out.write("," + itemId + "," + rs.getLong("product_id") + "," + rs.getInt("quantity") + ","
+                    + plain(rs.getBigDecimal("unit_price")) + "," + plain(rs.getBigDecimal("subtotal")) + "\n");
+        }
+
+        @Override
+        void finish() throws IOException {
+            out.flush();
+        }
+
+        private static String plain(BigDecimal value) {
+            return value == null ? "" : value.toPlainString();
+        }
+
+        private static String format(LocalDateTime value) {
+            return value == null ? "" : value.toString();
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderEvent;
+import com.example.orderservice.dto.OrderStatusSnapshot;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.entity.OutboxEvent;
+import com.example.orderservice.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes order lifecycle events to the outbox table. Callers must already be in the
+ * transaction that changes the order, so the event commits or rolls back with it;
+ * {@link OutboxRelay} delivers it afterwards.
+ */
+@Component
+public class OrderOutbox {
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCreated(Collection<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            events.add(event(OrderEvent.ORDER_CREATED, order, null, now));
+        }
+        outboxRepository.saveAll(events);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Order order, OrderStatus previousStatus) {
+        outboxRepository.save(event(OrderEvent.STATUS_CHANGED, order, previousStatus, LocalDateTime.now()));
+    }
+
+    // One event per order, each with the status the order had before moving to the given one.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Collection<OrderStatusSnapshot> orders, OrderStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(orders.size());
+        for (OrderStatusSnapshot order : orders) {
+            events.add(new OutboxEvent(null, OrderEvent.STATUS_CHANGED, order.getId(), order.getUserId(), status,
+                    order.getStatus(), order.getTotalAmount(), now));
+        }
+        outboxRepository.saveAll(events);
+    }
+
+    private static OutboxEvent event(String type, Order order, OrderStatus previousStatus, LocalDateTime now) {
+        return new OutboxEvent(null, type, order.getId(), order.getUserId(), order.getStatus(), previousStatus,
+                order.getTotalAmount(), now);
+    }
+}
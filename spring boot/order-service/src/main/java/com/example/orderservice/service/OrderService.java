@@ -1,16 +1,50 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.dto.BulkOrderResult;
+import com.example.orderservice.dto.OrderCursor;
+import com.example.orderservice.dto.OrderItemRequest;
 import com.example.orderservice.dto.OrderItemResponse;
 import com.example.orderservice.dto.OrderRequest;
 import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderStatusResult;
+import com.example.orderservice.dto.OrderStatusSnapshot;
+import com.example.orderservice.dto.OrderSummary;
 import com.example.orderservice.entity.Order;
 import com.example.orderservice.entity.OrderItem;
 import com.example.orderservice.entity.OrderStatus;
 import com.example.orderservice.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -20,7 +54,138 @@ public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderCache orderCache;
+
+    @Autowired
+    private ProductPriceResolver priceResolver;
+
+    @Autowired
+    private OrderOutbox orderOutbox;
+
+    @Autowired
+    private CheckoutSagaOrchestrator checkoutSagas;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${order.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${order.status-batch.chunk-size:1000}")
+    private int statusChunkSize;
+
+    /**
+     * Saves the order at the unit prices given in the request. Orders from customers go
+     * through {@link #resolvePrices} first and are saved with the prices it returns.
+     */
+    @Transactional
     public OrderResponse createOrder(OrderRequest request) {
+        return createOrder(request, null);
+    }
+
+    @Transactional
+    public OrderResponse createOrder(OrderRequest request, Map<Long, BigDecimal> prices) {
+        Order savedOrder = orderRepository.save(buildOrder(request, prices));
+        orderOutbox.orderCreated(List.of(savedOrder));
+        return mapToResponse(savedOrder);
+    }
+
+    /**
+     * Saves the order as PENDING and starts its checkout saga, which confirms or cancels
+     * it in the background.
+     */
+    @Transactional
+    public OrderResponse checkout(OrderRequest request, Map<Long, BigDecimal> prices) {
+        OrderResponse response = createOrder(request, prices);
+        checkoutSagas.begin(response.getId());
+        return response;
+    }
+
+    /**
+     * Current prices of the order's products from product-service, or null if they
+     * could not all be looked up in time. Products that do not exist are left out.
+     */
+    public Map<Long, BigDecimal> resolvePrices(OrderRequest request) {
+        return priceResolver.resolve(request.getItems().stream()
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Reads a JSON array of orders from {@code in} and writes one {@link BulkOrderResult}
+     * per order to {@code out} as newline-delimited JSON. Orders are parsed and validated
+     * one at a time; valid ones are saved in chunks of {@code order.bulk.chunk-size}, each
+     * chunk in its own transaction with batched inserts, and the chunk's results are
+     * flushed once it commits. Memory use depends on the chunk size, not on the upload.
+     * As with single orders, items are charged at product-service's current prices, looked
+     * up once per chunk; orders naming an unknown product are rejected.
+     * Returns the number of orders read.
+     */
+    public long importOrders(InputStream in, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(BulkOrderResult.class);
+        List<OrderRequest> chunk = new ArrayList<>(bulkChunkSize);
+        List<Long> positions = new ArrayList<>(bulkChunkSize);
+        long index = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                writeResult(writer, out, new BulkOrderResult(null, null, BulkOrderResult.REJECTED,
+                        "Expected a JSON array of orders"));
+                return 0;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                long position = index++;
+                String error;
+                if (token == JsonToken.START_OBJECT) {
+                    // Each element is read as a tree first, so a badly typed field only rejects its own order.
+                    JsonNode node = parser.readValueAsTree();
+                    error = null;
+                    try {
+                        OrderRequest request = objectMapper.treeToValue(node, OrderRequest.class);
+                        error = validate(request);
+                        if (error == null) {
+                            chunk.add(request);
+                            positions.add(position);
+                        }
+                    } catch (JsonProcessingException ex) {
+                        error = ex.getOriginalMessage();
+                    }
+                } else {
+                    parser.skipChildren();
+                    error = "Expected an order object";
+                }
+                if (error != null) {
+                    writeResult(writer, out, new BulkOrderResult(position, null, BulkOrderResult.REJECTED, error));
+                }
+                if (chunk.size() == bulkChunkSize) {
+                    saveChunk(chunk, positions, writer, out);
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            // The rest of the upload cannot be read; what was parsed so far is still saved.
+            saveChunk(chunk, positions, writer, out);
+            writeResult(writer, out, new BulkOrderResult(index, null, BulkOrderResult.REJECTED,
+                    "Malformed JSON: " + ex.getOriginalMessage()));
+            out.flush();
+            return index;
+        }
+        saveChunk(chunk, positions, writer, out);
+        out.flush();
+        return index;
+    }
+
+    // Prices from the map take precedence over the ones in the request.
+    private Order buildOrder(OrderRequest request, Map<Long, BigDecimal> prices) {
         Order order = new Order();
         order.setUserId(request.getUserId());
         order.setShippingAddress(request.getShippingAddress());
@@ -32,7 +197,7 @@ public class OrderService {
                     OrderItem item = new OrderItem();
                     item.setProductId(itemRequest.getProductId());
                     item.setQuantity(itemRequest.getQuantity());
-                    item.setUnitPrice(itemRequest.getUnitPrice());
+                    item.setUnitPrice(prices != null ? prices.get(itemRequest.getProductId()) : itemRequest.getUnitPrice());
                     item.calculateSubtotal();
                     return item;
                 })
@@ -45,51 +210,249 @@ public class OrderService {
                 .map(OrderItem::getSubtotal)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         order.setTotalAmount(totalAmount);
+        return order;
+    }
 
-        Order savedOrder = orderRepository.save(order);
-        return mapToResponse(savedOrder);
+    private String validate(OrderRequest request) {
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<OrderRequest> violation : validator.validate(request)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (errors.isEmpty()) {
+            return null;
+        }
+        errors.sort(null);
+        return String.join("; ", errors);
+    }
+
+    // Prices the chunk, saves it in one transaction and reports each order, then empties the chunk.
+    // The persistence context is cleared so saved orders do not pile up in it over the upload.
+    private void saveChunk(List<OrderRequest> requests, List<Long> requestPositions, ObjectWriter writer,
+                           OutputStream out) throws IOException {
+        if (requests.isEmpty()) {
+            return;
+        }
+        Map<Long, BigDecimal> prices = priceResolver.resolve(requests.stream()
+                .flatMap(request -> request.getItems().stream())
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toList()));
+        List<Order> chunk = new ArrayList<>(requests.size());
+        List<Long> positions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            if (prices == null) {
+                writeResult(writer, out, new BulkOrderResult(requestPositions.get(i), null, BulkOrderResult.FAILED,
+                        "Product prices could not be looked up"));
+                continue;
+            }
+            OrderRequest request = requests.get(i);
+            Optional<Long> unknown = request.getItems().stream()
+                    .map(OrderItemRequest::getProductId)
+                    .filter(productId -> !prices.containsKey(productId))
+                    .findFirst();
+            if (unknown.isPresent()) {
+                writeResult(writer, out, new BulkOrderResult(requestPositions.get(i), null, BulkOrderResult.REJECTED,
+                        "Unknown product " + unknown.get()));
+                continue;
+            }
+            chunk.add(buildOrder(request, prices));
+            positions.add(requestPositions.get(i));
+        }
+        requests.clear();
+        requestPositions.clear();
+        if (chunk.isEmpty()) {
+            out.flush();
+            return;
+        }
+        String error = null;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                orderRepository.saveAll(chunk);
+                orderOutbox.orderCreated(chunk);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (DataAccessException | TransactionException ex) {
+            error = ex.getMostSpecificCause().getMessage();
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            writeResult(writer, out, error == null
+                    ? new BulkOrderResult(positions.get(i), chunk.get(i).getId(), BulkOrderResult.CREATED, null)
+                    : new BulkOrderResult(positions.get(i), null, BulkOrderResult.FAILED, error));
+        }
+        out.flush();
+    }
+
+    private static void writeResult(ObjectWriter writer, OutputStream out, BulkOrderResult result) throws IOException {
+        writer.writeValue(out, result);
+        out.write('\n');
     }
 
     public Optional<OrderResponse> getOrderById(Long id) {
-        return orderRepository.findById(id).map(this::mapToResponse);
+        return orderCache.get(id, key -> orderRepository.findWithItemsById(key).map(this::mapToResponse));
     }
 
     public Optional<OrderResponse> getOrderById(Long id, Long userId) {
-        return orderRepository.findByIdAndUserId(id, userId).map(this::mapToResponse);
+        return getOrderById(id).filter(order -> order.getUserId().equals(userId));
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponse> getOrdersByUserId(Long userId) {
         return orderRepository.findByUserId(userId).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns up to {@code limit} of the user's orders following {@code after} (from the
+     * start when null), ordered by (createdAt, id), newest first unless {@code ascending}.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrdersPage(Long userId, OrderCursor after, int limit, boolean ascending) {
+        List<Order> orders;
+        if (after == null) {
+            orders = ascending
+                    ? orderRepository.findByUserIdOrderByCreatedAtAscIdAsc(userId, Limit.of(limit))
+                    : orderRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, Limit.of(limit));
+        } else {
+            orders = ascending
+                    ? orderRepository.findByUserIdAfter(userId, after.getCreatedAt(), after.getId(), Limit.of(limit))
+                    : orderRepository.findByUserIdBefore(userId, after.getCreatedAt(), after.getId(), Limit.of(limit));
+        }
+        return orders.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    public List<OrderSummary> getOrderSummariesByUserId(Long userId) {
+        return orderRepository.findSummariesByUserId(userId);
+    }
+
+    /**
+     * Moves the order to the status. Returns null if the order does not exist; throws
+     * IllegalStateException if its current status does not allow the move.
+     */
+    @Transactional
     public OrderResponse updateOrderStatus(Long id, String status) {
-        Optional<Order> optional = orderRepository.findById(id);
+        OrderStatus next = OrderStatus.valueOf(status);
+        if (!lockForTransition(id, next)) {
+            return null;
+        }
+        Optional<Order> optional = orderRepository.findWithItemsById(id);
         if (optional.isPresent()) {
             Order order = optional.get();
-            order.setStatus(OrderStatus.valueOf(status));
+            OrderStatus previousStatus = order.getStatus();
+            order.setStatus(next);
             Order updatedOrder = orderRepository.save(order);
+            if (previousStatus != updatedOrder.getStatus()) {
+                orderOutbox.statusChanged(updatedOrder, previousStatus);
+            }
+            orderCache.evict(id);
             return mapToResponse(updatedOrder);
         }
         return null;
     }
 
+    /**
+     * Moves every given order to the status, where its current status allows it, and reports
+     * one outcome per distinct id in the order given. The rows are locked and read in chunks,
+     * then updated with one UPDATE per source status and chunk instead of one per order; the
+     * status-changed events go to the outbox in the same transaction.
+     */
+    @Transactional
+    public List<OrderStatusResult> updateOrderStatuses(Collection<Long> orderIds, OrderStatus status) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        // Chunks are locked in id order too, so each batch takes its row locks in one global order.
+        List<Long> lockOrder = new ArrayList<>(ids);
+        Collections.sort(lockOrder);
+        Map<Long, OrderStatusSnapshot> current = new HashMap<>(ids.size() * 2);
+        for (List<Long> chunk : chunks(lockOrder)) {
+            for (OrderStatusSnapshot snapshot : orderRepository.lockStatusSnapshots(chunk)) {
+                current.put(snapshot.getId(), snapshot);
+            }
+        }
+
+        List<OrderStatusResult> results = new ArrayList<>(ids.size());
+        Map<OrderStatus, List<OrderStatusSnapshot>> bySource = new EnumMap<>(OrderStatus.class);
+        for (Long id : ids) {
+            OrderStatusSnapshot snapshot = current.get(id);
+            if (snapshot == null) {
+                results.add(new OrderStatusResult(id, OrderStatusResult.NOT_FOUND, null, "Order not found"));
+            } else if (snapshot.getStatus() == status) {
+                results.add(new OrderStatusResult(id, OrderStatusResult.UNCHANGED, status.name(), null));
+            } else if (!snapshot.getStatus().canTransitionTo(status)) {
+                results.add(new OrderStatusResult(id, OrderStatusResult.REJECTED, snapshot.getStatus().name(),
+                        "Cannot move from " + snapshot.getStatus() + " to " + status));
+            } else {
+                results.add(new OrderStatusResult(id, OrderStatusResult.UPDATED, snapshot.getStatus().name(), null));
+                bySource.computeIfAbsent(snapshot.getStatus(), key -> new ArrayList<>()).add(snapshot);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> updated = new ArrayList<>();
+        for (Map.Entry<OrderStatus, List<OrderStatusSnapshot>> group : bySource.entrySet()) {
+            List<Long> groupIds = group.getValue().stream()
+                    .map(OrderStatusSnapshot::getId)
+                    .collect(Collectors.toList());
+            for (List<Long> chunk : chunks(groupIds)) {
+                orderRepository.updateStatus(status, now, chunk, group.getKey());
+            }
+            orderOutbox.statusChanged(group.getValue(), status);
+            updated.addAll(groupIds);
+        }
+        orderCache.evictAll(updated);
+        return results;
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += statusChunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + statusChunkSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    // Throws IllegalStateException if the order can no longer be cancelled.
+    @Transactional
     public boolean cancelOrder(Long id) {
+        if (!lockForTransition(id, OrderStatus.CANCELLED)) {
+            return false;
+        }
         Optional<Order> optional = orderRepository.findById(id);
         if (optional.isPresent()) {
             Order order = optional.get();
+            OrderStatus previousStatus = order.getStatus();
             order.setStatus(OrderStatus.CANCELLED);
             orderRepository.save(order);
+            if (previousStatus != OrderStatus.CANCELLED) {
+                orderOutbox.statusChanged(order, previousStatus);
+            }
+            orderCache.evict(id);
             return true;
         }
         return false;
     }
 
+    // Locks the order's row and checks the move against its current status; staying in the
+    // same status is allowed and changes nothing. Returns false if the order does not exist.
+    private boolean lockForTransition(Long id, OrderStatus next) {
+        List<OrderStatusSnapshot> locked = orderRepository.lockStatusSnapshots(List.of(id));
+        if (locked.isEmpty()) {
+            return false;
+        }
+        OrderStatus current = locked.get(0).getStatus();
+        if (current != next && !current.canTransitionTo(next)) {
+            throw new IllegalStateException("Cannot move order " + id + " from " + current + " to " + next);
+        }
+        return true;
+    }
+
     public void deleteOrder(Long id) {
         orderRepository.deleteById(id);
+        orderCache.evict(id);
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponse> getAllOrders() {
         return orderRepository.findAll().stream()
                 .map(this::mapToResponse)
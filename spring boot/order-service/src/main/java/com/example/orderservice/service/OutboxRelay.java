@@ -0,0 +1,114 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderEvent;
+import com.example.orderservice.entity.OutboxEvent;
+import com.example.orderservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers outbox events to every {@link OrderEventSink}, at least once and in order.
+ *
+ * Each run takes the oldest {@code order.outbox.batch-size} rows under row locks
+ * (skipping rows another instance holds), hands them to the sinks and deletes them in
+ * the same transaction, repeating until the outbox is drained. If a sink fails the
+ * transaction rolls back and the batch is retried on the next run.
+ *
+ * Meters: {@code order.outbox.lag} is the age of the oldest undelivered event after the
+ * last run, {@code order.outbox.delivery} times each event from write to delivery, and
+ * {@code order.outbox.batches} / {@code order.outbox.events} give the mean batch size.
+ */
+@Component
+public class OutboxRelay implements MeterBinder {
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private List<OrderEventSink> sinks;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${order.outbox.batch-size:500}")
+    private int batchSize;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder deliveryNanos = new LongAdder();
+    private volatile long lagNanos;
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay-interval-millis:500}")
+    public int relay() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int relayed = 0;
+        try {
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> relayBatch());
+                relayed += batch;
+            } while (batch == batchSize);
+        } finally {
+            LocalDateTime oldest = outboxRepository.findOldestCreatedAt();
+            lagNanos = oldest == null ? 0 : Math.max(Duration.between(oldest, LocalDateTime.now()).toNanos(), 0);
+        }
+        return relayed;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("order.outbox.lag", this, relay -> relay.lagNanos / 1e9)
+                .baseUnit("seconds")
+                .description("Age of the oldest undelivered event after the last relay run")
+                .register(registry);
+        FunctionTimer.builder("order.outbox.delivery", this, relay -> relay.delivered.sum(),
+                        relay -> relay.deliveryNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time from writing an event to delivering it")
+                .register(registry);
+        FunctionCounter.builder("order.outbox.batches", batches, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("order.outbox.events", delivered, LongAdder::sum)
+                .description("Events delivered; divided by order.outbox.batches gives the mean batch size")
+                .register(registry);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> rows = outboxRepository.lockOldest(Limit.of(batchSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<OrderEvent> events = new ArrayList<>(rows.size());
+        for (OutboxEvent row : rows) {
+            events.add(new OrderEvent(row.getId(), row.getType(), row.getOrderId(), row.getUserId(),
+                    row.getStatus().toString(), row.getPreviousStatus() != null ? row.getPreviousStatus().toString() : null,
+                    row.getTotalAmount(), row.getCreatedAt()));
+        }
+        for (OrderEventSink sink : sinks) {
+            sink.publish(events);
+        }
+        outboxRepository.deleteAllInBatch(rows);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent row : rows) {
+            deliveryNanos.add(Math.max(Duration.between(row.getCreatedAt(), now).toNanos(), 0));
+        }
+        delivered.add(rows.size());
+        batches.increment();
+        return rows.size();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.dto.ProductDto;
+import feign.FeignException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Looks up current product prices for an order from product-service.
+ *
+ * An order's distinct products are fetched in batches of {@code order.pricing.batch-size}
+ * through the batch endpoint, the batches started together on a bounded pool, so an order
+ * waits about one round trip however many products it has. Each call is abandoned after
+ * {@code order.pricing.call-timeout-millis} and the whole resolution after
+ * {@code order.pricing.deadline-millis}. When the pool and its queue are full the order is
+ * refused instead of queueing behind other orders.
+ *
+ * Against a product-service without the batch endpoint the products are looked up one call
+ * each instead, and the batch endpoint is tried again after a minute.
+ */
+@Component
+public class ProductPriceResolver {
+    private static final long BATCH_RETRY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    // Returned by a batched resolution that product-service does not support.
+    private static final Map<Long, BigDecimal> BATCH_UNAVAILABLE = Collections.unmodifiableMap(new HashMap<>());
+
+    private final ProductServiceClient productServiceClient;
+    private final ThreadPoolExecutor executor;
+    private final int batchSize;
+    private final long callTimeoutMillis;
+    private final long deadlineNanos;
+    private volatile boolean batchUnavailable;
+    private volatile long batchRetryAt;
+
+    @Autowired
+    public ProductPriceResolver(ProductServiceClient productServiceClient,
+                                @Value("${order.pricing.max-concurrency:64}") int maxConcurrency,
+                                @Value("${order.pricing.queue-capacity:1000}") int queueCapacity,
+                                @Value("${order.pricing.batch-size:200}") int batchSize,
+                                @Value("${order.pricing.call-timeout-millis:1000}") long callTimeoutMillis,
+                                @Value("${order.pricing.deadline-millis:2000}") long deadlineMillis) {
+        this.productServiceClient = productServiceClient;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "price-lookup-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.batchSize = batchSize;
+        this.callTimeoutMillis = callTimeoutMillis;
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the current price of each product that exists; unknown products are left
+     * out. Returns null if product-service did not answer every lookup in time.
+     */
+    public Map<Long, BigDecimal> resolve(Collection<Long> productIds) {
+        long deadline = System.nanoTime() + deadlineNanos;
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(productIds));
+        boolean batch = !batchUnavailable || System.nanoTime() - batchRetryAt >= 0;
+        Map<Long, BigDecimal> prices = resolve(distinctIds, batch, deadline);
+        if (prices == BATCH_UNAVAILABLE) {
+            return resolve(distinctIds, false, deadline);
+        }
+        return prices;
+    }
+
+    private Map<Long, BigDecimal> resolve(List<Long> productIds, boolean batch, long deadline) {
+        int size = batch ? batchSize : 1;
+        List<CompletableFuture<List<ProductDto>>> lookups = new ArrayList<>();
+        try {
+            for (int from = 0; from < productIds.size(); from += size) {
+                List<Long> ids = productIds.subList(from, Math.min(from + size, productIds.size()));
+                lookups.add(CompletableFuture.supplyAsync(() -> batch ? lookupBatch(ids) : lookup(ids.get(0)), executor)
+                        .orTimeout(callTimeoutMillis, TimeUnit.MILLISECONDS));
+            }
+        } catch (RejectedExecutionException ex) {
+            cancel(lookups);
+            return null;
+        }
+
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (CompletableFuture<List<ProductDto>> lookup : lookups) {
+            try {
+                List<ProductDto> products = lookup.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                if (products == null) {
+                    cancel(lookups);
+                    return BATCH_UNAVAILABLE;
+                }
+                for (ProductDto product : products) {
+                    if (product != null && product.getId() != null && product.getPrice() != null) {
+                        prices.put(product.getId(), product.getPrice());
+                    }
+                }
+            } catch (TimeoutException | ExecutionException ex) {
+                cancel(lookups);
+                return null;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancel(lookups);
+                return null;
+            }
+        }
+        return prices;
+    }
+
+    // Null if product-service has no batch endpoint.
+    private List<ProductDto> lookupBatch(List<Long> productIds) {
+        try {
+            List<ProductDto> products = productServiceClient.getProductsByIds(productIds);
+            batchUnavailable = false;
+            return products;
+        } catch (FeignException.NotFound | FeignException.MethodNotAllowed ex) {
+            batchRetryAt = System.nanoTime() + BATCH_RETRY_NANOS;
+            batchUnavailable = true;
+            return null;
+        }
+    }
+
+    private List<ProductDto> lookup(Long productId) {
+        try {
+            ProductDto product = productServiceClient.getProductById(productId);
+            if (product != null && product.getId() == null) {
+                product.setId(productId);
+            }
+            return product == null ? List.of() : List.of(product);
+        } catch (FeignException.NotFound ex) {
+            return List.of();
+        }
+    }
+
+    private static void cancel(List<CompletableFuture<List<ProductDto>>> lookups) {
+        lookups.forEach(lookup -> lookup.cancel(false));
+    }
+}
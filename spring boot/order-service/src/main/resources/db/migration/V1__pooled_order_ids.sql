@@ -0,0 +1,24 @@
+-- Moves orders and order_items from IDENTITY columns to the pooled sequences the
+-- entities now use (allocation size 50). Run once against PostgreSQL before deploying.
+--
+-- Hibernate's pooled optimizer treats each value it draws as the top of a block of
+-- 50 ids, so each sequence is set to return MAX(id) + 50 next: the first block then
+-- starts right after the highest existing id.
+
+BEGIN;
+
+LOCK TABLE orders, order_items IN EXCLUSIVE MODE;
+
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE order_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq INCREMENT BY 50;
+
+SELECT setval('orders_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM orders), false);
+SELECT setval('order_items_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM order_items), false);
+
+-- Items are inserted with their order id now, never attached by a later UPDATE.
+ALTER TABLE order_items ALTER COLUMN order_id SET NOT NULL;
+
+COMMIT;
@@ -0,0 +1,3 @@
+-- Keyset pagination of a user's orders reads this index in (created_at, id) order.
+-- CONCURRENTLY keeps the table writable while it builds, so run it outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_user_created ON orders (user_id, created_at, id);
@@ -0,0 +1,14 @@
+-- Outbox for order lifecycle events, written in the same transaction as the order change
+-- and deleted by the relay once delivered.
+CREATE SEQUENCE IF NOT EXISTS order_outbox_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id              BIGINT PRIMARY KEY,
+    type            VARCHAR(255) NOT NULL,
+    order_id        BIGINT NOT NULL,
+    user_id         BIGINT NOT NULL,
+    status          VARCHAR(255) NOT NULL,
+    previous_status VARCHAR(255),
+    total_amount    NUMERIC(38, 2),
+    created_at      TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,14 @@
+-- One row per order going through checkout; rows of finished sagas are kept for support.
+CREATE TABLE IF NOT EXISTS checkout_sagas (
+    order_id        BIGINT PRIMARY KEY,
+    state           VARCHAR(255) NOT NULL,
+    payment_id      BIGINT,
+    attempts        INTEGER NOT NULL,
+    failure_reason  VARCHAR(255),
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    version         BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_checkout_sagas_due ON checkout_sagas (next_attempt_at);
@@ -0,0 +1,2 @@
+-- Parked sagas are few and are counted on every metrics scrape.
+CREATE INDEX IF NOT EXISTS idx_checkout_sagas_parked ON checkout_sagas (state) WHERE state = 'PARKED';
@@ -0,0 +1,110 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.service.ProductPriceResolver;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The other services behind a stub that, like them, answers 401 to calls without a valid token.
+@SpringBootTest
+@ActiveProfiles("test")
+class ServiceCredentialsTest {
+    private static final String TOKEN = "stub-token";
+
+    private static HttpServer stub;
+    private static final AtomicInteger tokenRequests = new AtomicInteger();
+    private static final AtomicInteger unauthorized = new AtomicInteger();
+
+    @Autowired
+    private ProductPriceResolver priceResolver;
+
+    @Autowired
+    private InventoryServiceClient inventoryClient;
+
+    @Autowired
+    private PaymentServiceClient paymentClient;
+
+    @BeforeAll
+    static void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/oauth2/token", exchange -> {
+            String credentials = Base64.getEncoder()
+                    .encodeToString("order-service:order-service-secret".getBytes(StandardCharsets.UTF_8));
+            String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (!("Basic " + credentials).equals(exchange.getRequestHeaders().getFirst("Authorization"))
+                    || !form.contains("grant_type=client_credentials")) {
+                respond(exchange, 401, "{\"error\":\"invalid_client\"}");
+                return;
+            }
+            tokenRequests.incrementAndGet();
+            respond(exchange, 200, "{\"access_token\":\"" + TOKEN + "\",\"token_type\":\"Bearer\",\"expires_in\":300}");
+        });
+        stub.createContext("/api/products/batch", exchange -> secured(exchange, "[{\"id\":1,\"name\":\"Pan\",\"price\":5}]"));
+        stub.createContext("/api/inventory/reservations/order/", exchange -> secured(exchange, "[]"));
+        stub.createContext("/api/payments/order/", exchange -> secured(exchange, "{\"id\":3,\"status\":\"COMPLETED\"}"));
+        stub.start();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void stubUrls(DynamicPropertyRegistry registry) {
+        String url = "http://localhost:" + stub.getAddress().getPort();
+        registry.add("spring.security.oauth2.client.provider.auth-server.token-uri", () -> url + "/oauth2/token");
+        for (String service : List.of("product-service", "inventory-service", "payment-service")) {
+            registry.add("spring.cloud.openfeign.client.config." + service + ".url", () -> url);
+        }
+    }
+
+    @Test
+    void testCallsCarryTheServiceToken() {
+        // Price lookups run on the resolver's own threads, outside of any incoming request.
+        assertEquals(Map.of(1L, BigDecimal.valueOf(5)), priceResolver.resolve(List.of(1L, 2L)));
+        assertEquals(List.of(), inventoryClient.getReservationsByOrderId(7L));
+        assertEquals("COMPLETED", paymentClient.getPaymentByOrderId(7L).getStatus());
+
+        assertEquals(0, unauthorized.get());
+        // The token is fetched once and reused until it expires.
+        assertEquals(1, tokenRequests.get());
+    }
+
+    private static void secured(HttpExchange exchange, String body) throws IOException {
+        if (!("Bearer " + TOKEN).equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+            unauthorized.incrementAndGet();
+            respond(exchange, 401, "");
+            return;
+        }
+        respond(exchange, 200, body);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.InventoryServiceClient;
+import com.example.orderservice.client.PaymentServiceClient;
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.PaymentRequest;
+import com.example.orderservice.dto.PaymentResponse;
+import com.example.orderservice.dto.ReservationRequest;
+import com.example.orderservice.dto.ReservationResponse;
+import com.example.orderservice.entity.CheckoutSaga;
+import com.example.orderservice.entity.CheckoutSagaState;
+import com.example.orderservice.repository.CheckoutSagaRepository;
+import com.example.orderservice.repository.OrderRepository;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "order.checkout.retry-backoff-millis=10",
+        "order.checkout.max-attempts=3",
+        "order.checkout.max-compensation-attempts=3"
+})
+@ActiveProfiles("test")
+class CheckoutSagaTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CheckoutSagaOrchestrator orchestrator;
+
+    @Autowired
+    private CheckoutSagaRepository sagaRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private InventoryServiceClient inventoryClient;
+
+    @MockBean
+    private PaymentServiceClient paymentClient;
+
+    private final FakeInventory inventory = new FakeInventory();
+
+    private final FakePayments payments = new FakePayments();
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(delegatesTo(inventory)).when(inventoryClient).reserve(any());
+        doAnswer(delegatesTo(inventory)).when(inventoryClient).getReservationsByOrderId(any());
+        doAnswer(delegatesTo(inventory)).when(inventoryClient).confirmOrder(any());
+        doAnswer(delegatesTo(inventory)).when(inventoryClient).release(any());
+        doAnswer(delegatesTo(payments)).when(paymentClient).processPayment(any());
+        doAnswer(delegatesTo(payments)).when(paymentClient).getPaymentByOrderId(any());
+        doAnswer(delegatesTo(payments)).when(paymentClient).refundPayment(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        sagaRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void testCheckoutConfirmsTheOrder() throws Exception {
+        inventory.stock.put(1L, 10);
+        inventory.stock.put(2L, 10);
+
+        Long id = checkout(List.of(item(1L, 2), item(2L, 3), item(1L, 1)));
+        CheckoutSaga saga = awaitFinished(id);
+
+        assertEquals(CheckoutSagaState.COMPLETED, saga.getState());
+        assertEquals("CONFIRMED", orderService.getOrderById(id).orElseThrow().getStatus());
+        assertEquals(Map.of(1L, 7, 2L, 7), inventory.stock);
+        assertTrue(inventory.reservations.values().stream().allMatch(r -> r.getStatus().equals("CONFIRMED")));
+        assertEquals(1, payments.charges.get());
+        assertEquals(0, new BigDecimal("60").compareTo(payments.byOrder.get(id).getAmount()));
+    }
+
+    @Test
+    void testMissingStockCancelsAndReleases() throws Exception {
+        inventory.stock.put(1L, 10);
+        inventory.stock.put(2L, 1);
+
+        Long id = checkout(List.of(item(1L, 2), item(2L, 3)));
+        CheckoutSaga saga = awaitFinished(id);
+
+        assertEquals(CheckoutSagaState.FAILED, saga.getState());
+        assertTrue(saga.getFailureReason().contains("product 2"));
+        assertEquals("CANCELLED", orderService.getOrderById(id).orElseThrow().getStatus());
+        assertEquals(10, inventory.stock.get(1L));
+        assertEquals(0, payments.charges.get());
+    }
+
+    @Test
+    void testDeclinedPaymentCancelsAndReleases() throws Exception {
+        inventory.stock.put(1L, 10);
+        payments.decline = true;
+
+        Long id = checkout(List.of(item(1L, 4)));
+        CheckoutSaga saga = awaitFinished(id);
+
+        assertEquals(CheckoutSagaState.FAILED, saga.getState());
+        assertEquals("CANCELLED", orderService.getOrderById(id).orElseThrow().getStatus());
+        assertEquals(10, inventory.stock.get(1L));
+    }
+
+    @Test
+    void testRefusedConfirmationReleasesEveryReservation() throws Exception {
+        inventory.stock.put(1L, 10);
+        inventory.stock.put(2L, 10);
+        inventory.unconfirmable.add(2L);
+
+        Long id = checkout(List.of(item(1L, 2), item(2L, 3)));
+        CheckoutSaga saga = awaitFinished(id);
+
+        assertEquals(CheckoutSagaState.FAILED, saga.getState());
+        assertTrue(saga.getFailureReason().startsWith("Reservations could not be confirmed"));
+        assertEquals("CANCELLED", orderService.getOrderById(id).orElseThrow().getStatus());
+        assertEquals(Map.of(1L, 10, 2L, 10), inventory.stock);
+        assertTrue(inventory.reservations.values().stream().allMatch(r -> r.getStatus().equals("RELEASED")));
+        assertEquals("REFUNDED", payments.payments.get(id).getStatus());
+    }
+
+    @Test
+    void testPendingPaymentIsRefundedWhenCompensating() throws Exception {
+        inventory.stock.put(1L, 10);
+        payments.pending = true;
+
+        Long id = checkout(List.of(item(1L, 4)));
+        CheckoutSaga saga = awaitFinished(id);
+
+        assertEquals(CheckoutSagaState.FAILED, saga.getState());
+        assertEquals("Payment PENDING", saga.getFailureReason());
+        assertEquals("REFUNDED", payments.payments.get(id).getStatus());
+        assertEquals(10, inventory.stock.get(1L));
+    }
+
+    @Test
+    void testTransientFailuresAreRetried() throws Exception {
+        inventory.stock.put(1L, 10);
+        payments.unavailableFor.set(2);
+
+        Long id = checkout(List.of(item(1L, 1)));
+        CheckoutSaga saga = awaitFinished(id);
+
+        assertEquals(CheckoutSagaState.COMPLETED, saga.getState());
+        assertEquals(1, payments.charges.get());
+    }
+
+    @Test
+    void testGivesUpAndCompensatesAfterMaxAttempts() throws Exception {
+        inventory.stock.put(1L, 10);
+        payments.unavailableFor.set(Integer.MAX_VALUE);
+
+        Long id = checkout(List.of(item(1L, 1)));
+        CheckoutSaga saga = awaitFinished(id);
+
+        assertEquals(CheckoutSagaState.FAILED, saga.getState());
+        assertTrue(saga.getFailureReason().startsWith("Gave up after 3 attempts"));
+        assertEquals(10, inventory.stock.get(1L));
+    }
+
+    @Test
+    void testRefusedCredentialsAreRetriedRatherThanCompensated() throws Exception {
+        inventory.stock.put(1L, 10);
+        payments.unauthorizedFor.set(2);
+
+        Long id = checkout(List.of(item(1L, 1)));
+        CheckoutSaga saga = awaitFinished(id);
+
+        assertEquals(CheckoutSagaState.COMPLETED, saga.getState());
+        assertEquals("CONFIRMED", orderService.getOrderById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testFailingCompensationIsParked() throws Exception {
+        inventory.stock.put(1L, 10);
+        payments.decline = true;
+        inventory.releaseUnavailable = true;
+
+        Long id = checkout(List.of(item(1L, 1)));
+        CheckoutSaga saga = awaitFinished(id);
+
+        assertEquals(CheckoutSagaState.PARKED, saga.getState());
+        assertTrue(saga.getFailureReason().startsWith("Compensation gave up after 3 attempts"));
+        assertEquals("PENDING", orderService.getOrderById(id).orElseThrow().getStatus());
+        assertEquals(1.0, meterRegistry.get("checkout.sagas.parked").gauge().value());
+        // The sweep leaves it alone.
+        assertEquals(0, orchestrator.resumeDue());
+    }
+
+    @Test
+    void testCancelDuringConfirmationIsKeptAndRefunded() throws Exception {
+        inventory.stock.put(1L, 10);
+        AtomicLong orderId = new AtomicLong();
+        inventory.onConfirm = () -> orderService.updateOrderStatus(orderId.get(), "CANCELLED");
+        doAnswer(invocation -> {
+            orderId.compareAndSet(0, invocation.getArgument(0));
+            return inventory.getReservationsByOrderId(invocation.getArgument(0));
+        }).when(inventoryClient).getReservationsByOrderId(any());
+
+        Long id = checkout(List.of(item(1L, 1)));
+        CheckoutSaga saga = awaitFinished(id);
+
+        assertEquals(CheckoutSagaState.FAILED, saga.getState());
+        assertEquals("CANCELLED", orderService.getOrderById(id).orElseThrow().getStatus());
+        assertEquals("REFUNDED", payments.payments.get(id).getStatus());
+    }
+
+    @Test
+    void testResumesFromStoredStateAfterLeaseLapses() throws Exception {
+        inventory.stock.put(1L, 10);
+        // A worker reserved the stock, recorded the step and died before charging.
+        Long id = orderService.createOrder(new OrderRequest(5L, List.of(item(1L, 2)), null)).getId();
+        inventory.reserve(new ReservationRequest(1L, id, 2, 900L));
+        sagaRepository.save(new CheckoutSaga(id, CheckoutSagaState.STOCK_RESERVED, null, 0, null,
+                LocalDateTime.now().minusSeconds(1), null, null, null));
+
+        assertEquals(1, orchestrator.resumeDue());
+        CheckoutSaga saga = awaitFinished(id);
+
+        assertEquals(CheckoutSagaState.COMPLETED, saga.getState());
+        assertEquals(1, inventory.reservations.size());
+        assertEquals(8, inventory.stock.get(1L));
+        assertEquals(0, orchestrator.resumeDue());
+    }
+
+    @Test
+    void testManyConcurrentCheckouts() throws Exception {
+        inventory.stock.put(1L, 1_000_000);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add(checkout(List.of(item(1L, 1))));
+        }
+        for (Long id : ids) {
+            assertEquals(CheckoutSagaState.COMPLETED, awaitFinished(id).getState());
+        }
+        assertEquals(1_000_000 - 200, inventory.stock.get(1L));
+    }
+
+    private Long checkout(List<OrderItemRequest> items) {
+        OrderRequest request = new OrderRequest(5L, items, null);
+        Map<Long, BigDecimal> prices = items.stream()
+                .collect(Collectors.toMap(OrderItemRequest::getProductId, item -> BigDecimal.TEN, (a, b) -> a));
+        return orderService.checkout(request, prices).getId();
+    }
+
+    private CheckoutSaga awaitFinished(Long orderId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (System.currentTimeMillis() < deadline) {
+            orchestrator.resumeDue();
+            CheckoutSaga saga = sagaRepository.findById(orderId).orElseThrow();
+            if (saga.getState() == CheckoutSagaState.COMPLETED || saga.getState() == CheckoutSagaState.FAILED
+                    || saga.getState() == CheckoutSagaState.PARKED) {
+                return saga;
+            }
+            Thread.sleep(20);
+        }
+        fail("Saga for order " + orderId + " did not finish");
+        return null;
+    }
+
+    private static OrderItemRequest item(Long productId, int quantity) {
+        return new OrderItemRequest(productId, quantity, BigDecimal.ONE);
+    }
+
+    private static Request request(String url) {
+        return Request.create(Request.HttpMethod.POST, url, Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+    }
+
+    static class FakeInventory implements InventoryServiceClient {
+        final Map<Long, Integer> stock = new ConcurrentHashMap<>();
+        final Map<Long, ReservationResponse> reservations = new ConcurrentHashMap<>();
+        final Set<Long> unconfirmable = ConcurrentHashMap.newKeySet();
+        volatile Runnable onConfirm;
+        volatile boolean releaseUnavailable;
+        private final AtomicLong ids = new AtomicLong();
+
+        @Override
+        public synchronized ReservationResponse reserve(ReservationRequest request) {
+            int available = stock.getOrDefault(request.getProductId(), 0);
+            if (available < request.getQuantity()) {
+                throw new FeignException.BadRequest("Bad Request", request("/api/inventory/reservations"), null, null);
+            }
+            stock.put(request.getProductId(), available - request.getQuantity());
+            ReservationResponse reservation = new ReservationResponse(ids.incrementAndGet(), request.getProductId(),
+                    request.getOrderId(), request.getQuantity(), ReservationResponse.ACTIVE, null);
+            reservations.put(reservation.getId(), reservation);
+            return reservation;
+        }
+
+        @Override
+        public List<ReservationResponse> getReservationsByOrderId(Long orderId) {
+            return reservations.values().stream()
+                    .filter(r -> r.getOrderId().equals(orderId))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public synchronized List<ReservationResponse> confirmOrder(Long orderId) {
+            if (onConfirm != null) {
+                onConfirm.run();
+            }
+            List<ReservationResponse> ofOrder = getReservationsByOrderId(orderId);
+            for (ReservationResponse reservation : ofOrder) {
+                if (unconfirmable.contains(reservation.getProductId())) {
+                    throw new FeignException.Conflict("Conflict",
+                            request("/api/inventory/reservations/order/" + orderId + "/confirm"), null, null);
+                }
+            }
+            ofOrder.forEach(reservation -> reservation.setStatus(ReservationResponse.CONFIRMED));
+            return ofOrder;
+        }
+
+        @Override
+        public synchronized ReservationResponse release(Long id) {
+            if (releaseUnavailable) {
+                throw new FeignException.ServiceUnavailable("Service Unavailable",
+                        request("/api/inventory/reservations/" + id + "/release"), null, null);
+            }
+            ReservationResponse reservation = reservations.get(id);
+            if (ReservationResponse.ACTIVE.equals(reservation.getStatus())) {
+                reservation.setStatus("RELEASED");
+                stock.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+            }
+            return reservation;
+        }
+    }
+
+    static class FakePayments implements PaymentServiceClient {
+        final Map<Long, PaymentRequest> byOrder = new ConcurrentHashMap<>();
+        final Map<Long, PaymentResponse> payments = new ConcurrentHashMap<>();
+        final AtomicInteger charges = new AtomicInteger();
+        final AtomicInteger unavailableFor = new AtomicInteger();
+        final AtomicInteger unauthorizedFor = new AtomicInteger();
+        volatile boolean decline;
+        volatile boolean pending;
+        private final AtomicLong ids = new AtomicLong();
+
+        @Override
+        public PaymentResponse processPayment(PaymentRequest paymentRequest) {
+            if (unauthorizedFor.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+                throw new FeignException.Unauthorized("Unauthorized", request("/api/payments/process"), null, null);
+            }
+            if (unavailableFor.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+                throw new FeignException.ServiceUnavailable("Service Unavailable", request("/api/payments/process"),
+                        null, null);
+            }
+            PaymentResponse payment = new PaymentResponse();
+            payment.setId(ids.incrementAndGet());
+            payment.setStatus(decline ? "FAILED" : pending ? "PENDING" : "COMPLETED");
+            charges.incrementAndGet();
+            byOrder.put(paymentRequest.getOrderId(), paymentRequest);
+            payments.put(paymentRequest.getOrderId(), payment);
+            return payment;
+        }
+
+        @Override
+        public PaymentResponse getPaymentByOrderId(Long orderId) {
+            PaymentResponse payment = payments.get(orderId);
+            if (payment == null) {
+                throw new FeignException.NotFound("Not Found", request("/api/payments/order/" + orderId), null, null);
+            }
+            return payment;
+        }
+
+        @Override
+        public PaymentResponse refundPayment(Long id) {
+            PaymentResponse payment = payments.values().stream()
+                    .filter(p -> p.getId().equals(id))
+                    .findFirst()
+                    .orElseThrow();
+            payment.setStatus("REFUNDED");
+            return payment;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.BulkOrderResult;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "order.bulk.chunk-size=3")
+@ActiveProfiles("test")
+class OrderBulkImportTest {
+
+    private static final String VALID =
+            "{\"userId\":1,\"shippingAddress\":\"1 Main Street\",\"items\":[{\"productId\":7,\"quantity\":2,\"unitPrice\":10}]}";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private ProductPriceResolver priceResolver;
+
+    @BeforeEach
+    void setUp() {
+        when(priceResolver.resolve(any())).thenReturn(Map.of(7L, BigDecimal.valueOf(12)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void testImportSavesValidOrdersInChunks() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 7; i++) {
+            body.append(i == 0 ? "" : ",").append(VALID);
+        }
+        body.append("]");
+
+        List<BulkOrderResult> results = importOrders(body.toString(), 7);
+
+        assertEquals(7, results.size());
+        for (int i = 0; i < 7; i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals(BulkOrderResult.CREATED, results.get(i).getStatus());
+            assertNotNull(results.get(i).getOrderId());
+        }
+        assertEquals(7, orderRepository.count());
+    }
+
+    @Test
+    void testImportRejectsInvalidOrdersIndividually() throws Exception {
+        String body = "[" + VALID + ","
+                + "{\"userId\":1,\"items\":[{\"productId\":7,\"quantity\":0,\"unitPrice\":10}]},"
+                + "{\"userId\":\"abc\",\"items\":[]},"
+                + "42,"
+                + VALID + "]";
+
+        List<BulkOrderResult> results = importOrders(body, 5);
+
+        assertEquals(5, results.size());
+        assertEquals(BulkOrderResult.REJECTED, result(results, 1).getStatus());
+        assertTrue(result(results, 1).getError().contains("items[0].quantity"));
+        assertEquals(BulkOrderResult.REJECTED, result(results, 2).getStatus());
+        assertEquals(BulkOrderResult.REJECTED, result(results, 3).getStatus());
+        assertEquals(BulkOrderResult.CREATED, result(results, 0).getStatus());
+        assertEquals(BulkOrderResult.CREATED, result(results, 4).getStatus());
+        assertEquals(2, orderRepository.count());
+    }
+
+    @Test
+    void testMalformedUploadKeepsOrdersReadSoFar() throws Exception {
+        String body = "[" + VALID + "," + VALID + ",{\"userId\":";
+
+        List<BulkOrderResult> results = importOrders(body, 3);
+
+        assertEquals(3, results.size());
+        assertEquals(BulkOrderResult.CREATED, results.get(0).getStatus());
+        assertEquals(BulkOrderResult.CREATED, results.get(1).getStatus());
+        assertEquals(BulkOrderResult.REJECTED, results.get(2).getStatus());
+        assertTrue(results.get(2).getError().startsWith("Malformed JSON"));
+        assertEquals(2, orderRepository.count());
+    }
+
+    @Test
+    void testImportChargesCurrentPricesAndRejectsUnknownProducts() throws Exception {
+        String body = "[" + VALID + ","
+                + "{\"userId\":1,\"items\":[{\"productId\":7,\"quantity\":1,\"unitPrice\":1},"
+                + "{\"productId\":8,\"quantity\":1,\"unitPrice\":1}]}]";
+
+        List<BulkOrderResult> results = importOrders(body, 2);
+
+        assertEquals(BulkOrderResult.CREATED, result(results, 0).getStatus());
+        assertEquals(BulkOrderResult.REJECTED, result(results, 1).getStatus());
+        assertEquals("Unknown product 8", result(results, 1).getError());
+        // The request's unit price of 10 is ignored.
+        Order order = orderRepository.findWithItemsById(result(results, 0).getOrderId()).orElseThrow();
+        assertEquals(0, BigDecimal.valueOf(24).compareTo(order.getTotalAmount()));
+        assertEquals(0, BigDecimal.valueOf(12).compareTo(order.getItems().get(0).getUnitPrice()));
+    }
+
+    @Test
+    void testImportFailsChunkWhenPricesAreUnavailable() throws Exception {
+        when(priceResolver.resolve(any())).thenReturn(null);
+
+        List<BulkOrderResult> results = importOrders("[" + VALID + "," + VALID + "]", 2);
+
+        assertTrue(results.stream().allMatch(r -> r.getStatus().equals(BulkOrderResult.FAILED)));
+        assertEquals(0, orderRepository.count());
+    }
+
+    private List<BulkOrderResult> importOrders(String body, long expectedRead) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long read = orderService.importOrders(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        assertEquals(expectedRead, read);
+        List<BulkOrderResult> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, BulkOrderResult.class));
+        }
+        return results;
+    }
+
+    private static BulkOrderResult result(List<BulkOrderResult> results, long index) {
+        return results.stream().filter(r -> r.getIndex() == index).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testReadThroughAndEvict() {
+        OrderCache cache = new OrderCache(100, TimeUnit.SECONDS.toNanos(30), now::get);
+
+        assertEquals(1L, cache.get(1L, this::load).orElseThrow().getId());
+        assertEquals(1L, cache.get(1L, this::load).orElseThrow().getId());
+        assertEquals(1, loads.get());
+
+        cache.evict(1L);
+        cache.get(1L, this::load);
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    void testMissingOrdersAreNotCached() {
+        OrderCache cache = new OrderCache(100, TimeUnit.SECONDS.toNanos(30), now::get);
+
+        assertTrue(cache.get(1L, id -> Optional.empty()).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testLoadRacingAnEvictionIsDiscarded() {
+        OrderCache cache = new OrderCache(100, TimeUnit.SECONDS.toNanos(30), now::get);
+
+        // The order's status changes while the loader is reading the database.
+        cache.get(1L, id -> {
+            cache.evict(id);
+            return load(id);
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        OrderCache cache = new OrderCache(100, TimeUnit.SECONDS.toNanos(30), now::get);
+
+        cache.get(1L, this::load);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        cache.get(1L, this::load);
+        assertEquals(1, loads.get());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        cache.get(1L, this::load);
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyReadWhenFull() {
+        // One entry per segment; ids 1 and 17 share a segment.
+        OrderCache cache = new OrderCache(16, TimeUnit.SECONDS.toNanos(30), now::get);
+
+        cache.get(1L, this::load);
+        cache.get(17L, this::load);
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.evictionCount());
+        cache.get(17L, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testPublishesMeters() {
+        OrderCache cache = new OrderCache(100, TimeUnit.SECONDS.toNanos(30), now::get);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.get(1L, id -> {
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(4));
+            return load(id);
+        });
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+
+        assertEquals(2.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(2.0 / 3, registry.get("cache.hit.ratio").gauge().value(), 1e-9);
+        assertEquals(1.0, registry.get("cache.size").gauge().value());
+        assertEquals(4.0, registry.get("cache.load").functionTimer().totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    private Optional<OrderResponse> load(Long id) {
+        loads.incrementAndGet();
+        OrderResponse response = new OrderResponse();
+        response.setId(id);
+        return Optional.of(response);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ordercreate;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class OrderCreateRoundTripTest {
+
+    private static final int WARMUP_ORDERS = 5;
+    private static final int MEASURED_ORDERS = 100;
+    private static final AtomicLong ROUND_TRIPS = new AtomicLong();
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    // Statement executions and batch flushes, counted by wrapping the DataSource.
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void testCreateOrderRoundTripsPerOrder(int items) {
+        OrderRequest request = request(items);
+        for (int i = 0; i < WARMUP_ORDERS; i++) {
+            orderService.createOrder(request);
+        }
+        long roundTrips = ROUND_TRIPS.get();
+        for (int i = 0; i < MEASURED_ORDERS; i++) {
+            assertNotNull(orderService.createOrder(request));
+        }
+        double perOrder = (double) (ROUND_TRIPS.get() - roundTrips) / MEASURED_ORDERS;
+        // INSERTs for the order and its outbox event, one item batch and at most one sequence call per 50 ids.
+        double batches = Math.ceil(items / 50.0);
+        assertTrue(perOrder <= 3 + 2 * batches, items + " items took " + perOrder + " round trips");
+        assertEquals((long) (WARMUP_ORDERS + MEASURED_ORDERS), orderRepository.count());
+    }
+
+    private static OrderRequest request(int items) {
+        List<OrderItemRequest> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            lines.add(new OrderItemRequest((long) i + 1, 2, BigDecimal.valueOf(10)));
+        }
+        return new OrderRequest(1L, lines, "1 Main Street");
+    }
+
+    @TestConfiguration
+    static class RoundTripCounting {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? counting(dataSource, DataSource.class) : bean;
+                }
+            };
+        }
+
+        // Wraps JDBC objects so that connections hand out counting statements and every
+        // execute* call on a statement is one round trip.
+        @SuppressWarnings("unchecked")
+        private static <T> T counting(T target, Class<T> type) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+                if (target instanceof Statement && method.getName().startsWith("execute")) {
+                    ROUND_TRIPS.incrementAndGet();
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getTargetException();
+                }
+                if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                    return counting(connection, Connection.class);
+                }
+                if (result instanceof Statement statement && target instanceof Connection) {
+                    return counting(statement, (Class<Statement>) method.getReturnType());
+                }
+                return result;
+            });
+        }
+    }
+}
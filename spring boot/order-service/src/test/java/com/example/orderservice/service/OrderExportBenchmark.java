@@ -0,0 +1,102 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.OrderServiceApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link OrderExporter} in orders per second, for 100k orders of three items
+ * each against H2, written to a discarding stream. Run the {@link #main} method from the
+ * test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderExportBenchmark {
+
+    private static final int ORDERS = 100_000;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Param({OrderExporter.NDJSON, OrderExporter.CSV})
+    String format;
+
+    ConfigurableApplicationContext context;
+    OrderExporter orderExporter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .profiles("test")
+                // Passed as an argument: default properties would rank below application.yml.
+                .run("--server.port=0");
+        orderExporter = context.getBean(OrderExporter.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public long export() throws IOException {
+        long exported = orderExporter.export(null, null, null, format, OutputStream.nullOutputStream());
+        if (exported != ORDERS) {
+            throw new IllegalStateException("Exported " + exported + " of " + ORDERS + " orders");
+        }
+        return exported;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> orders = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        long itemId = 1;
+        for (long id = 1; id <= ORDERS; id++) {
+            orders.add(new Object[] {id, id % 1000, "PENDING", 30, "1 Main St", now, now});
+            for (int i = 1; i <= ITEMS_PER_ORDER; i++) {
+                items.add(new Object[] {itemId++, id, (long) i, 1, 10, 10});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, user_id, status, total_amount, shipping_address, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", orders);
+        jdbcTemplate.batchUpdate("INSERT INTO order_items (id, order_id, product_id, quantity, unit_price, subtotal) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", items);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderExportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
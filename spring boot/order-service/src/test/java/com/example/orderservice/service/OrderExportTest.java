@@ -0,0 +1,124 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A fetch size smaller than the result makes the cursor fetch more than once.
+@SpringBootTest(properties = "order.export.fetch-size=3")
+@ActiveProfiles("test")
+class OrderExportTest {
+
+    @Autowired
+    private OrderExporter orderExporter;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void testNdjsonExportNestsItemsUnderTheirOrder() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            ids.add(orderService.createOrder(request(i)).getId());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(5, orderExporter.export(null, null, null, OrderExporter.NDJSON, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            OrderResponse exported = objectMapper.readValue(lines[i], OrderResponse.class);
+            OrderResponse stored = orderService.getOrderById(ids.get(i)).orElseThrow();
+            assertEquals(stored.getId(), exported.getId());
+            assertEquals(i + 1, exported.getItems().size());
+            assertEquals(0, stored.getTotalAmount().compareTo(exported.getTotalAmount()));
+            assertEquals(stored.getItems().get(i).getProductId(), exported.getItems().get(i).getProductId());
+            assertEquals("PENDING", exported.getStatus());
+        }
+    }
+
+    @Test
+    void testCsvExportWritesOneLinePerItem() throws Exception {
+        OrderRequest quoted = request(2);
+        quoted.setShippingAddress("1 Main St, \"Apt 2\"");
+        Long id = orderService.createOrder(quoted).getId();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1, orderExporter.export(null, null, null, OrderExporter.CSV, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(OrderExporter.CSV_HEADER, lines[0]);
+        assertTrue(lines[1].startsWith(id + ",7,PENDING,30.00,\"1 Main St, \"\"Apt 2\"\"\","));
+        assertTrue(lines[2].endsWith(",2,2,10.00,20.00"));
+    }
+
+    @Test
+    void testFiltersByCreatedAtAndStatus() throws Exception {
+        Long old = orderService.createOrder(request(1)).getId();
+        Long confirmed = orderService.createOrder(request(1)).getId();
+        Long pending = orderService.createOrder(request(1)).getId();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(1);
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?", cutoff.minusDays(1), old);
+        orderService.updateOrderStatus(confirmed, OrderStatus.CONFIRMED.name());
+
+        assertEquals(List.of(confirmed, pending), exportedIds(cutoff, null, null));
+        assertEquals(List.of(old), exportedIds(null, cutoff, null));
+        assertEquals(List.of(old, pending), exportedIds(null, null, OrderStatus.PENDING));
+        assertEquals(List.of(pending), exportedIds(cutoff, LocalDateTime.now().plusDays(1), OrderStatus.PENDING));
+        assertEquals(List.of(), exportedIds(null, null, OrderStatus.SHIPPED));
+    }
+
+    private List<Long> exportedIds(LocalDateTime from, LocalDateTime to, OrderStatus status) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExporter.export(from, to, status, OrderExporter.NDJSON, out);
+        List<Long> ids = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                ids.add(objectMapper.readValue(line, OrderResponse.class).getId());
+            }
+        }
+        return ids;
+    }
+
+    private static OrderRequest request(int items) {
+        List<OrderItemRequest> itemRequests = new ArrayList<>();
+        for (int i = 1; i <= items; i++) {
+            itemRequests.add(new OrderItemRequest((long) i, i, BigDecimal.TEN));
+        }
+        return new OrderRequest(7L, itemRequests, null);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderSummary;
+import com.example.orderservice.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class OrderFetchPlanTest {
+
+    private static final int ORDERS = 500;
+    private static final long USER_ID = 42L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ORDERS; i++) {
+            orderService.createOrder(new OrderRequest(USER_ID, List.of(
+                    new OrderItemRequest(1L, 1, BigDecimal.valueOf(5)),
+                    new OrderItemRequest(2L, 3, BigDecimal.valueOf(2))), "1 Main Street"));
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void testListingOrdersBatchFetchesItems() {
+        List<OrderResponse> orders = orderService.getOrdersByUserId(USER_ID);
+
+        assertEquals(ORDERS, orders.size());
+        assertTrue(orders.stream().allMatch(order -> order.getItems().size() == 2));
+        // The orders, then one item query per 100 orders.
+        assertEquals(1 + ORDERS / 100, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSummariesUseOneStatement() {
+        List<OrderSummary> summaries = orderService.getOrderSummariesByUserId(USER_ID);
+
+        assertEquals(ORDERS, summaries.size());
+        assertEquals(2, summaries.get(0).getItemCount());
+        assertEquals("PENDING", summaries.get(0).getStatus());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testDetailReadFetchesItemsWithTheOrder() {
+        Long id = orderService.getOrderSummariesByUserId(USER_ID).get(0).getId();
+        statistics.clear();
+
+        OrderResponse order = orderService.getOrderById(id).orElseThrow();
+
+        assertEquals(2, order.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
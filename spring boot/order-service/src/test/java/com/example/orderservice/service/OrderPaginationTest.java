@@ -0,0 +1,95 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderCursor;
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderPaginationTest {
+
+    private static final long USER_ID = 7L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 25; i++) {
+            created.add(orderService.createOrder(order(USER_ID)).getId());
+        }
+        orderService.createOrder(order(USER_ID + 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void testPagesCoverEveryOrderNewestFirst() {
+        List<Long> seen = readAll(false);
+
+        List<Long> expected = new ArrayList<>(created);
+        Collections.reverse(expected);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void testPagesCoverEveryOrderOldestFirst() {
+        assertEquals(created, readAll(true));
+    }
+
+    @Test
+    void testCursorTokensRoundTrip() {
+        OrderResponse first = orderService.getOrdersPage(USER_ID, null, 1, false).get(0);
+        String token = new OrderCursor(first.getCreatedAt(), first.getId()).encode();
+
+        assertEquals(new OrderCursor(first.getCreatedAt(), first.getId()), OrderCursor.decode(token));
+        assertNull(OrderCursor.decode("not a cursor"));
+        assertNull(OrderCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+
+    private List<Long> readAll(boolean ascending) {
+        List<Long> seen = new ArrayList<>();
+        OrderCursor after = null;
+        List<OrderResponse> page;
+        do {
+            page = orderService.getOrdersPage(USER_ID, after, 10, ascending);
+            for (OrderResponse order : page) {
+                seen.add(order.getId());
+                assertEquals(USER_ID, order.getUserId());
+            }
+            if (!page.isEmpty()) {
+                OrderResponse last = page.get(page.size() - 1);
+                // Cursors travel as tokens, so each page starts from a decoded one.
+                after = OrderCursor.decode(new OrderCursor(last.getCreatedAt(), last.getId()).encode());
+            }
+        } while (page.size() == 10);
+        return seen;
+    }
+
+    private static OrderRequest order(long userId) {
+        return new OrderRequest(userId, List.of(new OrderItemRequest(1L, 1, BigDecimal.ONE)), null);
+    }
+}
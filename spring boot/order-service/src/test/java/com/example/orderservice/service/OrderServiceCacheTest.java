@@ -0,0 +1,60 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceCacheTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void testWritesInvalidateCachedOrders() {
+        Long id = createOrder(1L);
+        assertEquals("PENDING", orderService.getOrderById(id).orElseThrow().getStatus());
+
+        orderService.updateOrderStatus(id, "CONFIRMED");
+        assertEquals("CONFIRMED", orderService.getOrderById(id).orElseThrow().getStatus());
+
+        orderService.cancelOrder(id);
+        assertEquals("CANCELLED", orderService.getOrderById(id).orElseThrow().getStatus());
+
+        orderService.deleteOrder(id);
+        assertTrue(orderService.getOrderById(id).isEmpty());
+    }
+
+    @Test
+    void testOwnerCheckAppliesToCachedOrders() {
+        Long id = createOrder(1L);
+        orderService.getOrderById(id);
+
+        assertTrue(orderService.getOrderById(id, 1L).isPresent());
+        assertTrue(orderService.getOrderById(id, 2L).isEmpty());
+    }
+
+    private Long createOrder(Long userId) {
+        return orderService.createOrder(new OrderRequest(userId,
+                List.of(new OrderItemRequest(1L, 1, BigDecimal.TEN)), null)).getId();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.OrderServiceApplication;
+import com.example.orderservice.dto.OrderStatusResult;
+import com.example.orderservice.entity.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall-clock time of {@link OrderService#updateOrderStatuses} for a wave of 10k orders
+ * moving to SHIPPED from two source statuses, against H2. Every iteration ships a freshly
+ * seeded wave. Run the {@link #main} method from the test classpath.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderStatusBatchBenchmark {
+
+    private static final int ORDERS = 10_000;
+
+    ConfigurableApplicationContext context;
+    OrderService orderService;
+    JdbcTemplate jdbcTemplate;
+    int round;
+    List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .profiles("test")
+                // Passed as an argument: default properties would rank below application.yml.
+                .run("--server.port=0");
+        orderService = context.getBean(OrderService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void seed() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        ids = new ArrayList<>(ORDERS);
+        List<Object[]> rows = new ArrayList<>(ORDERS);
+        for (long i = 1; i <= ORDERS; i++) {
+            long id = round * (long) ORDERS + i;
+            ids.add(id);
+            rows.add(new Object[] {id, id % 1000, i % 2 == 0 ? "CONFIRMED" : "PROCESSING", 30, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, user_id, status, total_amount, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        round++;
+    }
+
+    @Benchmark
+    public List<OrderStatusResult> shipWave() {
+        List<OrderStatusResult> results = orderService.updateOrderStatuses(ids, OrderStatus.SHIPPED);
+        if (!results.stream().allMatch(result -> result.getOutcome().equals(OrderStatusResult.UPDATED))) {
+            throw new IllegalStateException("Not every order of the wave was shipped");
+        }
+        return results;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderStatusBatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
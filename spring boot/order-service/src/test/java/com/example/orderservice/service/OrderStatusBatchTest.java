@@ -0,0 +1,156 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderStatusResult;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.entity.OutboxEvent;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.OutboxEventRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "order.status-batch.chunk-size=100"
+})
+@ActiveProfiles("test")
+class OrderStatusBatchTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void testStateMachine() {
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.CONFIRMED));
+        assertTrue(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.SHIPPED));
+        assertTrue(OrderStatus.PROCESSING.canTransitionTo(OrderStatus.SHIPPED));
+        assertTrue(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.DELIVERED));
+        assertFalse(OrderStatus.PENDING.canTransitionTo(OrderStatus.SHIPPED));
+        assertFalse(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.CANCELLED));
+        assertFalse(OrderStatus.DELIVERED.canTransitionTo(OrderStatus.PENDING));
+        for (OrderStatus next : OrderStatus.values()) {
+            assertFalse(OrderStatus.CANCELLED.canTransitionTo(next));
+            assertFalse(next.canTransitionTo(next));
+        }
+    }
+
+    @Test
+    void testReportsAnOutcomePerOrder() {
+        Long confirmed = createOrder(OrderStatus.CONFIRMED);
+        Long processing = createOrder(OrderStatus.PROCESSING);
+        Long shipped = createOrder(OrderStatus.SHIPPED);
+        Long pending = createOrder(OrderStatus.PENDING);
+        outboxRepository.deleteAll();
+        // Cached before the batch, so a stale read would show the old status.
+        assertEquals("CONFIRMED", orderService.getOrderById(confirmed).orElseThrow().getStatus());
+
+        List<OrderStatusResult> results = orderService.updateOrderStatuses(
+                List.of(confirmed, processing, shipped, pending, -1L, confirmed), OrderStatus.SHIPPED);
+
+        assertEquals(List.of(confirmed, processing, shipped, pending, -1L),
+                results.stream().map(OrderStatusResult::getOrderId).collect(Collectors.toList()));
+        assertEquals(List.of(OrderStatusResult.UPDATED, OrderStatusResult.UPDATED, OrderStatusResult.UNCHANGED,
+                        OrderStatusResult.REJECTED, OrderStatusResult.NOT_FOUND),
+                results.stream().map(OrderStatusResult::getOutcome).collect(Collectors.toList()));
+        assertEquals("PROCESSING", results.get(1).getPreviousStatus());
+        assertEquals("Cannot move from PENDING to SHIPPED", results.get(3).getError());
+
+        assertEquals("SHIPPED", orderService.getOrderById(confirmed).orElseThrow().getStatus());
+        assertEquals("SHIPPED", orderService.getOrderById(processing).orElseThrow().getStatus());
+        assertEquals("PENDING", orderService.getOrderById(pending).orElseThrow().getStatus());
+        assertNotNull(orderRepository.findById(confirmed).orElseThrow().getUpdatedAt());
+
+        Map<Long, OutboxEvent> events = outboxRepository.findAll().stream()
+                .collect(Collectors.toMap(OutboxEvent::getOrderId, event -> event));
+        assertEquals(2, events.size());
+        assertEquals(OrderStatus.CONFIRMED, events.get(confirmed).getPreviousStatus());
+        assertEquals(OrderStatus.PROCESSING, events.get(processing).getPreviousStatus());
+        assertEquals(OrderStatus.SHIPPED, events.get(processing).getStatus());
+        assertEquals(7L, events.get(processing).getUserId());
+        assertEquals(0, new BigDecimal("20").compareTo(events.get(processing).getTotalAmount()));
+    }
+
+    @Test
+    void testSingleUpdatesFollowTheStateMachine() {
+        Long pending = createOrder(OrderStatus.PENDING);
+        Long shipped = createOrder(OrderStatus.SHIPPED);
+        outboxRepository.deleteAll();
+
+        assertThrows(IllegalStateException.class, () -> orderService.updateOrderStatus(pending, "SHIPPED"));
+        assertThrows(IllegalStateException.class, () -> orderService.cancelOrder(shipped));
+        assertEquals("PENDING", orderService.getOrderById(pending).orElseThrow().getStatus());
+        assertEquals("SHIPPED", orderService.getOrderById(shipped).orElseThrow().getStatus());
+        assertEquals(0, outboxRepository.count());
+
+        assertEquals("SHIPPED", orderService.updateOrderStatus(shipped, "SHIPPED").getStatus());
+        assertTrue(orderService.cancelOrder(pending));
+        assertNull(orderService.updateOrderStatus(-1L, "CONFIRMED"));
+        assertFalse(orderService.cancelOrder(-1L));
+    }
+
+    @Test
+    void testUpdatesWithSetBasedStatements() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(createOrder(i % 2 == 0 ? OrderStatus.CONFIRMED : OrderStatus.PROCESSING));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<OrderStatusResult> results = orderService.updateOrderStatuses(ids, OrderStatus.SHIPPED);
+
+        assertTrue(results.stream().allMatch(result -> result.getOutcome().equals(OrderStatusResult.UPDATED)));
+        // Five locking reads and three UPDATEs for each of the two source statuses, plus the
+        // outbox inserts and their id allocations in batches of 50.
+        assertTrue(statistics.getPrepareStatementCount() <= 5 + 2 * 3 + 2 * (500 / 50) + 2,
+                "Prepared " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(500, orderRepository.findAll().stream()
+                .filter(order -> order.getStatus() == OrderStatus.SHIPPED)
+                .count());
+    }
+
+    private Long createOrder(OrderStatus status) {
+        Long id = orderService.createOrder(new OrderRequest(7L,
+                List.of(new OrderItemRequest(1L, 2, BigDecimal.TEN)), null)).getId();
+        // Walks forward one allowed step at a time: PENDING, CONFIRMED, PROCESSING, SHIPPED.
+        for (OrderStatus next : OrderStatus.values()) {
+            if (next.ordinal() > status.ordinal()) {
+                break;
+            }
+            if (next != OrderStatus.PENDING) {
+                orderService.updateOrderStatus(id, next.name());
+            }
+        }
+        return id;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderEvent;
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "order.outbox.batch-size=2")
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderOutbox orderOutbox;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private RecordingSink sink;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay.relay();
+        sink.events.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sink.failing = false;
+        outboxRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void testEventsAreWrittenWithTheOrderAndRelayedInOrder() {
+        Long id = createOrder();
+        orderService.updateOrderStatus(id, "CONFIRMED");
+        orderService.updateOrderStatus(id, "CONFIRMED");
+        orderService.cancelOrder(id);
+        assertEquals(3, outboxRepository.count());
+        assertTrue(sink.events.isEmpty());
+
+        assertEquals(3, outboxRelay.relay());
+
+        assertEquals(List.of(OrderEvent.ORDER_CREATED, OrderEvent.STATUS_CHANGED, OrderEvent.STATUS_CHANGED),
+                sink.events.stream().map(OrderEvent::getType).toList());
+        OrderEvent cancelled = sink.events.get(2);
+        assertEquals(id, cancelled.getOrderId());
+        assertEquals("CONFIRMED", cancelled.getPreviousStatus());
+        assertEquals("CANCELLED", cancelled.getStatus());
+        assertTrue(sink.events.get(0).getEventId() < sink.events.get(1).getEventId());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void testFailedDeliveryIsRetried() {
+        createOrder();
+        sink.failing = true;
+
+        assertThrows(IllegalStateException.class, () -> outboxRelay.relay());
+        assertEquals(1, outboxRepository.count());
+
+        sink.failing = false;
+        assertEquals(1, outboxRelay.relay());
+        assertEquals(1, sink.events.size());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void testRelaysInBatchesAndPublishesMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        outboxRelay.bindTo(registry);
+        double batchesBefore = registry.get("order.outbox.batches").functionCounter().count();
+        for (int i = 0; i < 5; i++) {
+            createOrder();
+        }
+
+        assertEquals(5, outboxRelay.relay());
+
+        assertEquals(3, registry.get("order.outbox.batches").functionCounter().count() - batchesBefore);
+        assertEquals(0.0, registry.get("order.outbox.lag").gauge().value());
+        assertTrue(registry.get("order.outbox.delivery").functionTimer().count() >= 5);
+    }
+
+    @Test
+    void testEventsRequireTheOrderTransaction() {
+        Order order = new Order();
+        assertThrows(IllegalTransactionStateException.class, () -> orderOutbox.orderCreated(List.of(order)));
+    }
+
+    private Long createOrder() {
+        return orderService.createOrder(new OrderRequest(1L,
+                List.of(new OrderItemRequest(1L, 1, BigDecimal.TEN)), null)).getId();
+    }
+
+    @TestConfiguration
+    static class SinkConfig {
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+
+    static class RecordingSink implements OrderEventSink {
+        final List<OrderEvent> events = new ArrayList<>();
+        volatile boolean failing;
+
+        @Override
+        public void publish(List<OrderEvent> batch) {
+            if (failing) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            events.addAll(batch);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.dto.ProductDto;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ProductPriceResolverTest {
+
+    private final ProductServiceClient client = mock(ProductServiceClient.class);
+    private ProductPriceResolver resolver;
+
+    @AfterEach
+    void tearDown() {
+        resolver.shutdown();
+    }
+
+    @Test
+    void testFiftyProductsTakeOneRoundTrip() {
+        resolver = new ProductPriceResolver(client, 64, 100, 200, 1000, 2000);
+        AtomicInteger calls = new AtomicInteger();
+        when(client.getProductsByIds(anyCollection())).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            Thread.sleep(100);
+            return products(invocation.getArgument(0), 10);
+        });
+        List<Long> productIds = LongStream.rangeClosed(1, 50).boxed().collect(Collectors.toList());
+
+        long started = System.nanoTime();
+        Map<Long, BigDecimal> prices = resolver.resolve(productIds);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(50, prices.size());
+        assertEquals(BigDecimal.valueOf(10), prices.get(7L));
+        assertEquals(1, calls.get());
+        assertTrue(elapsedMillis < 500, "50 lookups took " + elapsedMillis + " ms");
+        verify(client, never()).getProductById(anyLong());
+    }
+
+    @Test
+    void testBatchesRunSideBySide() {
+        resolver = new ProductPriceResolver(client, 64, 100, 10, 1000, 2000);
+        when(client.getProductsByIds(anyCollection())).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return products(invocation.getArgument(0), 10);
+        });
+        List<Long> productIds = LongStream.rangeClosed(1, 50).boxed().collect(Collectors.toList());
+
+        long started = System.nanoTime();
+        Map<Long, BigDecimal> prices = resolver.resolve(productIds);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(50, prices.size());
+        verify(client, times(5)).getProductsByIds(anyCollection());
+        assertTrue(elapsedMillis < 400, "5 batches took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testEachProductIsLookedUpOnce() {
+        resolver = new ProductPriceResolver(client, 4, 100, 1, 1000, 2000);
+        AtomicInteger lookedUp = new AtomicInteger();
+        when(client.getProductsByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            lookedUp.addAndGet(ids.size());
+            return products(ids, 3);
+        });
+
+        Map<Long, BigDecimal> prices = resolver.resolve(List.of(1L, 2L, 1L, 2L, 1L));
+
+        assertEquals(2, prices.size());
+        assertEquals(2, lookedUp.get());
+    }
+
+    @Test
+    void testUnknownProductsAreLeftOut() {
+        resolver = new ProductPriceResolver(client, 4, 100, 200, 1000, 2000);
+        when(client.getProductsByIds(anyCollection())).thenReturn(List.of(product(1L, 5)));
+
+        Map<Long, BigDecimal> prices = resolver.resolve(List.of(1L, 2L));
+
+        assertEquals(Map.of(1L, BigDecimal.valueOf(5)), prices);
+    }
+
+    @Test
+    void testFallsBackToSingleLookupsWithoutTheBatchEndpoint() {
+        resolver = new ProductPriceResolver(client, 4, 100, 200, 1000, 2000);
+        when(client.getProductsByIds(anyCollection()))
+                .thenThrow(new FeignException.NotFound("Not Found", request("/api/products/batch"), null, null));
+        when(client.getProductById(1L)).thenReturn(product(1L, 5));
+        when(client.getProductById(2L))
+                .thenThrow(new FeignException.NotFound("Not Found", request("/api/products/2"), null, null));
+
+        assertEquals(Map.of(1L, BigDecimal.valueOf(5)), resolver.resolve(List.of(1L, 2L)));
+        assertEquals(Map.of(1L, BigDecimal.valueOf(5)), resolver.resolve(List.of(1L, 2L)));
+        // The batch endpoint is not tried again for a while.
+        verify(client, times(1)).getProductsByIds(anyCollection());
+    }
+
+    @Test
+    void testSlowLookupFailsTheOrder() {
+        resolver = new ProductPriceResolver(client, 4, 100, 1, 50, 2000);
+        when(client.getProductsByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            if (ids.contains(2L)) {
+                Thread.sleep(500);
+            }
+            return products(ids, 1);
+        });
+
+        long started = System.nanoTime();
+        assertNull(resolver.resolve(List.of(1L, 2L, 3L)));
+        assertTrue((System.nanoTime() - started) / 1_000_000 < 400);
+    }
+
+    @Test
+    void testOverallDeadlineFailsTheOrder() {
+        // Two workers for six batches of 100 ms each need three rounds, past the 150 ms deadline.
+        resolver = new ProductPriceResolver(client, 2, 100, 1, 1000, 150);
+        when(client.getProductsByIds(anyCollection())).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return products(invocation.getArgument(0), 1);
+        });
+
+        assertNull(resolver.resolve(List.of(1L, 2L, 3L, 4L, 5L, 6L)));
+    }
+
+    @Test
+    void testFullQueueRefusesTheOrder() {
+        resolver = new ProductPriceResolver(client, 1, 1, 1, 1000, 2000);
+        when(client.getProductsByIds(anyCollection())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return products(invocation.getArgument(0), 1);
+        });
+
+        assertNull(resolver.resolve(List.of(1L, 2L, 3L)));
+    }
+
+    private static List<ProductDto> products(Collection<Long> ids, int price) {
+        return ids.stream().map(id -> product(id, price)).collect(Collectors.toList());
+    }
+
+    private static Request request(String url) {
+        return Request.create(Request.HttpMethod.GET, url, Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+    }
+
+    private static ProductDto product(Long id, int price) {
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setPrice(BigDecimal.valueOf(price));
+        return product;
+    }
+}
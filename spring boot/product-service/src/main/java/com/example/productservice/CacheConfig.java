@@ -0,0 +1,31 @@
+package com.example.productservice;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// Caches are declared up front so Boot's cache metrics bind them at startup as cache.* meters.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PRODUCT_SUMMARIES = "product-summaries";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${product.cache.max-entries:100000}") long maxEntries,
+                                     @Value("${product.cache.ttl-seconds:30}") long ttlSeconds) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PRODUCT_SUMMARIES);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats());
+        // Products that do not exist are left out of lookups rather than cached as null.
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.productservice.controller;
 
+import com.example.productservice.dto.ProductFacets;
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.dto.ProductSummary;
 import com.example.productservice.entity.Product;
+import com.example.productservice.service.ProductSuggester;
 import com.example.productservice.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -9,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
@@ -17,9 +22,18 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    // With categoryTree, only the products in that category and the categories below it.
     @GetMapping
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productService.getAllProducts(pageable);
+    public ResponseEntity<Page<Product>> getAllProducts(
+            @RequestParam(required = false) Long categoryTree, Pageable pageable) {
+        if (categoryTree == null) {
+            return ResponseEntity.ok(productService.getAllProducts(pageable));
+        }
+        Page<Product> products = productService.getProductsInCategoryTree(categoryTree, pageable);
+        if (products == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(products);
     }
 
     @GetMapping("/{id}")
@@ -29,6 +43,16 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Slim summaries of up to ProductService.MAX_BATCH_SIZE products, in the order asked for;
+    // ids of products that do not exist are left out.
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductSummary>> getProductsByIds(@RequestBody List<Long> ids) {
+        if (ids.size() > ProductService.MAX_BATCH_SIZE || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.getProductSummaries(ids));
+    }
+
     @PostMapping
     public Product createProduct(@Valid @RequestBody Product product) {
         return productService.createProduct(product);
@@ -49,8 +73,35 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    // Products whose name or description contains every word of q, best matches first.
     @GetMapping("/search")
-    public List<Product> searchProducts(@RequestParam String q) {
-        return productService.searchProducts(q);
+    public Page<Product> searchProducts(@RequestParam String q, Pageable pageable) {
+        return productService.searchProducts(q, pageable);
+    }
+
+    // Names starting with the prefix, or with a word in them that does, most looked-up first.
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "" + ProductSuggester.MAX_SUGGESTIONS) int limit) {
+        if (limit < 1 || limit > ProductSuggester.MAX_SUGGESTIONS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    // Ids of the products in a category and its subcategories, price bands and stock state, with
+    // counts for every facet value. Price bands are numbered from 0 by product.facets.price-bands.
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacets> filterProducts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Set<Integer> priceBand,
+            @RequestParam(required = false) Boolean inStock,
+            Pageable pageable) {
+        ProductFacets facets = productService.filterProducts(categoryId, priceBand, inStock, pageable);
+        if (facets == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(facets);
     }
-}
\ No newline at end of file
+}
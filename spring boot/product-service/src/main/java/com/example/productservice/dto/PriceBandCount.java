@@ -0,0 +1,17 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBandCount {
+    private int band;
+    private BigDecimal min;
+    // Null for the top band.
+    private BigDecimal max;
+    private long count;
+}
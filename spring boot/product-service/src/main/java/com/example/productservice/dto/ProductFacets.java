@@ -0,0 +1,20 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+    private Page<Long> productIds;
+    // By category id, each including its subcategories.
+    private Map<Long, Long> categoryCounts;
+    private List<PriceBandCount> priceBands;
+    private long inStockCount;
+    private long outOfStockCount;
+}
@@ -0,0 +1,19 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+// One product and one of its images, or a null image for a product without any.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryRow {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Long categoryId;
+    private String image;
+}
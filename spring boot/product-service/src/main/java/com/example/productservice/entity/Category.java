@@ -24,6 +24,10 @@ public class Category {
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL)
     private List<Category> subcategories;
 
+    // Ids from the root down to this category, as /1/4/9/; kept up to date by CategoryService.
+    @Column(length = 1024)
+    private String path;
+
     // Default constructor
     public Category() {}
 
@@ -74,4 +78,12 @@ public class Category {
     public void setSubcategories(List<Category> subcategories) {
         this.subcategories = subcategories;
     }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
 }
\ No newline at end of file
@@ -2,7 +2,20 @@ package com.example.productservice.repository;
 
 import com.example.productservice.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
-}
\ No newline at end of file
+    @Query("SELECT c.path FROM Category c WHERE c.path IS NOT NULL")
+    List<String> findAllPaths();
+
+    // Rewrites the paths of a category and everything below it when it moves.
+    @Modifying
+    @Query("UPDATE Category c SET c.path = CONCAT(:newPath, SUBSTRING(c.path, LENGTH(:oldPath) + 1)) "
+            + "WHERE c.path LIKE CONCAT(:oldPath, '%')")
+    int movePaths(@Param("oldPath") String oldPath, @Param("newPath") String newPath);
+
+}
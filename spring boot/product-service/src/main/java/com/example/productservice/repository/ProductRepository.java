@@ -1,7 +1,13 @@
 package com.example.productservice.repository;
 
+import com.example.productservice.dto.ProductSummaryRow;
 import com.example.productservice.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -10,4 +16,11 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByCategoryId(Long categoryId);
 
+    Page<Product> findByCategoryIdIn(Collection<Long> categoryIds, Pageable pageable);
+
+    // The products and their images in one statement, without loading the categories.
+    @Query("SELECT new com.example.productservice.dto.ProductSummaryRow(p.id, p.name, p.price, p.stockQuantity, "
+            + "p.category.id, i) FROM Product p LEFT JOIN p.images i WHERE p.id IN :ids")
+    List<ProductSummaryRow> findSummaryRowsByIdIn(@Param("ids") Collection<Long> ids);
+
 }
\ No newline at end of file
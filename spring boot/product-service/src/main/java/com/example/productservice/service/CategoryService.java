@@ -4,6 +4,7 @@ import com.example.productservice.entity.Category;
 import com.example.productservice.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +14,9 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryTreeCache categoryTree;
+
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
@@ -21,23 +25,62 @@ public class CategoryService {
         return categoryRepository.findById(id);
     }
 
+    // Null if the parent does not exist.
+    @Transactional
     public Category createCategory(Category category) {
-        return categoryRepository.save(category);
+        Category parent = null;
+        if (category.getParent() != null) {
+            parent = categoryRepository.findById(category.getParent().getId()).orElse(null);
+            if (parent == null) {
+                return null;
+            }
+        }
+        category.setParent(parent);
+        Category savedCategory = categoryRepository.save(category);
+        // The path ends with the category's own id, known only once it is inserted.
+        savedCategory.setPath(pathOf(parent) + savedCategory.getId() + "/");
+        categoryTree.refresh();
+        return savedCategory;
     }
 
+    // Null if the category or its new parent does not exist, or the parent is the category
+    // itself or below it.
+    @Transactional
     public Category updateCategory(Long id, Category categoryDetails) {
         Optional<Category> optionalCategory = categoryRepository.findById(id);
         if (optionalCategory.isPresent()) {
             Category category = optionalCategory.get();
+            Category parent = null;
+            if (categoryDetails.getParent() != null) {
+                parent = categoryRepository.findById(categoryDetails.getParent().getId()).orElse(null);
+                if (parent == null || parent.getPath().startsWith(category.getPath())) {
+                    return null;
+                }
+            }
             category.setName(categoryDetails.getName());
             category.setDescription(categoryDetails.getDescription());
-            category.setParent(categoryDetails.getParent());
-            return categoryRepository.save(category);
+            category.setParent(parent);
+            String path = pathOf(parent) + category.getId() + "/";
+            if (!path.equals(category.getPath())) {
+                // Moves the whole subtree in one statement.
+                categoryRepository.movePaths(category.getPath(), path);
+                category.setPath(path);
+            }
+            Category updatedCategory = categoryRepository.save(category);
+            categoryTree.refresh();
+            return updatedCategory;
         }
         return null;
     }
 
+    // Subcategories are removed along with the category.
+    @Transactional
     public void deleteCategory(Long id) {
         categoryRepository.deleteById(id);
+        categoryTree.refresh();
+    }
+
+    private static String pathOf(Category parent) {
+        return parent == null ? "/" : parent.getPath();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package com.example.productservice.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable copy of the whole category tree, built from the categories' materialized paths.
+ *
+ * Categories are laid out in preorder, each subtree as one contiguous run starting at its
+ * root, so the descendants of a category are a slice of that order and "is A below B" is a
+ * comparison of positions. Siblings are ordered by id.
+ */
+public final class CategoryTree {
+    static final CategoryTree EMPTY = of(List.of());
+
+    private final Map<Long, Integer> positions;
+    private final long[] preorder;
+    // The position just past each category's subtree.
+    private final int[] ends;
+    private final Long[] parents;
+
+    private CategoryTree(Map<Long, Integer> positions, long[] preorder, int[] ends, Long[] parents) {
+        this.positions = positions;
+        this.preorder = preorder;
+        this.ends = ends;
+        this.parents = parents;
+    }
+
+    /**
+     * Builds the tree from paths such as /1/4/9/, which make 9 a child of 4. A category whose
+     * parent is not among the paths is taken as a root.
+     */
+    public static CategoryTree of(Collection<String> paths) {
+        Map<Long, Long> parentOf = new HashMap<>();
+        for (String path : paths) {
+            String[] ids = path.substring(1).split("/");
+            Long id = Long.valueOf(ids[ids.length - 1]);
+            parentOf.put(id, ids.length > 1 ? Long.valueOf(ids[ids.length - 2]) : null);
+        }
+        Map<Long, List<Long>> children = new TreeMap<>();
+        List<Long> roots = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : parentOf.entrySet()) {
+            Long parent = entry.getValue();
+            if (parent == null || !parentOf.containsKey(parent)) {
+                roots.add(entry.getKey());
+            } else {
+                children.computeIfAbsent(parent, id -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+        Collections.sort(roots);
+        children.values().forEach(Collections::sort);
+
+        int size = parentOf.size();
+        Map<Long, Integer> positions = new HashMap<>(size * 2);
+        long[] preorder = new long[size];
+        int[] ends = new int[size];
+        Long[] parents = new Long[size];
+        // Categories that inconsistent paths put in a cycle are not below any root; each of
+        // them that is still left over is laid out as one, cutting the cycle there.
+        List<Long> starts = new ArrayList<>(roots);
+        starts.addAll(new TreeMap<>(parentOf).keySet());
+        int next = 0;
+        Deque<Long> stack = new ArrayDeque<>();
+        for (Long start : starts) {
+            if (positions.containsKey(start)) {
+                continue;
+            }
+            stack.push(start);
+            while (!stack.isEmpty()) {
+                Long id = stack.pop();
+                Long parent = parentOf.get(id);
+                positions.put(id, next);
+                preorder[next] = id;
+                parents[next++] = id.equals(start) ? null : parent;
+                List<Long> below = children.getOrDefault(id, List.of());
+                for (int i = below.size() - 1; i >= 0; i--) {
+                    if (!positions.containsKey(below.get(i))) {
+                        stack.push(below.get(i));
+                    }
+                }
+            }
+        }
+        // Subtree sizes, summed from the last position back so children come before parents.
+        int[] sizes = new int[size];
+        for (int position = size - 1; position >= 0; position--) {
+            sizes[position]++;
+            ends[position] = position + sizes[position];
+            if (parents[position] != null) {
+                sizes[positions.get(parents[position])] += sizes[position];
+            }
+        }
+        return new CategoryTree(positions, preorder, ends, parents);
+    }
+
+    public int size() {
+        return preorder.length;
+    }
+
+    public boolean contains(Long categoryId) {
+        return positions.containsKey(categoryId);
+    }
+
+    // Null for a root or a category not in the tree.
+    public Long parentOf(Long categoryId) {
+        Integer position = positions.get(categoryId);
+        return position == null ? null : parents[position];
+    }
+
+    // Whether the category is the ancestor or below it.
+    public boolean isWithin(Long categoryId, Long ancestorId) {
+        if (categoryId.equals(ancestorId)) {
+            return true;
+        }
+        Integer position = positions.get(categoryId);
+        Integer ancestor = positions.get(ancestorId);
+        return position != null && ancestor != null && position > ancestor && position < ends[ancestor];
+    }
+
+    // The category followed by all of its descendants, in preorder; empty if it is not in the tree.
+    public List<Long> subtree(Long categoryId) {
+        Integer position = positions.get(categoryId);
+        if (position == null) {
+            return List.of();
+        }
+        List<Long> subtree = new ArrayList<>(ends[position] - position);
+        for (int i = position; i < ends[position]; i++) {
+            subtree.add(preorder[i]);
+        }
+        return subtree;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.productservice.service;
+
+import com.example.productservice.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The current {@link CategoryTree}. Readers take the snapshot without locking and keep a
+ * consistent tree for as long as they hold it; a change to the categories builds a whole new
+ * tree from their paths in one query and swaps it in.
+ */
+@Component
+public class CategoryTreeCache {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private volatile CategoryTree tree = CategoryTree.EMPTY;
+
+    public CategoryTree snapshot() {
+        return tree;
+    }
+
+    // Reloads once the current transaction commits, so the new tree never shows uncommitted
+    // categories, or at once outside of one.
+    public void refresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    // Serialized, so a reload that read the table earlier cannot swap in its tree last.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        tree = CategoryTree.of(categoryRepository.findAllPaths());
+    }
+}
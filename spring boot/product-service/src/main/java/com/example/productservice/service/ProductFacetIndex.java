@@ -0,0 +1,358 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.PriceBandCount;
+import com.example.productservice.dto.ProductFacets;
+import com.example.productservice.entity.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap indexes for filtering the catalogue by category, price band and stock, with a count
+ * for every value of each facet.
+ *
+ * Every product is a document numbered in the order it was first indexed, which is id order
+ * for a catalogue loaded by id and then grown by inserts. Each category, price band and stock
+ * state keeps a {@link DocBitmap} of its documents, and the matching products are the AND of
+ * the bitmaps of the chosen values, each an OR over its values: a category takes in its
+ * subcategories, and several price bands match any of them.
+ *
+ * Each facet is counted under the other facets' filters but not its own, so the counts show
+ * what choosing another value would return; category counts include subcategories. The counts
+ * come from a table of products per category, price band and stock state, kept alongside the
+ * bitmaps, so they cost one pass over a few cells per category whatever the catalogue size.
+ *
+ * Price bands are split at {@code product.facets.price-bands}: with bounds 10 and 25 the bands
+ * are [0, 10), [10, 25) and [25, ∞). Subcategories are taken from the current
+ * {@link CategoryTree} at each query. {@link ProductService} loads the index with the search
+ * index and keeps it current. The documents of deleted products stay numbered, unused, until
+ * the next rebuild.
+ */
+@Component
+public class ProductFacetIndex {
+    private static final long NO_CATEGORY = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CategoryTreeCache categoryTree;
+    private final BigDecimal[] priceBounds;
+    private final DocNumbers docsByProduct = new DocNumbers();
+    private final Map<Long, DocBitmap> byCategory = new HashMap<>();
+    // Products by category, or NO_CATEGORY, then by price band and stock state.
+    private final Map<Long, int[]> counts = new HashMap<>();
+    private DocBitmap live = new DocBitmap();
+    private DocBitmap[] byPriceBand;
+    private DocBitmap inStock = new DocBitmap();
+    private DocBitmap outOfStock = new DocBitmap();
+    private long[] productIds = new long[1024];
+    private long[] categories = new long[1024];
+    // Price band times two, plus one if in stock: the product's cell in counts.
+    private byte[] cells = new byte[1024];
+    private int nextDoc;
+
+    public ProductFacetIndex(CategoryTreeCache categoryTree,
+            @Value("${product.facets.price-bands:10,25,50,100,250,500,1000}") BigDecimal[] priceBounds) {
+        this.categoryTree = categoryTree;
+        this.priceBounds = priceBounds.clone();
+        Arrays.sort(this.priceBounds);
+        this.byPriceBand = newBitmaps(priceBandCount());
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            docsByProduct.clear();
+            byCategory.clear();
+            counts.clear();
+            live = new DocBitmap();
+            byPriceBand = newBitmaps(priceBandCount());
+            inStock = new DocBitmap();
+            outOfStock = new DocBitmap();
+            nextDoc = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds the product, replacing what was indexed for it before.
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            int doc = docsByProduct.get(product.getId());
+            if (doc >= 0) {
+                unset(doc);
+            } else {
+                doc = nextDoc++;
+                if (doc == productIds.length) {
+                    productIds = Arrays.copyOf(productIds, doc * 2);
+                    categories = Arrays.copyOf(categories, doc * 2);
+                    cells = Arrays.copyOf(cells, doc * 2);
+                }
+                productIds[doc] = product.getId();
+                docsByProduct.put(product.getId(), doc);
+                live.add(doc);
+            }
+            categories[doc] = product.getCategory() == null ? NO_CATEGORY : product.getCategory().getId();
+            if (categories[doc] != NO_CATEGORY) {
+                byCategory.computeIfAbsent(categories[doc], id -> new DocBitmap()).add(doc);
+            }
+            int band = priceBand(product.getPrice());
+            byPriceBand[band].add(doc);
+            boolean available = product.getStockQuantity() != null && product.getStockQuantity() > 0;
+            (available ? inStock : outOfStock).add(doc);
+            cells[doc] = (byte) (band * 2 + (available ? 1 : 0));
+            counts.computeIfAbsent(categories[doc], id -> new int[priceBandCount() * 2])[cells[doc]]++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            int doc = docsByProduct.remove(productId);
+            if (doc >= 0) {
+                unset(doc);
+                live.remove(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int priceBandCount() {
+        return priceBounds.length + 1;
+    }
+
+    /**
+     * Ids of the products in the category or one of its subcategories, in any of the price
+     * bands and with the given stock state, in id order, with the counts of every facet. A null
+     * category, empty bands or a null stock state are not filtered on.
+     */
+    public ProductFacets filter(Long categoryId, Set<Integer> bands, Boolean available, Pageable pageable) {
+        CategoryTree tree = categoryTree.snapshot();
+        lock.readLock().lock();
+        try {
+            boolean[] bandSelected = new boolean[priceBandCount()];
+            DocBitmap priceFilter = null;
+            if (bands == null || bands.isEmpty()) {
+                Arrays.fill(bandSelected, true);
+            } else {
+                priceFilter = new DocBitmap();
+                for (int band : bands) {
+                    bandSelected[band] = true;
+                    priceFilter = priceFilter.or(byPriceBand[band]);
+                }
+            }
+            Set<Long> within = categoryId == null ? null : categoriesWithin(tree, categoryId);
+            DocBitmap categoryFilter = null;
+            if (within != null) {
+                categoryFilter = new DocBitmap();
+                for (Long category : within) {
+                    categoryFilter = categoryFilter.or(byCategory.get(category));
+                }
+            }
+            DocBitmap stockFilter = available == null ? null : available ? inStock : outOfStock;
+
+            DocBitmap matches = and(categoryFilter, and(priceFilter, stockFilter));
+            if (matches == null) {
+                matches = live;
+            }
+            int[] docs = pageable.isPaged()
+                    ? matches.page(pageable.getOffset(), pageable.getPageSize())
+                    : matches.page(0, Integer.MAX_VALUE);
+            List<Long> ids = new ArrayList<>(docs.length);
+            for (int doc : docs) {
+                ids.add(productIds[doc]);
+            }
+
+            // Each facet takes the cells that pass the other two filters.
+            Map<Long, Long> categoryCounts = new TreeMap<>();
+            long[] bandCounts = new long[priceBandCount()];
+            long[] stockCounts = new long[2];
+            for (Map.Entry<Long, int[]> entry : counts.entrySet()) {
+                boolean inCategory = within == null || within.contains(entry.getKey());
+                int[] cells = entry.getValue();
+                long own = 0;
+                for (int cell = 0; cell < cells.length; cell++) {
+                    int count = cells[cell];
+                    int band = cell >> 1;
+                    int stock = cell & 1;
+                    boolean stockSelected = available == null || available == (stock == 1);
+                    if (bandSelected[band] && stockSelected) {
+                        own += count;
+                    }
+                    if (inCategory && stockSelected) {
+                        bandCounts[band] += count;
+                    }
+                    if (inCategory && bandSelected[band]) {
+                        stockCounts[stock] += count;
+                    }
+                }
+                if (own > 0 && entry.getKey() != NO_CATEGORY) {
+                    addToAncestors(tree, categoryCounts, entry.getKey(), own);
+                }
+            }
+            List<PriceBandCount> priceBandCounts = new ArrayList<>(bandCounts.length);
+            for (int band = 0; band < bandCounts.length; band++) {
+                priceBandCounts.add(new PriceBandCount(band, band == 0 ? BigDecimal.ZERO : priceBounds[band - 1],
+                        band == priceBounds.length ? null : priceBounds[band], bandCounts[band]));
+            }
+            return new ProductFacets(new PageImpl<>(ids, pageable, matches.cardinality()), categoryCounts,
+                    priceBandCounts, stockCounts[1], stockCounts[0]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unset(int doc) {
+        if (categories[doc] != NO_CATEGORY) {
+            DocBitmap bitmap = byCategory.get(categories[doc]);
+            bitmap.remove(doc);
+            if (bitmap.cardinality() == 0) {
+                byCategory.remove(categories[doc]);
+            }
+        }
+        int[] cells = counts.get(categories[doc]);
+        cells[this.cells[doc]]--;
+        if (Arrays.stream(cells).allMatch(count -> count == 0)) {
+            counts.remove(categories[doc]);
+        }
+        byPriceBand[this.cells[doc] >> 1].remove(doc);
+        inStock.remove(doc);
+        outOfStock.remove(doc);
+    }
+
+    // The categories holding products that are the given one or below it.
+    private Set<Long> categoriesWithin(CategoryTree tree, Long categoryId) {
+        Set<Long> within = new HashSet<>();
+        for (Long category : byCategory.keySet()) {
+            if (tree.isWithin(category, categoryId)) {
+                within.add(category);
+            }
+        }
+        return within;
+    }
+
+    private static void addToAncestors(CategoryTree tree, Map<Long, Long> categoryCounts, Long category, long count) {
+        for (; category != null; category = tree.parentOf(category)) {
+            categoryCounts.merge(category, count, Long::sum);
+        }
+    }
+
+    private int priceBand(BigDecimal price) {
+        int band = 0;
+        while (price != null && band < priceBounds.length && price.compareTo(priceBounds[band]) >= 0) {
+            band++;
+        }
+        return band;
+    }
+
+    // Document numbers by product id, in open addressing over primitive arrays: a boxed map
+    // would cost several times the rest of the index.
+    private static final class DocNumbers {
+        private long[] keys = new long[1024];
+        // The document number plus one, zero in empty slots.
+        private int[] values = new int[1024];
+        private int size;
+
+        int get(long productId) {
+            for (int slot = slot(productId); ; slot = (slot + 1) & (keys.length - 1)) {
+                if (values[slot] == 0) {
+                    return -1;
+                }
+                if (keys[slot] == productId) {
+                    return values[slot] - 1;
+                }
+            }
+        }
+
+        void put(long productId, int doc) {
+            if (size >= keys.length / 2) {
+                long[] oldKeys = keys;
+                int[] oldValues = values;
+                keys = new long[oldKeys.length * 2];
+                values = new int[oldKeys.length * 2];
+                size = 0;
+                for (int slot = 0; slot < oldKeys.length; slot++) {
+                    if (oldValues[slot] != 0) {
+                        put(oldKeys[slot], oldValues[slot] - 1);
+                    }
+                }
+            }
+            int slot = slot(productId);
+            while (values[slot] != 0 && keys[slot] != productId) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            if (values[slot] == 0) {
+                size++;
+            }
+            keys[slot] = productId;
+            values[slot] = doc + 1;
+        }
+
+        // Returns the removed document number, or -1. Later entries of the same probe run are
+        // moved back into the gap so lookups never stop short of them.
+        int remove(long productId) {
+            int mask = keys.length - 1;
+            int slot = slot(productId);
+            while (values[slot] != 0 && keys[slot] != productId) {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == 0) {
+                return -1;
+            }
+            int doc = values[slot] - 1;
+            int gap = slot;
+            for (int next = (gap + 1) & mask; values[next] != 0; next = (next + 1) & mask) {
+                int home = slot(keys[next]);
+                // Move the entry unless its home lies cyclically in (gap, next].
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            values[gap] = 0;
+            size--;
+            return doc;
+        }
+
+        void clear() {
+            keys = new long[1024];
+            values = new int[1024];
+            size = 0;
+        }
+
+        private int slot(long productId) {
+            long hash = productId * 0x9E3779B97F4A7C15L;
+            return (int) (hash >>> 32) & (keys.length - 1);
+        }
+    }
+
+    private static DocBitmap[] newBitmaps(int count) {
+        DocBitmap[] bitmaps = new DocBitmap[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new DocBitmap();
+        }
+        return bitmaps;
+    }
+
+    // A null operand is no filter at all.
+    private static DocBitmap and(DocBitmap a, DocBitmap b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null ? a : a.and(b);
+    }
+}
@@ -0,0 +1,447 @@
+package com.example.productservice.service;
+
+import com.example.productservice.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product names and descriptions, ranked with BM25.
+ *
+ * Text is split on anything that is not a letter or digit, lowercased and folded to ASCII
+ * where it has accents. Every product is a document numbered in the order it was indexed;
+ * each term keeps the documents it occurs in, with its frequency there, as varint-encoded
+ * gaps in a growable byte array. A query matches the products that contain all of its
+ * terms, found by walking the shortest posting list and advancing the others past it.
+ * Name matches count {@value #NAME_WEIGHT} times as much as description matches.
+ *
+ * {@link ProductService} loads the index once the application is ready and keeps it
+ * current: an update indexes the product as a new document and marks the old
+ * one deleted, and deleted documents are dropped from the posting lists once they make up
+ * a quarter of the index. Writes made by other instances are only picked up by a rebuild.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_WEIGHT = 2;
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "at", "by", "for", "in", "is", "of", "on", "or", "the", "to", "with");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docsByProduct = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private long[] productIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private int nextDoc;
+    private int deletedDocs;
+    // Over live documents only.
+    private long totalLength;
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docsByProduct.clear();
+            deleted.clear();
+            nextDoc = 0;
+            deletedDocs = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds the product, replacing what was indexed for it before.
+    public void index(Product product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = addTerms(product.getName(), NAME_WEIGHT, frequencies)
+                + addTerms(product.getDescription(), 1, frequencies);
+        lock.writeLock().lock();
+        try {
+            removeDoc(product.getId());
+            int doc = nextDoc++;
+            if (doc == productIds.length) {
+                productIds = Arrays.copyOf(productIds, doc * 2);
+                docLengths = Arrays.copyOf(docLengths, doc * 2);
+            }
+            productIds[doc] = product.getId();
+            docLengths[doc] = length;
+            docsByProduct.put(product.getId(), doc);
+            totalLength += length;
+            for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), key -> new PostingList()).add(doc, term.getValue());
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(productId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docsByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the products matching every term of the query, best first, with ties broken by
+     * id. Stop words are ignored unless the query has nothing else.
+     */
+    public Page<Long> search(String query, Pageable pageable) {
+        List<String> terms = queryTerms(query);
+        if (terms.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    return new PageImpl<>(List.of(), pageable, 0);
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.docs));
+
+            int liveDocs = docsByProduct.size();
+            float averageLength = liveDocs == 0 ? 1 : (float) totalLength / liveDocs;
+            PostingList shortest = lists.get(0);
+            int[] docs = new int[shortest.docs];
+            float[] scores = new float[shortest.docs];
+            PostingCursor cursor = new PostingCursor(shortest);
+            float idf = idf(shortest, liveDocs);
+            int matches = 0;
+            while (cursor.next()) {
+                docs[matches] = cursor.doc;
+                scores[matches++] = score(idf, cursor.frequency, cursor.doc, averageLength);
+            }
+            for (int i = 1; i < lists.size() && matches > 0; i++) {
+                cursor = new PostingCursor(lists.get(i));
+                idf = idf(lists.get(i), liveDocs);
+                int kept = 0;
+                for (int m = 0; m < matches; m++) {
+                    if (cursor.advanceTo(docs[m])) {
+                        docs[kept] = docs[m];
+                        scores[kept++] = scores[m] + score(idf, cursor.frequency, docs[m], averageLength);
+                    }
+                }
+                matches = kept;
+            }
+            return topHits(docs, scores, matches, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Page<Long> topHits(int[] docs, float[] scores, int matches, Pageable pageable) {
+        long wanted = pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() : matches;
+        int keep = (int) Math.min(wanted, matches);
+        // A min-heap of match positions with the worst kept hit at the root, so each candidate
+        // is compared with it alone.
+        int[] heap = new int[keep];
+        int heapSize = 0;
+        int total = 0;
+        for (int m = 0; m < matches; m++) {
+            if (deleted.get(docs[m])) {
+                continue;
+            }
+            total++;
+            if (heapSize < keep) {
+                heap[heapSize] = m;
+                siftUp(heap, heapSize++, docs, scores);
+            } else if (keep > 0 && ranksAbove(m, heap[0], docs, scores)) {
+                heap[0] = m;
+                siftDown(heap, heapSize, docs, scores);
+            }
+        }
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), heapSize) : 0;
+        Long[] ranked = new Long[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ranked[i] = productIds[docs[heap[0]]];
+            heap[0] = heap[i];
+            siftDown(heap, i, docs, scores);
+        }
+        return new PageImpl<>(Arrays.asList(ranked).subList(from, heapSize), pageable, total);
+    }
+
+    private boolean ranksAbove(int a, int b, int[] docs, float[] scores) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        return productIds[docs[a]] < productIds[docs[b]];
+    }
+
+    private void siftUp(int[] heap, int i, int[] docs, float[] scores) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!ranksAbove(heap[parent], heap[i], docs, scores)) {
+                return;
+            }
+            int swap = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = swap;
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size, int[] docs, float[] scores) {
+        int i = 0;
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && ranksAbove(heap[worst], heap[left], docs, scores)) {
+                worst = left;
+            }
+            if (right < size && ranksAbove(heap[worst], heap[right], docs, scores)) {
+                worst = right;
+            }
+            if (worst == i) {
+                return;
+            }
+            int swap = heap[worst];
+            heap[worst] = heap[i];
+            heap[i] = swap;
+            i = worst;
+        }
+    }
+
+    private float score(float idf, int frequency, int doc, float averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * docLengths[doc] / averageLength));
+    }
+
+    private static float idf(PostingList list, int liveDocs) {
+        // Deleted documents still count towards the frequency until the next compaction.
+        int frequency = Math.min(list.docs, liveDocs);
+        return (float) Math.log(1 + (liveDocs - frequency + 0.5) / (frequency + 0.5));
+    }
+
+    private void removeDoc(Long productId) {
+        Integer doc = docsByProduct.remove(productId);
+        if (doc != null) {
+            deleted.set(doc);
+            deletedDocs++;
+            totalLength -= docLengths[doc];
+        }
+    }
+
+    // Rewrites every posting list without the deleted documents and renumbers the rest in order.
+    private void compactIfNeeded() {
+        if (deletedDocs < MIN_DELETED_TO_COMPACT || deletedDocs < nextDoc / 4) {
+            return;
+        }
+        int[] renumbered = new int[nextDoc];
+        int live = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (deleted.get(doc)) {
+                renumbered[doc] = -1;
+            } else {
+                renumbered[doc] = live;
+                productIds[live] = productIds[doc];
+                docLengths[live] = docLengths[doc];
+                live++;
+            }
+        }
+        Iterator<Map.Entry<String, PostingList>> entries = postings.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, PostingList> entry = entries.next();
+            PostingList compacted = new PostingList();
+            PostingCursor cursor = new PostingCursor(entry.getValue());
+            while (cursor.next()) {
+                if (renumbered[cursor.doc] >= 0) {
+                    compacted.add(renumbered[cursor.doc], cursor.frequency);
+                }
+            }
+            if (compacted.docs == 0) {
+                entries.remove();
+            } else {
+                entry.setValue(compacted);
+            }
+        }
+        docsByProduct.replaceAll((productId, doc) -> renumbered[doc]);
+        deleted.clear();
+        deletedDocs = 0;
+        nextDoc = live;
+    }
+
+    private static int addTerms(String text, int weight, Map<String, Integer> frequencies) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private static List<String> queryTerms(String query) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (!STOP_WORDS.containsAll(terms)) {
+            terms.removeIf(STOP_WORDS::contains);
+        }
+        return terms;
+    }
+
+    // Lowercased runs of letters and digits, with accents stripped: "Crème Brûlée" is [creme, brulee].
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String folded = isAscii(text) ? text : Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Documents in increasing order, each as a varint gap from the previous one and a varint
+    // frequency. Every SKIP_INTERVAL postings the previous document and the byte offset are
+    // recorded, so a cursor can jump over whole blocks that end before its target.
+    static final class PostingList {
+        private static final int SKIP_INTERVAL = 128;
+
+        private byte[] data = new byte[8];
+        private int size;
+        private int docs;
+        private int lastDoc = -1;
+        private int[] skipDocs = new int[0];
+        private int[] skipOffsets = new int[0];
+
+        void add(int doc, int frequency) {
+            if (docs > 0 && docs % SKIP_INTERVAL == 0) {
+                int skip = docs / SKIP_INTERVAL - 1;
+                if (skip == skipDocs.length) {
+                    skipDocs = Arrays.copyOf(skipDocs, Math.max(4, skip * 2));
+                    skipOffsets = Arrays.copyOf(skipOffsets, Math.max(4, skip * 2));
+                }
+                skipDocs[skip] = lastDoc;
+                skipOffsets[skip] = size;
+            }
+            if (size + 10 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + 10));
+            }
+            writeVarInt(doc - lastDoc);
+            writeVarInt(frequency);
+            lastDoc = doc;
+            docs++;
+        }
+
+        private int skips() {
+            return (docs - 1) / SKIP_INTERVAL;
+        }
+
+        private void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+    }
+
+    static final class PostingCursor {
+        private final PostingList list;
+        private final int skips;
+        private int position;
+        private int remaining;
+        private int nextSkip;
+        int doc = -1;
+        int frequency;
+
+        PostingCursor(PostingList list) {
+            this.list = list;
+            this.skips = list.docs == 0 ? 0 : list.skips();
+            this.remaining = list.docs;
+        }
+
+        boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            doc += readVarInt();
+            frequency = readVarInt();
+            remaining--;
+            return true;
+        }
+
+        // Moves to the first document at or past target; true if that is target itself.
+        boolean advanceTo(int target) {
+            while (nextSkip < skips && list.skipDocs[nextSkip] < target) {
+                if (list.skipDocs[nextSkip] > doc) {
+                    doc = list.skipDocs[nextSkip];
+                    position = list.skipOffsets[nextSkip];
+                    remaining = list.docs - (nextSkip + 1) * PostingList.SKIP_INTERVAL;
+                }
+                nextSkip++;
+            }
+            while (doc < target) {
+                if (!next()) {
+                    doc = Integer.MAX_VALUE;
+                    return false;
+                }
+            }
+            return doc == target;
+        }
+
+        private int readVarInt() {
+            byte[] data = list.data;
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
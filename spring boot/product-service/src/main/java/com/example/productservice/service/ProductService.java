@@ -1,32 +1,146 @@
 package com.example.productservice.service;
 
+import com.example.productservice.CacheConfig;
+import com.example.productservice.dto.ProductFacets;
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.dto.ProductSummary;
+import com.example.productservice.dto.ProductSummaryRow;
 import com.example.productservice.entity.Product;
 import com.example.productservice.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private static final int INDEX_PAGE_SIZE = 10_000;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ProductSuggester suggester;
+
+    @Autowired
+    private CategoryTreeCache categoryTree;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Loads the search index, the suggester and the facet index in one pass over the catalogue.
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        searchIndex.clear();
+        facetIndex.clear();
+        Page<Product> page;
+        int number = 0;
+        do {
+            page = productRepository.findAll(PageRequest.of(number++, INDEX_PAGE_SIZE, Sort.by("id")));
+            for (Product product : page) {
+                searchIndex.index(product);
+                suggester.add(product.getId(), product.getName());
+                facetIndex.index(product);
+            }
+        } while (page.hasNext());
+    }
+
     public Page<Product> getAllProducts(Pageable pageable) {
         return productRepository.findAll(pageable);
     }
 
+    // Products in the category or any category below it, in one query; null if the category
+    // does not exist.
+    public Page<Product> getProductsInCategoryTree(Long categoryId, Pageable pageable) {
+        List<Long> categoryIds = categoryTree.snapshot().subtree(categoryId);
+        if (categoryIds.isEmpty()) {
+            return null;
+        }
+        return productRepository.findByCategoryIdIn(categoryIds, pageable);
+    }
+
+    // Every lookup counts towards the product's popularity in suggestions.
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        Optional<Product> product = productRepository.findById(id);
+        product.ifPresent(found -> suggester.recordView(found.getId()));
+        return product;
+    }
+
+    // Summaries in the order of the ids, each product once; products that do not exist are left
+    // out. Those not cached are loaded with one query. Unlike single lookups these do not count
+    // towards popularity in suggestions.
+    public List<ProductSummary> getProductSummaries(Collection<Long> ids) {
+        Collection<Long> distinctIds = new LinkedHashSet<>(ids);
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_SUMMARIES);
+        Map<Long, ProductSummary> summaries = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            ProductSummary summary = cache.get(id, ProductSummary.class);
+            if (summary != null) {
+                summaries.put(id, summary);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, ProductSummary> loaded = loadSummaries(missing);
+            loaded.forEach(cache::put);
+            summaries.putAll(loaded);
+        }
+        return distinctIds.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, ProductSummary> loadSummaries(Collection<Long> ids) {
+        Map<Long, ProductSummary> summaries = new HashMap<>();
+        for (ProductSummaryRow row : productRepository.findSummaryRowsByIdIn(ids)) {
+            ProductSummary summary = summaries.computeIfAbsent(row.getId(), id -> new ProductSummary(id,
+                    row.getName(), row.getPrice(), row.getStockQuantity(), row.getCategoryId(), new ArrayList<>()));
+            if (row.getImage() != null) {
+                summary.getImages().add(row.getImage());
+            }
+        }
+        return summaries;
     }
 
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        searchIndex.index(savedProduct);
+        suggester.add(savedProduct.getId(), savedProduct.getName());
+        facetIndex.index(savedProduct);
+        return savedProduct;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_SUMMARIES, key = "#id")
     public Product updateProduct(Long id, Product productDetails) {
         Optional<Product> optionalProduct = productRepository.findById(id);
         if (optionalProduct.isPresent()) {
@@ -37,16 +151,48 @@ public class ProductService {
             product.setCategory(productDetails.getCategory());
             product.setStockQuantity(productDetails.getStockQuantity());
             product.setImages(productDetails.getImages());
-            return productRepository.save(product);
+            Product updatedProduct = productRepository.save(product);
+            searchIndex.index(updatedProduct);
+            suggester.add(updatedProduct.getId(), updatedProduct.getName());
+            facetIndex.index(updatedProduct);
+            return updatedProduct;
         }
         return null;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_SUMMARIES, key = "#id")
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        searchIndex.remove(id);
+        suggester.remove(id);
+        facetIndex.remove(id);
+    }
+
+    // Ranked by the search index; products deleted since it last saw them are left out of the page.
+    public Page<Product> searchProducts(String query, Pageable pageable) {
+        Page<Long> hits = searchIndex.search(query, pageable);
+        Map<Long, Product> products = productRepository.findAllById(hits.getContent()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> content = hits.getContent().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, hits.getTotalElements());
     }
 
-    public List<Product> searchProducts(String query) {
-        return productRepository.findByNameContainingIgnoreCase(query);
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        return suggester.suggest(prefix, limit);
+    }
+
+    // Null if a price band does not exist.
+    public ProductFacets filterProducts(Long categoryId, Set<Integer> priceBands, Boolean inStock, Pageable pageable) {
+        if (priceBands != null) {
+            for (int band : priceBands) {
+                if (band < 0 || band >= facetIndex.priceBandCount()) {
+                    return null;
+                }
+            }
+        }
+        return facetIndex.filter(categoryId, priceBands, inStock, pageable);
     }
-}
\ No newline at end of file
+}
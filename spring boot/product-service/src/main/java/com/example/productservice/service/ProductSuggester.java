@@ -0,0 +1,350 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductSuggestion;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix suggestions over product names, best first by popularity.
+ *
+ * Names are normalized as {@link ProductSearchIndex} tokenizes them, and each product is
+ * stored in a radix trie under its whole name and under every word-starting suffix of it,
+ * so "lap" suggests "Gaming Laptop". Every trie node keeps the ids of the
+ * {@value #MAX_SUGGESTIONS} most popular products below it, so a lookup costs one walk down
+ * the prefix whatever the size of the catalogue. Adding, renaming or removing a product
+ * recomputes those lists only on the paths of its keys.
+ *
+ * Popularity is the number of times a product has been looked up through this instance.
+ * Lookups are counted without locking and folded into the trie every
+ * {@code product.suggest.popularity-flush-millis}; counts start from zero on every restart.
+ */
+@Component
+public class ProductSuggester {
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final long[] NO_PRODUCTS = new long[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String key = String.join(" ", ProductSearchIndex.tokenize(prefix));
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) {
+                return List.of();
+            }
+            int count = Math.min(limit, node.top.length);
+            List<ProductSuggestion> suggestions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                suggestions.add(new ProductSuggestion(node.top[i], entries.get(node.top[i]).name));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Adds the product under its current name, keeping its popularity if it was already known.
+    public void add(Long productId, String name) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get(productId);
+            long popularity = 0;
+            if (previous != null) {
+                popularity = previous.popularity;
+                if (previous.name.equals(name)) {
+                    return;
+                }
+                removeKeys(productId, previous);
+            }
+            Entry entry = new Entry(name, popularity);
+            entries.put(productId, entry);
+            for (String key : keys(name)) {
+                insert(key, productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(productId);
+            if (entry != null) {
+                removeKeys(productId, entry);
+                entries.remove(productId);
+            }
+            pendingViews.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void recordView(Long productId) {
+        pendingViews.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${product.suggest.popularity-flush-millis:5000}")
+    public void flushPopularity() {
+        if (pendingViews.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long productId : new ArrayList<>(pendingViews.keySet())) {
+                long views = pendingViews.remove(productId).sum();
+                Entry entry = entries.get(productId);
+                if (entry == null) {
+                    continue;
+                }
+                entry.popularity += views;
+                for (String key : keys(entry.name)) {
+                    List<Node> path = path(key);
+                    if (path != null) {
+                        recompute(path);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Callers drop the entry only afterwards: ranking reads it while lists still mention the product.
+    private void removeKeys(Long productId, Entry entry) {
+        for (String key : keys(entry.name)) {
+            List<Node> path = path(key);
+            if (path != null) {
+                Node last = path.get(path.size() - 1);
+                last.products = without(last.products, productId);
+                last.top = without(last.top, productId);
+                recompute(path);
+                prune(path);
+            }
+        }
+    }
+
+    // The normalized name and each of its suffixes that starts a word.
+    static Set<String> keys(String name) {
+        List<String> tokens = ProductSearchIndex.tokenize(name);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return keys;
+    }
+
+    private void insert(String key, long productId) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.childIndex(key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i));
+                node.addChild(-index - 1, leaf);
+                node = leaf;
+                path.add(node);
+                break;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it.
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = new Node[] {child};
+                middle.top = child.top;
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+        if (!contains(node.products, productId)) {
+            node.products = Arrays.copyOf(node.products, node.products.length + 1);
+            node.products[node.products.length - 1] = productId;
+        }
+        recompute(path);
+    }
+
+    // Nodes from the root to the one the key ends at, or null if the key is not in the trie.
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.childIndex(key.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+            if (commonPrefix(node.label, key, i) < node.label.length()) {
+                return null;
+            }
+            path.add(node);
+            i += node.label.length();
+        }
+        return path;
+    }
+
+    // The node whose subtree holds every key starting with the prefix.
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = node.childIndex(prefix.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+            int common = commonPrefix(node.label, prefix, i);
+            if (i + common == prefix.length()) {
+                return node;
+            }
+            if (common < node.label.length()) {
+                return null;
+            }
+            i += common;
+        }
+        return node;
+    }
+
+    // Rebuilds each node's top list, deepest first, from its own products and its children's lists.
+    private void recompute(List<Node> path) {
+        for (int p = path.size() - 1; p >= 0; p--) {
+            Node node = path.get(p);
+            Set<Long> candidates = new LinkedHashSet<>();
+            for (long productId : node.products) {
+                candidates.add(productId);
+            }
+            for (Node child : node.children) {
+                for (long productId : child.top) {
+                    candidates.add(productId);
+                }
+            }
+            node.top = candidates.stream()
+                    .sorted((a, b) -> {
+                        int byPopularity = Long.compare(entries.get(b).popularity, entries.get(a).popularity);
+                        return byPopularity != 0 ? byPopularity : Long.compare(a, b);
+                    })
+                    .limit(MAX_SUGGESTIONS)
+                    .mapToLong(Long::longValue)
+                    .toArray();
+        }
+    }
+
+    // Drops nodes left with no products and no children, deepest first.
+    private void prune(List<Node> path) {
+        for (int p = path.size() - 1; p > 0; p--) {
+            Node node = path.get(p);
+            if (node.products.length > 0 || node.children.length > 0) {
+                return;
+            }
+            path.get(p - 1).removeChild(node);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        for (long candidate : ids) {
+            if (candidate == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long[] without(long[] ids, long id) {
+        if (!contains(ids, id)) {
+            return ids;
+        }
+        return Arrays.stream(ids).filter(candidate -> candidate != id).toArray();
+    }
+
+    private static final class Entry {
+        final String name;
+        long popularity;
+
+        Entry(String name, long popularity) {
+            this.name = name;
+            this.popularity = popularity;
+        }
+    }
+
+    private static final class Node {
+        String label;
+        // Sorted by the first character of their labels, which differ between siblings.
+        Node[] children = NO_CHILDREN;
+        long[] products = NO_PRODUCTS;
+        long[] top = NO_PRODUCTS;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        // The child's index, or -(insertion point) - 1 if no label starts with c.
+        int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = children[mid].label.charAt(0);
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -low - 1;
+        }
+
+        void addChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        void removeChild(Node child) {
+            int index = childIndex(child.label.charAt(0));
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk;
+        }
+    }
+}
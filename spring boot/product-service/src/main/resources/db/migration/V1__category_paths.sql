@@ -0,0 +1,24 @@
+-- Adds the materialized path each category keeps, /1/4/9/ for category 9 under 4 under 1,
+-- and fills it in for the existing tree. Run once against PostgreSQL before deploying.
+
+BEGIN;
+
+LOCK TABLE categories IN EXCLUSIVE MODE;
+
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS path VARCHAR(1024);
+
+WITH RECURSIVE tree (id, path) AS (
+    SELECT id, '/' || id || '/' FROM categories WHERE parent_id IS NULL
+    UNION ALL
+    SELECT c.id, t.path || c.id || '/' FROM categories c JOIN tree t ON c.parent_id = t.id
+)
+UPDATE categories c SET path = tree.path FROM tree WHERE c.id = tree.id;
+
+-- Moving a category rewrites its subtree with a prefix LIKE on path.
+CREATE INDEX IF NOT EXISTS idx_categories_path ON categories (path varchar_pattern_ops);
+
+COMMIT;
+
+-- Products of a category subtree are fetched with category_id IN (...). CONCURRENTLY keeps the
+-- table writable while it builds, so run it outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_category ON products (category_id);
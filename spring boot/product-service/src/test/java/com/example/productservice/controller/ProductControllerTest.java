@@ -4,6 +4,7 @@ import com.example.productservice.entity.Category;
 import com.example.productservice.entity.Product;
 import com.example.productservice.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -14,6 +15,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -23,6 +26,9 @@ import java.util.Optional;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,6 +36,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 public class ProductControllerTest {
 
     @Autowired
+    private WebApplicationContext context;
+
     private MockMvc mockMvc;
 
     @MockBean
@@ -38,9 +46,18 @@ public class ProductControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    // Every request goes through the security chain as an authenticated caller.
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .apply(springSecurity())
+                .defaultRequest(get("/").with(jwt()).with(csrf()))
+                .build();
+    }
+
     @Test
     public void testGetAllProducts() throws Exception {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product product1 = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
         Product product2 = new Product("Phone", "Smartphone", BigDecimal.valueOf(500), category, 20, Arrays.asList("img2.jpg"));
         Page<Product> page = new PageImpl<>(Arrays.asList(product1, product2), PageRequest.of(0, 10), 2);
@@ -53,7 +70,7 @@ public class ProductControllerTest {
 
     @Test
     public void testGetProductById_Found() throws Exception {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product product = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
         product.setId(1L);
         when(productService.getProductById(1L)).thenReturn(Optional.of(product));
@@ -73,7 +90,7 @@ public class ProductControllerTest {
 
     @Test
     public void testCreateProduct() throws Exception {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product product = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
         product.setId(1L);
         when(productService.createProduct(any(Product.class))).thenReturn(product);
@@ -97,7 +114,7 @@ public class ProductControllerTest {
 
     @Test
     public void testUpdateProduct_Found() throws Exception {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product productDetails = new Product("Updated Laptop", "Updated Desc", BigDecimal.valueOf(1200), category, 15, Arrays.asList("img3.jpg"));
         Product updatedProduct = new Product("Updated Laptop", "Updated Desc", BigDecimal.valueOf(1200), category, 15, Arrays.asList("img3.jpg"));
         updatedProduct.setId(1L);
@@ -112,7 +129,7 @@ public class ProductControllerTest {
 
     @Test
     public void testUpdateProduct_NotFound() throws Exception {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product productDetails = new Product("Updated Laptop", "Updated Desc", BigDecimal.valueOf(1200), category, 15, Arrays.asList("img3.jpg"));
         when(productService.updateProduct(eq(1L), any(Product.class))).thenReturn(null);
 
@@ -134,13 +151,14 @@ public class ProductControllerTest {
 
     @Test
     public void testSearchProducts() throws Exception {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product product = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
-        when(productService.searchProducts("laptop")).thenReturn(Arrays.asList(product));
+        Page<Product> page = new PageImpl<>(Arrays.asList(product), PageRequest.of(0, 20), 1);
+        when(productService.searchProducts(eq("laptop"), any(Pageable.class))).thenReturn(page);
 
         mockMvc.perform(get("/api/products/search?q=laptop"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(1))
-                .andExpect(jsonPath("$[0].name").value("Laptop"));
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Laptop"));
     }
 }
\ No newline at end of file
@@ -19,9 +19,12 @@ public class ProductRepositoryTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CategoryRepository categoryRepository;
+
     @Test
     public void testSaveAndFindById() {
-        Category category = new Category("Electronics");
+        Category category = categoryRepository.save(new Category("Electronics", null, null));
         Product product = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
         Product savedProduct = productRepository.save(product);
 
@@ -34,7 +37,7 @@ public class ProductRepositoryTest {
 
     @Test
     public void testFindByNameContainingIgnoreCase() {
-        Category category = new Category("Electronics");
+        Category category = categoryRepository.save(new Category("Electronics", null, null));
         Product product1 = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
         Product product2 = new Product("Smartphone", "Android Phone", BigDecimal.valueOf(500), category, 20, Arrays.asList("img2.jpg"));
         productRepository.save(product1);
@@ -47,23 +50,21 @@ public class ProductRepositoryTest {
 
     @Test
     public void testFindByCategoryId() {
-        Category category1 = new Category("Electronics");
-        Category category2 = new Category("Books");
-        category1.setId(1L);
-        category2.setId(2L);
+        Category category1 = categoryRepository.save(new Category("Electronics", null, null));
+        Category category2 = categoryRepository.save(new Category("Books", null, null));
         Product product1 = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category1, 10, Arrays.asList("img1.jpg"));
         Product product2 = new Product("Book", "Novel", BigDecimal.valueOf(20), category2, 5, Arrays.asList("img3.jpg"));
         productRepository.save(product1);
         productRepository.save(product2);
 
-        List<Product> foundProducts = productRepository.findByCategoryId(1L);
+        List<Product> foundProducts = productRepository.findByCategoryId(category1.getId());
         assertEquals(1, foundProducts.size());
         assertEquals("Laptop", foundProducts.get(0).getName());
     }
 
     @Test
     public void testFindAll() {
-        Category category = new Category("Electronics");
+        Category category = categoryRepository.save(new Category("Electronics", null, null));
         Product product1 = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
         Product product2 = new Product("Phone", "Smartphone", BigDecimal.valueOf(500), category, 20, Arrays.asList("img2.jpg"));
         productRepository.save(product1);
@@ -75,7 +76,7 @@ public class ProductRepositoryTest {
 
     @Test
     public void testDeleteById() {
-        Category category = new Category("Electronics");
+        Category category = categoryRepository.save(new Category("Electronics", null, null));
         Product product = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
         Product savedProduct = productRepository.save(product);
 
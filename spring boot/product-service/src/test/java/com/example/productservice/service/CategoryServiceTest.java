@@ -0,0 +1,110 @@
+package com.example.productservice.service;
+
+import com.example.productservice.CacheConfig;
+import com.example.productservice.entity.Category;
+import com.example.productservice.entity.Product;
+import com.example.productservice.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not rolled back, so the category tree is reloaded after each commit as it is in production.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CategoryService.class, CategoryTreeCache.class, ProductService.class, ProductSearchIndex.class,
+        ProductSuggester.class, ProductFacetIndex.class, CacheConfig.class})
+public class CategoryServiceTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryTreeCache categoryTree;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    public void testMaintainsPathsAndSnapshotThroughMoves() {
+        Category electronics = categoryService.createCategory(new Category("Electronics", null, null));
+        Category computers = categoryService.createCategory(new Category("Computers", null, electronics));
+        Category laptops = categoryService.createCategory(new Category("Laptops", null, computers));
+        Category garden = categoryService.createCategory(new Category("Garden", null, null));
+
+        assertEquals("/" + electronics.getId() + "/" + computers.getId() + "/" + laptops.getId() + "/",
+                laptops.getPath());
+        assertEquals(List.of(electronics.getId(), computers.getId(), laptops.getId()),
+                categoryTree.snapshot().subtree(electronics.getId()));
+
+        CategoryTree before = categoryTree.snapshot();
+        assertNotNull(categoryService.updateCategory(computers.getId(), new Category("Computers", null, garden)));
+
+        assertEquals("/" + garden.getId() + "/" + computers.getId() + "/" + laptops.getId() + "/",
+                categoryRepository.findById(laptops.getId()).get().getPath());
+        assertEquals(List.of(garden.getId(), computers.getId(), laptops.getId()),
+                categoryTree.snapshot().subtree(garden.getId()));
+        assertEquals(List.of(electronics.getId()), categoryTree.snapshot().subtree(electronics.getId()));
+        // A snapshot taken earlier is left as it was.
+        assertEquals(3, before.subtree(electronics.getId()).size());
+
+        categoryService.deleteCategory(computers.getId());
+        assertEquals(List.of(garden.getId()), categoryTree.snapshot().subtree(garden.getId()));
+        assertFalse(categoryRepository.existsById(laptops.getId()));
+    }
+
+    @Test
+    public void testRejectsMissingParentsAndCycles() {
+        Category tools = categoryService.createCategory(new Category("Tools", null, null));
+        Category drills = categoryService.createCategory(new Category("Drills", null, tools));
+        Category missing = new Category("Missing", null, null);
+        missing.setId(Long.MAX_VALUE);
+
+        assertNull(categoryService.createCategory(new Category("Saws", null, missing)));
+        assertNull(categoryService.updateCategory(tools.getId(), new Category("Tools", null, drills)));
+        assertNull(categoryService.updateCategory(tools.getId(), new Category("Tools", null, tools)));
+        assertNull(categoryService.updateCategory(drills.getId(), new Category("Drills", null, missing)));
+        assertEquals("/" + tools.getId() + "/", categoryRepository.findById(tools.getId()).get().getPath());
+    }
+
+    @Test
+    public void testListsProductsInCategoryTreeInOneQuery() {
+        Category kitchen = categoryService.createCategory(new Category("Kitchen", null, null));
+        Category knives = categoryService.createCategory(new Category("Knives", null, kitchen));
+        Category chefKnives = categoryService.createCategory(new Category("Chef Knives", null, knives));
+        Category bath = categoryService.createCategory(new Category("Bath", null, null));
+        Product pan = productService.createProduct(product("Pan", kitchen));
+        Product paring = productService.createProduct(product("Paring Knife", knives));
+        Product gyuto = productService.createProduct(product("Gyuto", chefKnives));
+        productService.createProduct(product("Towel", bath));
+
+        assertEquals(List.of(pan.getId(), paring.getId(), gyuto.getId()),
+                ids(productService.getProductsInCategoryTree(kitchen.getId(), PageRequest.of(0, 10))));
+        assertEquals(List.of(paring.getId(), gyuto.getId()),
+                ids(productService.getProductsInCategoryTree(knives.getId(), PageRequest.of(0, 10))));
+        Page<Product> firstPage = productService.getProductsInCategoryTree(kitchen.getId(), PageRequest.of(0, 2));
+        assertEquals(3, firstPage.getTotalElements());
+        assertNull(productService.getProductsInCategoryTree(Long.MAX_VALUE, PageRequest.of(0, 10)));
+    }
+
+    private static Product product(String name, Category category) {
+        return new Product(name, null, BigDecimal.TEN, category, 1, List.of());
+    }
+
+    private static List<Long> ids(Page<Product> page) {
+        return page.getContent().stream().map(Product::getId).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.productservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CategoryTreeTest {
+
+    private final CategoryTree tree = CategoryTree.of(List.of(
+            "/1/", "/1/2/", "/1/2/5/", "/1/2/6/", "/1/3/", "/4/", "/4/7/", "/1/3/8/"));
+
+    @Test
+    public void testSubtreesInPreorder() {
+        assertEquals(List.of(1L, 2L, 5L, 6L, 3L, 8L), tree.subtree(1L));
+        assertEquals(List.of(2L, 5L, 6L), tree.subtree(2L));
+        assertEquals(List.of(8L), tree.subtree(8L));
+        assertEquals(List.of(4L, 7L), tree.subtree(4L));
+        assertEquals(List.of(), tree.subtree(99L));
+        assertEquals(8, tree.size());
+    }
+
+    @Test
+    public void testAncestry() {
+        assertTrue(tree.isWithin(8L, 1L));
+        assertTrue(tree.isWithin(8L, 3L));
+        assertTrue(tree.isWithin(2L, 2L));
+        assertFalse(tree.isWithin(8L, 2L));
+        assertFalse(tree.isWithin(1L, 2L));
+        assertFalse(tree.isWithin(7L, 1L));
+        assertFalse(tree.isWithin(99L, 1L));
+
+        assertEquals(3L, tree.parentOf(8L));
+        assertNull(tree.parentOf(1L));
+        assertNull(tree.parentOf(99L));
+    }
+
+    @Test
+    public void testToleratesInconsistentPaths() {
+        // 10's parent is missing, and 11 and 12 name each other as parents.
+        CategoryTree broken = CategoryTree.of(List.of("/9/10/", "/12/11/", "/11/12/"));
+
+        assertEquals(List.of(10L), broken.subtree(10L));
+        assertNull(broken.parentOf(10L));
+        assertEquals(3, broken.size());
+        // The cycle is cut above the lowest id.
+        assertEquals(List.of(11L, 12L), broken.subtree(11L));
+        assertNull(broken.parentOf(11L));
+    }
+}
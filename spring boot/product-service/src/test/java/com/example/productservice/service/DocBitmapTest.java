@@ -0,0 +1,82 @@
+package com.example.productservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DocBitmapTest {
+
+    @Test
+    public void testMatchesBitSetThroughSparseAndDenseGroups() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            // Densities on both sides of the array limit of 4096 per 65536 numbers.
+            BitSet expectedA = new BitSet();
+            BitSet expectedB = new BitSet();
+            DocBitmap a = random(random, expectedA, 0.01 + random.nextDouble() * 0.2);
+            DocBitmap b = random(random, expectedB, 0.01 + random.nextDouble() * 0.2);
+
+            BitSet and = (BitSet) expectedA.clone();
+            and.and(expectedB);
+            BitSet or = (BitSet) expectedA.clone();
+            or.or(expectedB);
+
+            assertEquals(expectedA.cardinality(), a.cardinality());
+            assertArrayEquals(expectedA.stream().toArray(), a.page(0, Integer.MAX_VALUE));
+            assertArrayEquals(and.stream().toArray(), a.and(b).page(0, Integer.MAX_VALUE));
+            assertArrayEquals(or.stream().toArray(), a.or(b).page(0, Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void testRemovesBackToEmpty() {
+        DocBitmap bitmap = new DocBitmap();
+        for (int doc = 0; doc < 100_000; doc++) {
+            bitmap.add(doc);
+        }
+        for (int doc = 0; doc < 100_000; doc += 2) {
+            bitmap.remove(doc);
+        }
+        assertEquals(50_000, bitmap.cardinality());
+        assertTrue(bitmap.contains(99_999));
+        assertFalse(bitmap.contains(99_998));
+
+        for (int doc = 1; doc < 100_000; doc += 2) {
+            bitmap.remove(doc);
+        }
+        assertEquals(0, bitmap.cardinality());
+        assertEquals(0, bitmap.page(0, 10).length);
+    }
+
+    @Test
+    public void testPagesAcrossGroups() {
+        DocBitmap bitmap = new DocBitmap();
+        for (int doc = 0; doc < 300_000; doc += 3) {
+            bitmap.add(doc);
+        }
+        assertArrayEquals(new int[] {65_538, 65_541, 65_544}, bitmap.page(21_846, 3));
+        assertArrayEquals(new int[] {299_997}, bitmap.page(99_999, 10));
+        assertEquals(0, bitmap.page(100_000, 10).length);
+    }
+
+    private static DocBitmap random(Random random, BitSet expected, double density) {
+        DocBitmap bitmap = new DocBitmap();
+        for (int doc = 0; doc < 200_000; doc++) {
+            if (random.nextDouble() < density) {
+                bitmap.add(doc);
+                expected.set(doc);
+            }
+        }
+        // Removals take some groups back below the array limit.
+        for (int doc = 0; doc < 100_000; doc++) {
+            if (random.nextInt(4) == 0) {
+                bitmap.remove(doc);
+                expected.clear(doc);
+            }
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.productservice.service;
+
+import com.example.productservice.CacheConfig;
+import com.example.productservice.dto.ProductSummary;
+import com.example.productservice.entity.Category;
+import com.example.productservice.entity.Product;
+import com.example.productservice.repository.CategoryRepository;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not rolled back, so updates evict from the summary cache as they do in production.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductService.class, ProductSearchIndex.class, ProductSuggester.class, ProductFacetIndex.class,
+        CategoryTreeCache.class, CacheConfig.class})
+public class ProductBatchLookupTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    public void testReturnsSummariesWithImagesInRequestOrder() {
+        Category category = categoryRepository.save(new Category("Lamps", null, null));
+        Product desk = productService.createProduct(
+                new Product("Desk Lamp", null, BigDecimal.valueOf(30), category, 4, List.of("a.png", "b.png")));
+        Product floor = productService.createProduct(
+                new Product("Floor Lamp", null, BigDecimal.valueOf(80), null, 0, List.of()));
+
+        List<ProductSummary> summaries = productService.getProductSummaries(
+                List.of(floor.getId(), Long.MAX_VALUE, desk.getId(), floor.getId()));
+
+        assertEquals(List.of(floor.getId(), desk.getId()),
+                summaries.stream().map(ProductSummary::getId).collect(Collectors.toList()));
+        ProductSummary deskSummary = summaries.get(1);
+        assertEquals("Desk Lamp", deskSummary.getName());
+        assertEquals(0, BigDecimal.valueOf(30).compareTo(deskSummary.getPrice()));
+        assertEquals(4, deskSummary.getStockQuantity());
+        assertEquals(category.getId(), deskSummary.getCategoryId());
+        assertEquals(List.of("a.png", "b.png"), deskSummary.getImages().stream().sorted().collect(Collectors.toList()));
+        assertNull(summaries.get(0).getCategoryId());
+        assertEquals(List.of(), summaries.get(0).getImages());
+    }
+
+    @Test
+    public void testUpdatesAreSeenThroughTheCache() {
+        Product kettle = productService.createProduct(
+                new Product("Kettle", null, BigDecimal.valueOf(20), null, 3, List.of()));
+        assertEquals(0, BigDecimal.valueOf(20).compareTo(
+                productService.getProductSummaries(List.of(kettle.getId())).get(0).getPrice()));
+
+        productService.updateProduct(kettle.getId(),
+                new Product("Kettle", null, BigDecimal.valueOf(25), null, 3, List.of()));
+        assertEquals(0, BigDecimal.valueOf(25).compareTo(
+                productService.getProductSummaries(List.of(kettle.getId())).get(0).getPrice()));
+
+        productService.deleteProduct(kettle.getId());
+        assertEquals(List.of(), productService.getProductSummaries(List.of(kettle.getId())));
+    }
+
+    @Test
+    public void testRepeatedLookupsAreAnsweredFromTheCache() {
+        Product mug = productService.createProduct(
+                new Product("Mug", null, BigDecimal.valueOf(8), null, 12, List.of()));
+        CacheStats before = stats();
+
+        productService.getProductSummaries(List.of(mug.getId(), Long.MAX_VALUE));
+        productService.getProductSummaries(List.of(mug.getId(), Long.MAX_VALUE));
+
+        CacheStats lookups = stats().minus(before);
+        // The product is cached after its first lookup; the missing one is never cached.
+        assertEquals(1, lookups.hitCount());
+        assertEquals(3, lookups.missCount());
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_SUMMARIES).get(Long.MAX_VALUE));
+    }
+
+    private CacheStats stats() {
+        return ((CaffeineCache) cacheManager.getCache(CacheConfig.PRODUCT_SUMMARIES)).getNativeCache().stats();
+    }
+}
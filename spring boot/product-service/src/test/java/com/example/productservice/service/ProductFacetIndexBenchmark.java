@@ -0,0 +1,142 @@
+package com.example.productservice.service;
+
+import com.example.productservice.entity.Category;
+import com.example.productservice.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Filter latency percentiles of {@link ProductFacetIndex} over a million products in a
+ * three-level tree of 620 categories, with log-uniform prices and 85% in stock. {@code query}
+ * picks the facets: a category at any level alone, a category with price bands and often a
+ * stock state, price bands alone, or no filter at all. Run the {@link #main} method from the
+ * test classpath.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class ProductFacetIndexBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int QUERIES = 1024;
+
+    @State(Scope.Thread)
+    public static class Catalogue {
+        @Param({"category", "categoryBandsStock", "bands", "everything"})
+        String query;
+
+        ProductFacetIndex index;
+        Long[] categoryIds;
+        List<Set<Integer>> bands;
+        Boolean[] inStock;
+        Pageable[] pages;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            List<Category> tree = new ArrayList<>();
+            List<Category> leaves = new ArrayList<>();
+            long nextId = 1;
+            for (int root = 0; root < 20; root++) {
+                Category top = category(nextId++, null);
+                tree.add(top);
+                for (int child = 0; child < 5; child++) {
+                    Category middle = category(nextId++, top);
+                    tree.add(middle);
+                    for (int leaf = 0; leaf < 5; leaf++) {
+                        Category bottom = category(nextId++, middle);
+                        tree.add(bottom);
+                        leaves.add(bottom);
+                    }
+                }
+            }
+
+            List<String> paths = new ArrayList<>();
+            for (Category category : tree) {
+                paths.add((category.getParent() == null ? "/" : category.getParent().getPath()) + category.getId() + "/");
+                category.setPath(paths.get(paths.size() - 1));
+            }
+            CategoryTreeCache categoryTree = mock(CategoryTreeCache.class);
+            when(categoryTree.snapshot()).thenReturn(CategoryTree.of(paths));
+            index = new ProductFacetIndex(categoryTree, new BigDecimal[] {
+                    new BigDecimal("10"), new BigDecimal("25"), new BigDecimal("50"), new BigDecimal("100"),
+                    new BigDecimal("250"), new BigDecimal("500"), new BigDecimal("1000")});
+            Product product = new Product("Product", null, null, null, null, List.of());
+            for (long id = 1; id <= PRODUCTS; id++) {
+                product.setId(id);
+                product.setCategory(random.nextInt(5) == 0 ? tree.get(random.nextInt(tree.size()))
+                        : leaves.get(random.nextInt(leaves.size())));
+                product.setPrice(BigDecimal.valueOf(Math.round(Math.exp(random.nextDouble() * Math.log(2000)) * 100), 2));
+                product.setStockQuantity(random.nextInt(100) < 85 ? 1 + random.nextInt(50) : 0);
+                index.index(product);
+            }
+
+            boolean byCategory = query.startsWith("category");
+            boolean byBands = query.equals("categoryBandsStock") || query.equals("bands");
+            categoryIds = new Long[QUERIES];
+            bands = new ArrayList<>(QUERIES);
+            inStock = new Boolean[QUERIES];
+            pages = new Pageable[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                categoryIds[i] = byCategory ? tree.get(random.nextInt(tree.size())).getId() : null;
+                bands.add(!byBands ? null : random.nextBoolean() ? Set.of(random.nextInt(8)) : Set.of(3, 4));
+                inStock[i] = query.equals("categoryBandsStock") && random.nextBoolean() ? Boolean.TRUE : null;
+                pages[i] = PageRequest.of(random.nextInt(5), 24);
+            }
+        }
+
+        int nextQuery() {
+            next = (next + 1) & (QUERIES - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Object filter(Catalogue catalogue) {
+        int i = catalogue.nextQuery();
+        return catalogue.index.filter(catalogue.categoryIds[i], catalogue.bands.get(i), catalogue.inStock[i],
+                catalogue.pages[i]);
+    }
+
+    private static Category category(long id, Category parent) {
+        Category category = new Category("Category " + id, null, parent);
+        category.setId(id);
+        return category;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductFacetIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
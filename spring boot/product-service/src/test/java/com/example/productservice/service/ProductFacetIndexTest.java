@@ -0,0 +1,142 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.PriceBandCount;
+import com.example.productservice.dto.ProductFacets;
+import com.example.productservice.entity.Category;
+import com.example.productservice.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProductFacetIndexTest {
+
+    private final CategoryTreeCache categoryTree = mock(CategoryTreeCache.class);
+
+    private final ProductFacetIndex index = new ProductFacetIndex(categoryTree,
+            new BigDecimal[] {new BigDecimal("10"), new BigDecimal("100")});
+
+    private final Category electronics = category(1L, "Electronics", null);
+    private final Category computers = category(2L, "Computers", electronics);
+    private final Category laptops = category(3L, "Laptops", computers);
+    private final Category garden = category(4L, "Garden", null);
+
+    @BeforeEach
+    public void setUp() {
+        when(categoryTree.snapshot()).thenReturn(CategoryTree.of(List.of("/1/", "/1/2/", "/1/2/3/", "/4/")));
+        index.index(product(1L, laptops, "999.00", 5));
+        index.index(product(2L, laptops, "450.00", 0));
+        index.index(product(3L, computers, "45.00", 12));
+        index.index(product(4L, electronics, "9.99", 3));
+        index.index(product(5L, garden, "25.00", 0));
+        index.index(product(6L, null, "5.00", 1));
+    }
+
+    @Test
+    public void testFiltersByCategoryWithSubcategories() {
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(index.filter(1L, null, null, Pageable.unpaged())));
+        assertEquals(List.of(1L, 2L, 3L), ids(index.filter(2L, null, null, Pageable.unpaged())));
+        assertEquals(List.of(1L, 2L), ids(index.filter(3L, null, null, Pageable.unpaged())));
+        assertEquals(List.of(), ids(index.filter(99L, null, null, Pageable.unpaged())));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), ids(index.filter(null, null, null, Pageable.unpaged())));
+    }
+
+    @Test
+    public void testCombinesPriceBandsAndStock() {
+        assertEquals(List.of(1L, 2L), ids(index.filter(null, Set.of(2), null, Pageable.unpaged())));
+        assertEquals(List.of(3L, 4L, 5L, 6L), ids(index.filter(null, Set.of(0, 1), null, Pageable.unpaged())));
+        assertEquals(List.of(3L, 4L), ids(index.filter(1L, Set.of(0, 1), true, Pageable.unpaged())));
+        assertEquals(List.of(2L, 5L), ids(index.filter(null, null, false, Pageable.unpaged())));
+    }
+
+    @Test
+    public void testCountsEachFacetUnderTheOtherFilters() {
+        ProductFacets facets = index.filter(2L, Set.of(2), true, Pageable.unpaged());
+
+        assertEquals(List.of(1L), ids(facets));
+        // In stock and over 100: only product 1, in Laptops.
+        assertEquals(Map.of(1L, 1L, 2L, 1L, 3L, 1L), facets.getCategoryCounts());
+        // In stock under Computers: product 3 is 45.00, product 1 is 999.00.
+        assertEquals(List.of(0L, 1L, 1L), counts(facets.getPriceBands()));
+        // Over 100 under Computers: product 1 in stock, product 2 not.
+        assertEquals(1, facets.getInStockCount());
+        assertEquals(1, facets.getOutOfStockCount());
+
+        PriceBandCount top = facets.getPriceBands().get(2);
+        assertEquals(0, new BigDecimal("100").compareTo(top.getMin()));
+        assertNull(top.getMax());
+    }
+
+    @Test
+    public void testCategoryCountsRollUpWithoutFilters() {
+        ProductFacets facets = index.filter(null, null, null, Pageable.unpaged());
+
+        assertEquals(Map.of(1L, 4L, 2L, 3L, 3L, 2L, 4L, 1L), facets.getCategoryCounts());
+        assertEquals(List.of(2L, 2L, 2L), counts(facets.getPriceBands()));
+        assertEquals(4, facets.getInStockCount());
+        assertEquals(2, facets.getOutOfStockCount());
+    }
+
+    @Test
+    public void testUpdatesMoveProductsBetweenFacets() {
+        index.index(product(2L, garden, "8.00", 7));
+        index.remove(4L);
+
+        assertEquals(List.of(1L, 3L), ids(index.filter(1L, null, null, Pageable.unpaged())));
+        assertEquals(List.of(2L, 5L), ids(index.filter(4L, null, null, Pageable.unpaged())));
+        assertEquals(List.of(2L, 6L), ids(index.filter(null, Set.of(0), true, Pageable.unpaged())));
+
+        // Moving Computers under Garden takes its products along.
+        when(categoryTree.snapshot()).thenReturn(CategoryTree.of(List.of("/1/", "/4/2/", "/4/2/3/", "/4/")));
+        assertEquals(List.of(1L, 2L, 3L, 5L), ids(index.filter(4L, null, null, Pageable.unpaged())));
+        assertEquals(Map.of(2L, 2L, 3L, 1L, 4L, 4L), index.filter(null, null, null, Pageable.unpaged())
+                .getCategoryCounts());
+    }
+
+    @Test
+    public void testPaginatesInIdOrder() {
+        index.clear();
+        for (long id = 1; id <= 250_000; id++) {
+            index.index(product(id, id % 2 == 0 ? laptops : garden, "20.00", (int) (id % 3)));
+        }
+
+        ProductFacets facets = index.filter(1L, null, true, PageRequest.of(2, 5));
+        // Even ids with a non-zero remainder by three: 2, 4, 8, 10, 14, 16, ...
+        assertEquals(List.of(32L, 34L, 38L, 40L, 44L), ids(facets));
+        assertEquals(83_334, facets.getProductIds().getTotalElements());
+        assertEquals(List.of(0L, 83_334L, 0L), counts(facets.getPriceBands()));
+
+        assertEquals(List.of(250_000L), ids(index.filter(null, null, null, PageRequest.of(249_999, 1))));
+        assertEquals(List.of(), ids(index.filter(null, null, null, PageRequest.of(250_000, 1))));
+    }
+
+    private static List<Long> ids(ProductFacets facets) {
+        return facets.getProductIds().getContent();
+    }
+
+    private static List<Long> counts(List<PriceBandCount> bands) {
+        return bands.stream().map(PriceBandCount::getCount).collect(Collectors.toList());
+    }
+
+    private static Category category(Long id, String name, Category parent) {
+        Category category = new Category(name, null, parent);
+        category.setId(id);
+        return category;
+    }
+
+    private static Product product(Long id, Category category, String price, int stock) {
+        Product product = new Product("Product " + id, null, new BigDecimal(price), category, stock, List.of());
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.productservice.service;
+
+import com.example.productservice.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency percentiles of {@link ProductSearchIndex} over a million synthetic products:
+ * names of three words and descriptions of fifteen, drawn from a 50k-word vocabulary with a
+ * Zipf-like skew, queried with one to three words. Run the {@link #main} method from the
+ * test classpath.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class ProductSearchIndexBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int VOCABULARY = 50_000;
+    private static final int QUERIES = 1024;
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    @State(Scope.Thread)
+    public static class Catalogue {
+        @Param({"1", "2", "3"})
+        int terms;
+
+        ProductSearchIndex index;
+        String[] queries;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            String[] words = new String[VOCABULARY];
+            for (int i = 0; i < VOCABULARY; i++) {
+                words[i] = "w" + Integer.toString(i, 36);
+            }
+            index = new ProductSearchIndex();
+            for (long id = 1; id <= PRODUCTS; id++) {
+                Product product = new Product(text(random, words, 3), text(random, words, 15), BigDecimal.ONE, null,
+                        1, List.of());
+                product.setId(id);
+                index.index(product);
+            }
+            queries = new String[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                queries[i] = text(random, words, terms);
+            }
+        }
+
+        String nextQuery() {
+            next = (next + 1) & (QUERIES - 1);
+            return queries[next];
+        }
+    }
+
+    @Benchmark
+    public Object search(Catalogue catalogue) {
+        return catalogue.index.search(catalogue.nextQuery(), FIRST_PAGE);
+    }
+
+    // Word i is drawn with probability roughly proportional to 1 / (i + 1).
+    private static String text(Random random, String[] words, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int word = (int) Math.min(words.length - 1, Math.exp(random.nextDouble() * Math.log(words.length)) - 1);
+            text.append(words[word]).append(' ');
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.productservice.service;
+
+import com.example.productservice.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Test
+    public void testTokenizeFoldsCaseAndAccents() {
+        assertEquals(List.of("creme", "brulee", "4k", "tv"), ProductSearchIndex.tokenize("Crème BRÛLÉE, 4K-TV!"));
+        assertEquals(List.of(), ProductSearchIndex.tokenize(null));
+    }
+
+    @Test
+    public void testMatchesEveryTermInNameOrDescription() {
+        index.index(product(1L, "Gaming Laptop", "Fast laptop with RGB keyboard"));
+        index.index(product(2L, "Office Laptop", "Quiet and light"));
+        index.index(product(3L, "Mechanical Keyboard", "RGB backlight"));
+
+        assertEquals(List.of(1L, 2L), ids("laptop"));
+        assertEquals(List.of(1L), ids("laptop keyboard"));
+        assertEquals(List.of(3L, 1L), ids("RGB keyboard"));
+        assertEquals(List.of(), ids("laptop mouse"));
+        assertEquals(List.of(2L), ids("the QUIET laptop"));
+        assertEquals(List.of(), ids("  "));
+    }
+
+    @Test
+    public void testRanksWithBm25() {
+        index.index(product(1L, "Cable", "A usb cable, usb-c to usb-a, for any usb port"));
+        index.index(product(2L, "USB Hub", "Four ports"));
+        index.index(product(3L, "Charger", "Comes with a long braided usb cable and a wall plug with two outlets"));
+
+        // The name match and the repeated description term beat a single mention in a long description.
+        List<Long> ranked = ids("usb");
+        assertEquals(3, ranked.size());
+        assertEquals(3L, ranked.get(2));
+    }
+
+    @Test
+    public void testIntersectsLongPostingLists() {
+        for (long id = 1; id <= 5000; id++) {
+            String name = (id % 3 == 0 ? "red " : "") + (id % 7 == 0 ? "large " : "") + "box";
+            index.index(product(id, name, id % 500 == 0 ? "rare" : "plain"));
+        }
+
+        assertEquals(5000 / 21, index.search("red large box", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(List.of(1500L, 3000L, 4500L), ids("rare red"));
+        assertEquals(List.of(3500L), ids("large rare box"));
+    }
+
+    @Test
+    public void testPaginates() {
+        for (long id = 1; id <= 25; id++) {
+            index.index(product(id, "Widget " + id, "A widget"));
+        }
+
+        Page<Long> page = index.search("widget", PageRequest.of(2, 10));
+        assertEquals(25, page.getTotalElements());
+        assertEquals(List.of(21L, 22L, 23L, 24L, 25L), page.getContent());
+        assertTrue(index.search("widget", PageRequest.of(3, 10)).getContent().isEmpty());
+    }
+
+    @Test
+    public void testUpdatesAndDeletesAreSeenImmediately() {
+        index.index(product(1L, "Red Chair", "Wooden"));
+        index.index(product(2L, "Blue Chair", "Plastic"));
+
+        index.index(product(1L, "Green Chair", "Wooden"));
+        index.remove(2L);
+
+        assertEquals(List.of(), ids("red"));
+        assertEquals(List.of(1L), ids("green chair"));
+        assertEquals(List.of(1L), ids("chair"));
+        assertEquals(1, index.search("chair", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testCompactionKeepsLiveProducts() {
+        for (long id = 1; id <= 3000; id++) {
+            index.index(product(id, "Lamp " + id, id % 2 == 0 ? "desk lamp" : "floor lamp"));
+        }
+        for (long id = 1; id <= 2000; id++) {
+            index.remove(id);
+        }
+        index.index(product(3000L, "Lamp 3000", "ceiling lamp"));
+
+        assertEquals(1000, index.size());
+        assertEquals(1000, index.search("lamp", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(499, index.search("desk lamp", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(List.of(2001L), ids("2001"));
+        assertEquals(List.of(3000L), ids("ceiling"));
+        assertEquals(List.of(), ids("1999"));
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, PageRequest.of(0, 100)).getContent();
+    }
+
+    private static Product product(Long id, String name, String description) {
+        Product product = new Product(name, description, BigDecimal.ONE, null, 1, List.of());
+        product.setId(id);
+        return product;
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -28,12 +29,27 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductSuggester suggester;
+
+    @Mock
+    private ProductFacetIndex facetIndex;
+
+    @Mock
+    private CategoryTreeCache categoryTree;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private ProductService productService;
 
     @Test
     public void testGetAllProducts() {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product product1 = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
         Product product2 = new Product("Phone", "Smartphone", BigDecimal.valueOf(500), category, 20, Arrays.asList("img2.jpg"));
         Page<Product> page = new PageImpl<>(Arrays.asList(product1, product2), PageRequest.of(0, 10), 2);
@@ -47,7 +63,7 @@ public class ProductServiceTest {
 
     @Test
     public void testGetProductById_Found() {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product product = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
 
@@ -70,7 +86,7 @@ public class ProductServiceTest {
 
     @Test
     public void testCreateProduct() {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product product = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
         when(productRepository.save(product)).thenReturn(product);
 
@@ -82,7 +98,7 @@ public class ProductServiceTest {
 
     @Test
     public void testUpdateProduct_Found() {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product existingProduct = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
         existingProduct.setId(1L);
         Product productDetails = new Product("Updated Laptop", "Updated Desc", BigDecimal.valueOf(1200), category, 15, Arrays.asList("img3.jpg"));
@@ -100,7 +116,7 @@ public class ProductServiceTest {
 
     @Test
     public void testUpdateProduct_NotFound() {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product productDetails = new Product("Updated Laptop", "Updated Desc", BigDecimal.valueOf(1200), category, 15, Arrays.asList("img3.jpg"));
         when(productRepository.findById(1L)).thenReturn(Optional.empty());
 
@@ -122,14 +138,18 @@ public class ProductServiceTest {
 
     @Test
     public void testSearchProducts() {
-        Category category = new Category("Electronics");
+        Category category = new Category("Electronics", null, null);
         Product product = new Product("Laptop", "Gaming Laptop", BigDecimal.valueOf(1000), category, 10, Arrays.asList("img1.jpg"));
-        when(productRepository.findByNameContainingIgnoreCase("laptop")).thenReturn(Arrays.asList(product));
+        product.setId(1L);
+        Pageable pageable = PageRequest.of(0, 10);
+        when(searchIndex.search("laptop", pageable)).thenReturn(new PageImpl<>(Arrays.asList(1L), pageable, 1));
+        when(productRepository.findAllById(Arrays.asList(1L))).thenReturn(Arrays.asList(product));
 
-        List<Product> result = productService.searchProducts("laptop");
+        Page<Product> result = productService.searchProducts("laptop", pageable);
 
-        assertEquals(1, result.size());
-        assertEquals("Laptop", result.get(0).getName());
-        verify(productRepository, times(1)).findByNameContainingIgnoreCase("laptop");
+        assertEquals(1, result.getContent().size());
+        assertEquals(1, result.getTotalElements());
+        assertEquals("Laptop", result.getContent().get(0).getName());
+        verify(searchIndex, times(1)).search("laptop", pageable);
     }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.example.productservice.service;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per keystroke for 100k products with three-word names over a 500-word vocabulary.
+ * {@code suggest} asks {@link ProductSuggester} for the top ten; {@code repositoryPrefix}
+ * runs the equivalent name-prefix query against H2, and {@code repositoryContaining} the
+ * {@code findByNameContainingIgnoreCase} query the search box used before. Prefixes are
+ * one to four letters of a word from a random name. Run the {@link #main} method from the
+ * test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class ProductSuggestBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int VOCABULARY = 500;
+    private static final int PREFIXES = 1024;
+
+    @State(Scope.Thread)
+    public static class Catalogue {
+        JdbcDataSource dataSource;
+        Connection connection;
+        PreparedStatement prefixQuery;
+        PreparedStatement containingQuery;
+        ProductSuggester suggester;
+        String[] prefixes;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            Random random = new Random(42);
+            String[] words = new String[VOCABULARY];
+            for (int i = 0; i < VOCABULARY; i++) {
+                StringBuilder word = new StringBuilder();
+                for (int length = 4 + random.nextInt(6); word.length() < length; ) {
+                    word.append((char) ('a' + random.nextInt(26)));
+                }
+                words[i] = word.toString();
+            }
+            String[] names = new String[PRODUCTS];
+            for (int i = 0; i < PRODUCTS; i++) {
+                names[i] = words[random.nextInt(VOCABULARY)] + " " + words[random.nextInt(VOCABULARY)] + " "
+                        + words[random.nextInt(VOCABULARY)];
+            }
+            prefixes = new String[PREFIXES];
+            for (int i = 0; i < PREFIXES; i++) {
+                String word = names[random.nextInt(PRODUCTS)].split(" ")[random.nextInt(3)];
+                prefixes[i] = word.substring(0, 1 + random.nextInt(Math.min(4, word.length())));
+            }
+
+            suggester = new ProductSuggester();
+            for (int i = 0; i < PRODUCTS; i++) {
+                suggester.add((long) i, names[i]);
+                for (int views = random.nextInt(5); views > 0; views--) {
+                    suggester.recordView((long) i);
+                }
+            }
+            suggester.flushPopularity();
+
+            dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:suggest");
+            connection = dataSource.getConnection();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+                statement.execute("CREATE INDEX idx_products_name ON products (name)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO products VALUES (?, ?)")) {
+                for (int i = 0; i < PRODUCTS; i++) {
+                    insert.setLong(1, i);
+                    insert.setString(2, names[i]);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            prefixQuery = connection.prepareStatement(
+                    "SELECT id, name FROM products WHERE name LIKE ? ORDER BY name LIMIT 10");
+            containingQuery = connection.prepareStatement(
+                    "SELECT id, name FROM products WHERE UPPER(name) LIKE UPPER(?)");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+
+        String nextPrefix() {
+            next = (next + 1) & (PREFIXES - 1);
+            return prefixes[next];
+        }
+    }
+
+    @Benchmark
+    public Object suggest(Catalogue catalogue) {
+        return catalogue.suggester.suggest(catalogue.nextPrefix(), ProductSuggester.MAX_SUGGESTIONS);
+    }
+
+    @Benchmark
+    public void repositoryPrefix(Catalogue catalogue, Blackhole blackhole) throws SQLException {
+        catalogue.prefixQuery.setString(1, catalogue.nextPrefix() + "%");
+        consume(catalogue.prefixQuery, blackhole);
+    }
+
+    @Benchmark
+    public void repositoryContaining(Catalogue catalogue, Blackhole blackhole) throws SQLException {
+        catalogue.containingQuery.setString(1, "%" + catalogue.nextPrefix() + "%");
+        consume(catalogue.containingQuery, blackhole);
+    }
+
+    private static void consume(PreparedStatement query, Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getLong(1));
+                blackhole.consume(rs.getString(2));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSuggestBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
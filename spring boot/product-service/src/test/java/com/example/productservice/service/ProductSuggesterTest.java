@@ -0,0 +1,94 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSuggesterTest {
+
+    private final ProductSuggester suggester = new ProductSuggester();
+
+    @Test
+    public void testSuggestsByPrefixOfNameOrWord() {
+        suggester.add(1L, "Gaming Laptop");
+        suggester.add(2L, "Laptop Stand");
+        suggester.add(3L, "Lamp");
+        suggester.add(4L, "Garden Hose");
+
+        assertEquals(List.of(1L, 2L, 3L), ids("la"));
+        assertEquals(List.of(1L, 2L), ids("LAPT"));
+        assertEquals(List.of(1L), ids("gaming l"));
+        assertEquals(List.of(1L, 4L), ids("ga"));
+        assertEquals(List.of(), ids("gaming s"));
+        assertEquals(List.of(), ids(""));
+        assertEquals("Gaming Laptop", suggester.suggest("gam", 10).get(0).getName());
+    }
+
+    @Test
+    public void testRanksByPopularity() {
+        suggester.add(1L, "Phone Case");
+        suggester.add(2L, "Phone Charger");
+        suggester.add(3L, "Phone");
+        for (int i = 0; i < 3; i++) {
+            suggester.recordView(2L);
+        }
+        suggester.recordView(3L);
+        assertEquals(List.of(1L, 2L, 3L), ids("phone"));
+
+        suggester.flushPopularity();
+
+        assertEquals(List.of(2L, 3L, 1L), ids("phone"));
+        assertEquals(List.of(2L, 1L), ids("phone c"));
+        assertEquals(List.of(2L), ids("ch"));
+    }
+
+    @Test
+    public void testKeepsTheTopTenUnderEveryPrefix() {
+        for (long id = 1; id <= 50; id++) {
+            suggester.add(id, "Item " + id);
+            for (int i = 0; i < id; i++) {
+                suggester.recordView(id);
+            }
+        }
+        suggester.flushPopularity();
+
+        assertEquals(List.of(50L, 49L, 48L, 47L, 46L, 45L, 44L, 43L, 42L, 41L), ids("item"));
+        assertEquals(List.of(50L, 49L, 48L), suggester.suggest("item", 3).stream()
+                .map(ProductSuggestion::getId).collect(Collectors.toList()));
+        assertEquals(List.of(19L, 18L, 17L, 16L, 15L, 14L, 13L, 12L, 11L, 10L), ids("item 1"));
+        assertEquals(List.of(9L), ids("9"));
+    }
+
+    @Test
+    public void testRenamesAndRemovals() {
+        suggester.add(1L, "Red Mug");
+        suggester.add(2L, "Red Mug Large");
+        suggester.recordView(1L);
+        suggester.flushPopularity();
+
+        suggester.add(1L, "Blue Mug");
+        suggester.remove(2L);
+
+        assertEquals(List.of(), ids("red"));
+        assertEquals(List.of(1L), ids("mug"));
+        assertEquals(List.of(1L), ids("blue"));
+        assertEquals(List.of(), ids("large"));
+
+        suggester.add(3L, "Blue Bowl");
+        // Popularity survives the rename.
+        assertEquals(List.of(1L, 3L), ids("blue"));
+        suggester.remove(1L);
+        suggester.remove(3L);
+        assertEquals(List.of(), ids("b"));
+    }
+
+    private List<Long> ids(String prefix) {
+        return suggester.suggest(prefix, ProductSuggester.MAX_SUGGESTIONS).stream()
+                .map(ProductSuggestion::getId)
+                .collect(Collectors.toList());
+    }
+}